@@ -20,6 +20,7 @@ import com.ctrip.framework.apollo.core.ApolloClientSystemConsts;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.spring.annotation.EnableApolloConfig;
 import com.ctrip.framework.apollo.spring.config.PropertySourcesConstants;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetchSelector;
 import io.microsphere.spring.util.PropertySourcesUtils;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.Ordered;
@@ -54,7 +55,7 @@ import static com.ctrip.framework.apollo.spring.config.PropertySourcesConstants.
 @Inherited
 @Documented
 @EnableApolloConfig
-@Import(ApolloPropertySourceBeanDefinitionRegistrar.class)
+@Import({PropertySourcePrefetchSelector.class, ApolloPropertySourceBeanDefinitionRegistrar.class})
 public @interface ApolloPropertySource {
 
     /**
@@ -118,4 +119,51 @@ public @interface ApolloPropertySource {
      * @return default value is <code>true</code>
      */
     boolean autoRefreshed() default true;
+
+    /**
+     * Indicates the cloned old {@link org.springframework.core.env.PropertySource} for the change events is stored in
+     * the off-heap compact arena ({@link io.microsphere.configuration.spring.env.OffHeapPropertySource}) rather than
+     * the {@link java.util.HashMap}, thus the heap footprint is independent of the count of keys, it's recommended
+     * for the namespaces holding very large flat property sets. The values are stored as {@link String strings}.
+     *
+     * @return default value is <code>false</code>
+     */
+    boolean offHeap() default false;
+
+    /**
+     * Indicates the resolved values of the properties containing the placeholders, e.g, <code>"${server.port}"</code>,
+     * are cached with the keys they depend on, which are invalidated precisely by the
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent} of the changed keys, thus the
+     * placeholders are not resolved through the property-source chain on every lookup.
+     * <p>The changes of the depended keys should be published as the
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent}.
+     *
+     * @return default value is <code>false</code>
+     * @see io.microsphere.configuration.spring.env.PlaceholderCachingPropertySource
+     */
+    boolean placeholdersCached() default false;
+
+    /**
+     * The namespace(s) of Apollo config loaded lazily, which are not the {@link #namespace() eager ones}, the
+     * placeholder {@link org.springframework.core.env.PropertySource PropertySources} are appended to the Apollo
+     * {@link org.springframework.core.env.CompositePropertySource} on startup, each namespace is fetched and then
+     * {@link #autoRefreshed() watched} on the first property access, exactly once even if accessed concurrently.
+     * <p>It's recommended for the large namespaces used rarely, the auto-updated {@code @Value} of Apollo doesn't
+     * apply to them. The {@link #lazyKeyPrefixes() key prefixes} are required, otherwise any lookup falling through
+     * the former {@link org.springframework.core.env.PropertySource PropertySources} would load all lazy namespaces.
+     *
+     * @return default value is the empty array
+     * @see io.microsphere.configuration.spring.env.LazyPropertySource
+     * @see #lazyKeyPrefixes()
+     */
+    String[] lazyNamespaces() default {};
+
+    /**
+     * The prefixes of the property names triggering the loading of the {@link #lazyNamespaces() lazy namespaces},
+     * the access of the other property names is missed without loading, at least one prefix is required if any
+     * lazy namespace is declared.
+     *
+     * @return default value is the empty array
+     */
+    String[] lazyKeyPrefixes() default {};
 }
@@ -17,12 +17,23 @@
 package io.microsphere.configuration.apollo.spring.annotation;
 
 import com.ctrip.framework.apollo.Config;
+import com.ctrip.framework.apollo.ConfigService;
 import com.ctrip.framework.apollo.model.ConfigChange;
 import com.ctrip.framework.apollo.model.ConfigChangeEvent;
 import com.ctrip.framework.apollo.spring.annotation.EnableApolloConfig;
 import com.ctrip.framework.apollo.spring.config.ConfigPropertySource;
+import com.ctrip.framework.apollo.spring.config.ConfigPropertySourceFactory;
 import com.ctrip.framework.apollo.spring.config.PropertySourcesProcessor;
-import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import com.ctrip.framework.apollo.spring.util.SpringInjector;
+import io.microsphere.configuration.metrics.ChangeTrace;
+import io.microsphere.configuration.metrics.ConfigurationMetrics;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetchRegistry;
+import io.microsphere.configuration.spring.env.LazyPropertySource;
+import io.microsphere.configuration.spring.env.OffHeapPropertySource;
+import io.microsphere.configuration.spring.env.PlaceholderCachingPropertySource;
+import io.microsphere.configuration.spring.env.PropertySourceFootprintReporter;
+import io.microsphere.configuration.spring.env.event.PropertiesDiff;
+import io.microsphere.configuration.util.StringInterner;
 import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
 import io.microsphere.spring.context.annotation.BeanCapableImportCandidate;
 import io.microsphere.spring.core.annotation.ResolvablePlaceholderAnnotationAttributes;
@@ -32,7 +43,11 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.MutablePropertySources;
@@ -41,22 +56,28 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.util.StringUtils;
 
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
 import static com.ctrip.framework.apollo.core.ApolloClientSystemConsts.APOLLO_CLUSTER;
 import static com.ctrip.framework.apollo.core.ApolloClientSystemConsts.APOLLO_META;
 import static com.ctrip.framework.apollo.core.ApolloClientSystemConsts.APP_ID;
 import static com.ctrip.framework.apollo.spring.config.PropertySourcesConstants.APOLLO_BOOTSTRAP_NAMESPACES;
 import static com.ctrip.framework.apollo.spring.config.PropertySourcesConstants.APOLLO_PROPERTY_SOURCE_NAME;
-import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.added;
-import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.removed;
-import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.replaced;
+import static io.microsphere.configuration.concurrent.ConfigurationExecutors.newSerialDispatchExecutor;
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
+import static io.microsphere.configuration.metrics.ConfigurationMetricsUtils.getConfigurationMetrics;
 import static io.microsphere.spring.core.annotation.ResolvablePlaceholderAnnotationAttributes.of;
+import static java.lang.Integer.toHexString;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.identityHashCode;
+import static java.lang.System.nanoTime;
 
 /**
  * {@link ApolloPropertySource} {@link ImportBeanDefinitionRegistrar} to register the Apollo Configuration
@@ -71,6 +92,13 @@ import static io.microsphere.spring.core.annotation.ResolvablePlaceholderAnnotat
 public class ApolloPropertySourceBeanDefinitionRegistrar extends BeanCapableImportCandidate
         implements ImportBeanDefinitionRegistrar, BeanFactoryPostProcessor, ApplicationContextAware {
 
+    /**
+     * The name of configuration backend
+     */
+    public static final String BACKEND = "apollo";
+
+    private final ConfigurationMetrics metrics = getConfigurationMetrics();
+
     private ResolvablePlaceholderAnnotationAttributes attributes;
 
     private ApplicationContext context;
@@ -88,6 +116,11 @@ public class ApolloPropertySourceBeanDefinitionRegistrar extends BeanCapableImpo
 
     @Override
     public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        // Release the prefetched configs that have been cached by Apollo client
+        for (String namespace : attributes.getStringArray("namespace")) {
+            PropertySourcePrefetchRegistry.get(beanFactory).take(BACKEND, namespace);
+        }
+
         MutablePropertySources propertySources = environment.getPropertySources();
         PropertySource propertySource = propertySources.get(APOLLO_PROPERTY_SOURCE_NAME);
 
@@ -103,23 +136,75 @@ public class ApolloPropertySourceBeanDefinitionRegistrar extends BeanCapableImpo
         if (autoRefreshed) {
             Collection<PropertySource<?>> subPropertySources = compositePropertySource.getPropertySources();
             oldPropertySourcesMap = new ConcurrentHashMap<>(subPropertySources.size());
+            // The old PropertySources are reported as the footprints
+            PropertySourceFootprintReporter.registerSnapshots(environment, APOLLO_PROPERTY_SOURCE_NAME + "@"
+                    + toHexString(identityHashCode(this)) + ".snapshots", oldPropertySourcesMap);
+            if (context instanceof ConfigurableApplicationContext) {
+                ConfigurableApplicationContext applicationContext = (ConfigurableApplicationContext) context;
+                // The snapshots are unregistered with the context
+                applicationContext.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+                    if (event instanceof ContextClosedEvent && ((ContextClosedEvent) event).getApplicationContext() == applicationContext) {
+                        PropertySourceFootprintReporter.unregister(environment);
+                    }
+                });
+            }
 
             for (PropertySource<?> subPropertySource : subPropertySources) {
                 if (subPropertySource instanceof ConfigPropertySource) {
-                    ConfigPropertySource configPropertySource = (ConfigPropertySource) subPropertySource;
-                    Config config = configPropertySource.getSource();
-                    String configPropertySourceName = configPropertySource.getName();
-                    oldPropertySourcesMap.computeIfAbsent(configPropertySourceName, name -> {
-                        config.addChangeListener(event -> onChanged(name, configPropertySource, event));
-                        return clonePropertySource(name, configPropertySource);
-                    });
+                    addChangeListener((ConfigPropertySource) subPropertySource);
+                }
+            }
+        }
+
+        String[] lazyNamespaces = attributes.getStringArray("lazyNamespaces");
+        String[] lazyKeyPrefixes = attributes.getStringArray("lazyKeyPrefixes");
+        if (lazyNamespaces.length > 0 && lazyKeyPrefixes.length == 0) {
+            // Any lookup falling through the former PropertySources would load all lazy namespaces
+            throw new IllegalArgumentException("The key prefixes are required by the lazy Apollo namespaces : "
+                    + Arrays.toString(lazyNamespaces));
+        }
+        for (String namespace : lazyNamespaces) {
+            // The namespace is fetched and watched on the first access
+            compositePropertySource.addPropertySource(new LazyPropertySource(namespace, () -> {
+                Config config = ConfigService.getConfig(namespace);
+                ConfigPropertySource configPropertySource = SpringInjector.getInstance(ConfigPropertySourceFactory.class)
+                        .getConfigPropertySource(namespace, config);
+                if (autoRefreshed) {
+                    addChangeListener(configPropertySource);
                 }
+                return configPropertySource;
+            }, lazyKeyPrefixes));
+        }
+
+        if (attributes.getBoolean("placeholdersCached")) {
+            PlaceholderCachingPropertySource placeholderCachingPropertySource =
+                    new PlaceholderCachingPropertySource(compositePropertySource, environment);
+            propertySources.replace(APOLLO_PROPERTY_SOURCE_NAME, placeholderCachingPropertySource);
+            if (context instanceof ConfigurableApplicationContext) {
+                ((ConfigurableApplicationContext) context).addApplicationListener(placeholderCachingPropertySource);
             }
         }
     }
 
+    private void addChangeListener(ConfigPropertySource configPropertySource) {
+        Config config = configPropertySource.getSource();
+        String configPropertySourceName = configPropertySource.getName();
+        oldPropertySourcesMap.computeIfAbsent(configPropertySourceName, name -> {
+            // Dispatch the changes of namespace in order
+            Executor dispatcher = newSerialDispatchExecutor();
+            config.addChangeListener(event -> dispatcher.execute(() -> onChanged(name, configPropertySource, event)));
+            return clonePropertySource(name, configPropertySource);
+        });
+    }
+
     private void onChanged(String configPropertySourceName, ConfigPropertySource configPropertySource, ConfigChangeEvent configChangeEvent) {
 
+        long receivedTime = nanoTime();
+
+        long receivedTimeMillis = currentTimeMillis();
+
+        metrics.recordWatchEvent(BACKEND, APOLLO_PROPERTY_SOURCE_NAME, configPropertySourceName);
+
         ConcurrentMap<String, PropertySource> oldPropertySourcesMap = this.oldPropertySourcesMap;
 
         ApplicationContext context = this.context;
@@ -147,36 +232,46 @@ public class ApolloPropertySourceBeanDefinitionRegistrar extends BeanCapableImpo
             }
         }
 
-        MapPropertySource addedPropertySource = new MapPropertySource(configPropertySourceName + "#added", addedProperties);
-        MapPropertySource modifiedPropertySource = new MapPropertySource(configPropertySourceName + "#modified", modifiedProperties);
-        MapPropertySource deletedPropertySource = new MapPropertySource(configPropertySourceName + "#deleted", deletedProperties);
-
-        PropertySourceChangedEvent addEvent = added(context, addedPropertySource);
-        PropertySourceChangedEvent modifiedEvent = replaced(context, oldPropertySource, modifiedPropertySource);
-        PropertySourceChangedEvent deletedEvent = removed(context, deletedPropertySource);
+        PropertySourcesChangedEvent event = PropertiesDiff.of(addedProperties, modifiedProperties, deletedProperties)
+                .toEvent(context, configPropertySourceName, oldPropertySource);
 
-        PropertySourcesChangedEvent event = new PropertySourcesChangedEvent(context, addEvent, modifiedEvent, deletedEvent);
+        long applyStartTime = nanoTime();
 
         context.publishEvent(event);
 
+        long appliedTime = nanoTime();
+
+        metrics.recordPropagation(BACKEND, APOLLO_PROPERTY_SOURCE_NAME, configPropertySourceName, appliedTime - receivedTime);
+
+        // The release key is not exposed by the Apollo client, the version and its time are unknown
+        metrics.recordChange(BACKEND, APOLLO_PROPERTY_SOURCE_NAME, configPropertySourceName, new ChangeTrace(UNKNOWN,
+                UNKNOWN, receivedTimeMillis, applyStartTime - receivedTime, appliedTime - applyStartTime, currentTimeMillis()));
+
         // clone a new PropertySource as the old
         oldPropertySource = clonePropertySource(configPropertySourceName, configPropertySource);
 
         oldPropertySourcesMap.put(configPropertySourceName, oldPropertySource);
+
+        metrics.recordRefresh(BACKEND, APOLLO_PROPERTY_SOURCE_NAME, configPropertySourceName, nanoTime() - receivedTime, true);
     }
 
     private PropertySource clonePropertySource(String configPropertySourceName, ConfigPropertySource configPropertySource) {
+        if (attributes.getBoolean("offHeap")) {
+            // The arena is built from the keys and values directly, no intermediate HashMap
+            return OffHeapPropertySource.of(configPropertySource).withName(configPropertySourceName);
+        }
+        StringInterner interner = StringInterner.getDefault();
         String[] propertyNames = configPropertySource.getPropertyNames();
         Map<String, Object> properties = new HashMap<>(propertyNames.length);
         for (String propertyName : propertyNames) {
             Object propertyValue = configPropertySource.getProperty(propertyName);
-            properties.put(propertyName, propertyValue);
+            properties.put(interner.intern(propertyName), interner.internValue(propertyValue));
         }
         return new MapPropertySource(configPropertySourceName, properties);
     }
 
 
-    private static void setSystemPropertiesFromAttributes(ResolvablePlaceholderAnnotationAttributes attributes) {
+    static void setSystemPropertiesFromAttributes(ResolvablePlaceholderAnnotationAttributes attributes) {
 
         String appId = attributes.getString("appId");
         String meta = attributes.getString("meta");
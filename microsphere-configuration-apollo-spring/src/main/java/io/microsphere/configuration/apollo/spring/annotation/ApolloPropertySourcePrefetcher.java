@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.apollo.spring.annotation;
+
+import com.ctrip.framework.apollo.ConfigService;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetchRegistry;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetcher;
+import io.microsphere.spring.core.annotation.ResolvablePlaceholderAnnotationAttributes;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.lang.annotation.Annotation;
+
+import static io.microsphere.configuration.apollo.spring.annotation.ApolloPropertySourceBeanDefinitionRegistrar.BACKEND;
+import static io.microsphere.configuration.apollo.spring.annotation.ApolloPropertySourceBeanDefinitionRegistrar.setSystemPropertiesFromAttributes;
+import static io.microsphere.spring.core.annotation.ResolvablePlaceholderAnnotationAttributes.of;
+
+/**
+ * {@link ApolloPropertySource} {@link PropertySourcePrefetcher} loads the Apollo {@link ConfigService#getConfig(String)
+ * configs} of namespaces asynchronously, which are cached by Apollo client and then reused by
+ * {@link com.ctrip.framework.apollo.spring.config.PropertySourcesProcessor}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ApolloPropertySource
+ * @see ApolloPropertySourceBeanDefinitionRegistrar
+ * @since 1.0.0
+ */
+public class ApolloPropertySourcePrefetcher implements PropertySourcePrefetcher {
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+        return ApolloPropertySource.class;
+    }
+
+    @Override
+    public void prefetch(AnnotationAttributes annotationAttributes, ConfigurableEnvironment environment,
+                         PropertySourcePrefetchRegistry registry) throws Throwable {
+        ResolvablePlaceholderAnnotationAttributes attributes = of(annotationAttributes, ApolloPropertySource.class, environment);
+        // The System Properties must be set before Apollo client is initialized
+        setSystemPropertiesFromAttributes(attributes);
+        for (String namespace : attributes.getStringArray("namespace")) {
+            registry.prefetch(BACKEND, namespace, () -> ConfigService.getConfig(namespace));
+        }
+    }
+}
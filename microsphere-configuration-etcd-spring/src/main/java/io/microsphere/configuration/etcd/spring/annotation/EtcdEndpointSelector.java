@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.etcd.spring.annotation;
+
+import io.microsphere.logging.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static io.microsphere.logging.LoggerFactory.getLogger;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The selector probes the health and latency of the etcd endpoints by the TCP connections, and then orders them
+ * for the "pick_first" load balancing of the etcd client:
+ * <ol>
+ *     <li>The reachable endpoints in the ascending order of latency, thus the local members are preferred to the
+ *     slow or remote-region ones</li>
+ *     <li>The endpoints can't be probed, e.g, the non-HTTP schemes</li>
+ *     <li>The unreachable endpoints, which are kept as the last resort</li>
+ * </ol>
+ * The order within each group follows the declared one, the next endpoint takes over the reads and watches if the
+ * current one fails.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see EtcdPropertySource#latencyAware()
+ * @since 1.0.0
+ */
+public class EtcdEndpointSelector {
+
+    private static final Logger logger = getLogger(EtcdEndpointSelector.class);
+
+    private static final int DEFAULT_PORT = 2379;
+
+    private static final int PROBE_SAMPLES = 3;
+
+    private final int probeTimeoutMillis;
+
+    /**
+     * @param probeTimeoutMillis the timeout in milliseconds to connect an endpoint, the endpoint is unreachable if
+     *                           it's exceeded
+     */
+    public EtcdEndpointSelector(int probeTimeoutMillis) {
+        this.probeTimeoutMillis = probeTimeoutMillis;
+    }
+
+    /**
+     * Probe the endpoints and then order them
+     *
+     * @param endpoints the endpoints of etcd
+     * @return the ordered endpoints
+     */
+    public String[] select(String... endpoints) {
+        List<EndpointHealth> endpointHealths = probe(endpoints);
+        String[] orderedEndpoints = new String[endpointHealths.size()];
+        for (int i = 0; i < orderedEndpoints.length; i++) {
+            orderedEndpoints[i] = endpointHealths.get(i).getEndpoint();
+        }
+        logger.info("The etcd endpoints are ordered by the latency : {}", endpointHealths);
+        return orderedEndpoints;
+    }
+
+    /**
+     * Probe the endpoints concurrently
+     *
+     * @param endpoints the endpoints of etcd
+     * @return the {@link EndpointHealth health} of endpoints in the selection order
+     */
+    public List<EndpointHealth> probe(String... endpoints) {
+        int size = endpoints.length;
+        List<EndpointHealth> endpointHealths = new ArrayList<>(size);
+        if (size < 2) {
+            // Nothing to choose
+            for (String endpoint : endpoints) {
+                endpointHealths.add(new EndpointHealth(endpoint, EndpointHealth.UNPROBED));
+            }
+            return endpointHealths;
+        }
+        ExecutorService executorService = newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "microsphere-configuration-etcd-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> futures = new ArrayList<>(size);
+            for (String endpoint : endpoints) {
+                futures.add(executorService.submit(() -> probe(endpoint)));
+            }
+            for (int i = 0; i < size; i++) {
+                long latency;
+                try {
+                    latency = futures.get(i).get();
+                } catch (Exception e) {
+                    latency = EndpointHealth.UNREACHABLE;
+                }
+                endpointHealths.add(new EndpointHealth(endpoints[i], latency));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        // The stable sort keeps the declared order for the ties
+        endpointHealths.sort(EndpointHealth::compareTo);
+        return endpointHealths;
+    }
+
+    private long probe(String endpoint) {
+        InetSocketAddress address = resolveAddress(endpoint);
+        if (address == null) {
+            return EndpointHealth.UNPROBED;
+        }
+        long latency = EndpointHealth.UNREACHABLE;
+        // The minimum of samples excludes the outliers, e.g, the first DNS lookup
+        for (int i = 0; i < PROBE_SAMPLES; i++) {
+            long startTime = nanoTime();
+            try (Socket socket = new Socket()) {
+                socket.connect(address, probeTimeoutMillis);
+                latency = min(latency, nanoTime() - startTime);
+            } catch (IOException e) {
+                logger.debug("The etcd endpoint[{}] can't be connected, caused by : {}", endpoint, e.getMessage());
+                return EndpointHealth.UNREACHABLE;
+            }
+        }
+        return latency;
+    }
+
+    static InetSocketAddress resolveAddress(String endpoint) {
+        URI uri;
+        try {
+            uri = URI.create(endpoint);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            return null;
+        }
+        String host = uri.getHost();
+        if (host == null) {
+            return null;
+        }
+        int port = uri.getPort();
+        return new InetSocketAddress(host, port < 0 ? DEFAULT_PORT : port);
+    }
+
+    /**
+     * The health of an etcd endpoint
+     */
+    public static class EndpointHealth implements Comparable<EndpointHealth> {
+
+        /**
+         * The latency of the endpoint can't be probed
+         */
+        public static final long UNPROBED = Long.MAX_VALUE - 1;
+
+        /**
+         * The latency of the unreachable endpoint
+         */
+        public static final long UNREACHABLE = Long.MAX_VALUE;
+
+        private final String endpoint;
+
+        private final long latencyNanos;
+
+        EndpointHealth(String endpoint, long latencyNanos) {
+            this.endpoint = endpoint;
+            this.latencyNanos = latencyNanos;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * @return the connect latency in nanoseconds, or {@link #UNPROBED} / {@link #UNREACHABLE}
+         */
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public boolean isReachable() {
+            return latencyNanos != UNREACHABLE;
+        }
+
+        @Override
+        public int compareTo(EndpointHealth another) {
+            return Long.compare(this.latencyNanos, another.latencyNanos);
+        }
+
+        @Override
+        public String toString() {
+            if (latencyNanos == UNREACHABLE) {
+                return endpoint + "(unreachable)";
+            } else if (latencyNanos == UNPROBED) {
+                return endpoint + "(unprobed)";
+            }
+            return endpoint + "(" + NANOSECONDS.toMicros(latencyNanos) + "us)";
+        }
+    }
+}
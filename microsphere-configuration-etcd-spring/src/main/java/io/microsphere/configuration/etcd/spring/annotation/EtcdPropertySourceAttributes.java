@@ -16,6 +16,7 @@
  */
 package io.microsphere.configuration.etcd.spring.annotation;
 
+import io.microsphere.configuration.spring.annotation.ConfigurationPropertySourceAttributes;
 import io.microsphere.spring.config.context.annotation.PropertySourceExtensionAttributes;
 import org.springframework.core.env.PropertyResolver;
 
@@ -27,9 +28,10 @@ import java.util.Map;
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  * @see EtcdPropertySource
  * @see PropertySourceExtensionAttributes
+ * @see ConfigurationPropertySourceAttributes
  * @since 1.0.0
  */
-public class EtcdPropertySourceAttributes extends PropertySourceExtensionAttributes<EtcdPropertySource> {
+public class EtcdPropertySourceAttributes extends ConfigurationPropertySourceAttributes<EtcdPropertySource> {
 
     public EtcdPropertySourceAttributes(Map<String, Object> another, Class<EtcdPropertySource> annotationType, PropertyResolver propertyResolver) {
         super(another, annotationType, propertyResolver);
@@ -46,4 +48,20 @@ public class EtcdPropertySourceAttributes extends PropertySourceExtensionAttribu
     public final String[] getEndpoints() {
         return getStringArray("endpoints");
     }
+
+    public final boolean isLatencyAware() {
+        return getBoolean("latencyAware");
+    }
+
+    public final int getEndpointProbeTimeoutMillis() {
+        return getNumber("endpointProbeTimeoutMillis").intValue();
+    }
+
+    public final long getKeepaliveTimeMillis() {
+        return getNumber("keepaliveTimeMillis").longValue();
+    }
+
+    public final long getKeepaliveTimeoutMillis() {
+        return getNumber("keepaliveTimeoutMillis").longValue();
+    }
 }
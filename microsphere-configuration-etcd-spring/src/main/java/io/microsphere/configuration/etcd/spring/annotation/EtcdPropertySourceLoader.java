@@ -24,22 +24,39 @@ import io.etcd.jetcd.KeyValue;
 import io.etcd.jetcd.Watch;
 import io.etcd.jetcd.kv.GetResponse;
 import io.etcd.jetcd.watch.WatchEvent;
-import io.microsphere.spring.config.context.annotation.PropertySourceExtensionLoader;
+import io.etcd.jetcd.watch.WatchResponse;
+import io.microsphere.configuration.metrics.ChangeTrace;
+import io.microsphere.configuration.spring.annotation.ConfigurationPropertySourceLoader;
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup;
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup.VersionedResources;
+import io.microsphere.configuration.watch.WatchSubscriptionHub;
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
+import static io.microsphere.configuration.compression.CompressionUtils.decompress;
+import static io.microsphere.configuration.concurrent.ConfigurationExecutors.newSerialDispatchExecutor;
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
 import static io.microsphere.util.ShutdownHookUtils.addShutdownHookCallback;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 
 /**
  * {@link EtcdPropertySource} {@link PropertySource} Loader to load the etcd Configuration:
@@ -51,12 +68,19 @@ import static io.microsphere.util.ShutdownHookUtils.addShutdownHookCallback;
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  * @since 1.0.0
  */
-public class EtcdPropertySourceLoader extends PropertySourceExtensionLoader<EtcdPropertySource, EtcdPropertySourceAttributes> {
+public class EtcdPropertySourceLoader extends ConfigurationPropertySourceLoader<EtcdPropertySource, EtcdPropertySourceAttributes> {
+
+    /**
+     * The name of configuration backend
+     */
+    public static final String BACKEND = "etcd";
+
+    private static final String PICK_FIRST_POLICY = "pick_first";
 
     private static final Map<String, Client> clientsCache;
 
     static {
-        clientsCache = new HashMap<>();
+        clientsCache = new ConcurrentHashMap<>();
         addShutdownHookCallback(new Runnable() {
             @Override
             public void run() {
@@ -69,17 +93,54 @@ public class EtcdPropertySourceLoader extends PropertySourceExtensionLoader<Etcd
     }
 
     @Override
-    protected Resource[] resolveResources(EtcdPropertySourceAttributes etcdPropertySourceAttributes,
+    protected String getBackend() {
+        return BACKEND;
+    }
+
+    @Override
+    protected Resource[] doResolveResources(EtcdPropertySourceAttributes etcdPropertySourceAttributes,
                                           String propertySourceName, String resourceValue) throws Throwable {
 
-        Client client = getClient(etcdPropertySourceAttributes);
+        long startTime = nanoTime();
 
-        KV kv = client.getKVClient();
-        ByteSequence key = toByteSequence(resourceValue, etcdPropertySourceAttributes);
-        CompletableFuture<GetResponse> future = kv.get(key);
-        GetResponse getResponse = future.get();
+        GetResponse getResponse = takePrefetched(etcdPropertySourceAttributes, resourceValue);
+        if (getResponse == null) { // Not prefetched or failed
+            getResponse = get(etcdPropertySourceAttributes, resourceValue).get();
+        }
         List<KeyValue> keyValues = getResponse.getKvs();
 
+        long fetchedBytes = 0;
+        for (KeyValue keyValue : keyValues) {
+            fetchedBytes += keyValue.getValue().size();
+        }
+
+        metrics.recordResolve(BACKEND, propertySourceName, resourceValue, nanoTime() - startTime, fetchedBytes);
+
+        return toResources(etcdPropertySourceAttributes, keyValues);
+    }
+
+    /**
+     * Take the response of key prefetched by {@link EtcdPropertySourcePrefetcher}
+     *
+     * @return the response if prefetched successfully, or <code>null</code>
+     */
+    private GetResponse takePrefetched(EtcdPropertySourceAttributes etcdPropertySourceAttributes, String resourceValue)
+            throws InterruptedException {
+        CompletableFuture<GetResponse> future = getPrefetchRegistry().take(BACKEND, buildPrefetchKey(etcdPropertySourceAttributes, resourceValue));
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // Fetch again
+            logger.warn("The prefetch of etcd key[{}] is failed, caused by : {}", resourceValue, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private static Resource[] toResources(EtcdPropertySourceAttributes etcdPropertySourceAttributes,
+                                          List<KeyValue> keyValues) throws IOException {
         int size = keyValues.size();
         if (size < 1) {
             return null;
@@ -94,7 +155,7 @@ public class EtcdPropertySourceLoader extends PropertySourceExtensionLoader<Etcd
             KeyValue keyValue = keyValues.get(i);
             ByteSequence value = keyValue.getValue();
             String description = keyValue.getKey().toString(charset);
-            resources[i] = new ByteArrayResource(value.getBytes(), description);
+            resources[i] = new ByteArrayResource(decompress(value.getBytes()), description);
         }
 
         return resources;
@@ -109,50 +170,157 @@ public class EtcdPropertySourceLoader extends PropertySourceExtensionLoader<Etcd
         Watch watchClient = client.getWatchClient();
         String encoding = etcdPropertySourceAttributes.getEncoding();
         Charset charset = Charset.forName(encoding);
+        String propertySourceName = propertySource.getName();
 
         int size = propertySourceResources.size();
         for (int i = 0; i < size; i++) {
             PropertySourceResource propertySourceResource = propertySourceResources.get(i);
             String resourceValue = propertySourceResource.getResourceValue();
             ByteSequence key = toByteSequence(resourceValue, etcdPropertySourceAttributes);
-            watchClient.watch(key, response -> {
-                List<WatchEvent> watchEvents = response.getEvents();
-                watchEvents.forEach(watchEvent -> onConfigChanged(watchEvent, charset, refresher));
-            });
+            // Dispatch the changes of key in order
+            Executor dispatcher = newSerialDispatchExecutor();
+            // The identical watches of the ApplicationContexts in the JVM share one etcd watch
+            Subscription subscription = getWatchSubscriptionHub().subscribe(BACKEND,
+                    buildPrefetchKey(etcdPropertySourceAttributes, resourceValue), (WatchResponse response) -> {
+                        long receivedTime = nanoTime();
+                        long receivedTimeMillis = currentTimeMillis();
+                        List<WatchEvent> watchEvents = response.getEvents();
+                        dispatcher.execute(() -> {
+                            long parseStartTime = nanoTime();
+                            watchEvents.forEach(watchEvent -> onConfigChanged(watchEvent, charset, propertySourceName, refresher));
+                            long applyStartTime = nanoTime();
+                            afterRefresh(etcdPropertySourceAttributes, propertySourceName);
+                            long appliedTime = nanoTime();
+                            metrics.recordPropagation(BACKEND, propertySourceName, resourceValue, appliedTime - receivedTime);
+                            // etcd doesn't stamp the write time, the mod_revision is the version
+                            metrics.recordChange(BACKEND, propertySourceName, resourceValue, new ChangeTrace(
+                                    getModRevision(watchEvents), UNKNOWN, receivedTimeMillis, applyStartTime - parseStartTime,
+                                    appliedTime - applyStartTime, currentTimeMillis()));
+                        });
+                    }, listener -> watchClient.watch(key, listener));
+            registerSubscription(subscription);
         }
     }
 
-    private void onConfigChanged(WatchEvent watchEvent, Charset charset, ResourcePropertySourcesRefresher refresher) {
+    private void onConfigChanged(WatchEvent watchEvent, Charset charset, String propertySourceName,
+                                 ResourcePropertySourcesRefresher refresher) {
         WatchEvent.EventType eventType = watchEvent.getEventType();
+        KeyValue keyValue = watchEvent.getKeyValue();
+        String resourceValue = keyValue.getKey().toString(charset);
+        metrics.recordWatchEvent(BACKEND, propertySourceName, resourceValue);
         if (WatchEvent.EventType.PUT.equals(eventType)) {
-            KeyValue keyValue = watchEvent.getKeyValue();
-            String resourceValue = keyValue.getKey().toString(charset);
             ByteSequence value = keyValue.getValue();
-            ByteArrayResource resource = new ByteArrayResource(value.getBytes());
+            byte[] bytes;
             try {
-                refresher.refresh(resourceValue, resource);
-            } catch (Throwable e) {
-                throw new RuntimeException(e);
+                bytes = decompress(value.getBytes());
+            } catch (IOException e) {
+                // e.g, the decompressed content exceeds the limit, the refresh fails and the current value is retained
+                logger.warn("The value of etcd key[{}] can't be decompressed, caused by : {}", resourceValue, e.getMessage());
+                metrics.recordRefresh(BACKEND, propertySourceName, resourceValue, 0L, false);
+                return;
             }
+            // The description is same as the resolved one, thus the nested PropertySource could be identified
+            ByteArrayResource resource = new ByteArrayResource(bytes, resourceValue);
+            refreshResource(propertySourceName, resourceValue, resource, refresher);
+        }
+    }
+
+    private static long getModRevision(List<WatchEvent> watchEvents) {
+        long modRevision = UNKNOWN;
+        for (WatchEvent watchEvent : watchEvents) {
+            modRevision = Math.max(modRevision, watchEvent.getKeyValue().getModRevision());
+        }
+        return modRevision;
+    }
+
+    static CompletableFuture<GetResponse> get(EtcdPropertySourceAttributes etcdPropertySourceAttributes, String resourceValue)
+            throws UnsupportedEncodingException {
+        Client client = getClient(etcdPropertySourceAttributes);
+        KV kv = client.getKVClient();
+        ByteSequence key = toByteSequence(resourceValue, etcdPropertySourceAttributes);
+        // The concurrent fetches of the same key, e.g, from the multiple ApplicationContexts, share one request
+        return WatchSubscriptionHub.getDefault().fetch(BACKEND, buildPrefetchKey(etcdPropertySourceAttributes, resourceValue),
+                () -> kv.get(key));
+    }
+
+    /**
+     * Read the resources of key with the maximum mod_revision as the version for the {@link HedgedReadGroup}
+     *
+     * @param etcdPropertySourceAttributes {@link EtcdPropertySourceAttributes}
+     * @param resourceValue                the etcd key
+     * @return non-null
+     */
+    static CompletableFuture<VersionedResources> read(EtcdPropertySourceAttributes etcdPropertySourceAttributes,
+                                                      String resourceValue) throws UnsupportedEncodingException {
+        return get(etcdPropertySourceAttributes, resourceValue).thenApply(getResponse -> {
+            List<KeyValue> keyValues = getResponse.getKvs();
+            long modRevision = UNKNOWN;
+            for (KeyValue keyValue : keyValues) {
+                modRevision = Math.max(modRevision, keyValue.getModRevision());
+            }
+            try {
+                return new VersionedResources(toResources(etcdPropertySourceAttributes, keyValues), modRevision);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Build the key of the prefetches and the shared watches, which is distinguished by the etcd cluster and the
+     * client settings as well as {@link #buildClientKey(EtcdPropertySourceAttributes) the client}
+     */
+    static String buildPrefetchKey(EtcdPropertySourceAttributes etcdPropertySourceAttributes, String resourceValue) {
+        return buildClientKey(etcdPropertySourceAttributes) + "@" + resourceValue;
+    }
+
+    /**
+     * Build the key of client by the target or the sorted endpoints and the client settings, the name of
+     * {@link PropertySource} is excluded, thus the clients of the same cluster are shared, and the different clusters
+     * never are
+     */
+    static String buildClientKey(EtcdPropertySourceAttributes etcdPropertySourceAttributes) {
+        String target = etcdPropertySourceAttributes.getTarget();
+        StringBuilder keyBuilder = new StringBuilder();
+        if (StringUtils.hasText(target)) {
+            keyBuilder.append(target);
+        } else {
+            String[] endpoints = etcdPropertySourceAttributes.getEndpoints().clone();
+            Arrays.sort(endpoints);
+            keyBuilder.append(StringUtils.arrayToCommaDelimitedString(endpoints));
+        }
+        keyBuilder.append('|').append(etcdPropertySourceAttributes.isLatencyAware());
+        if (etcdPropertySourceAttributes.isLatencyAware()) {
+            keyBuilder.append('|').append(etcdPropertySourceAttributes.getEndpointProbeTimeoutMillis())
+                    .append('|').append(etcdPropertySourceAttributes.getKeepaliveTimeMillis())
+                    .append('|').append(etcdPropertySourceAttributes.getKeepaliveTimeoutMillis());
         }
+        return keyBuilder.toString();
     }
 
-    private ByteSequence toByteSequence(String value, EtcdPropertySourceAttributes etcdPropertySourceAttribute) throws UnsupportedEncodingException {
+    private static ByteSequence toByteSequence(String value, EtcdPropertySourceAttributes etcdPropertySourceAttribute) throws UnsupportedEncodingException {
         String encoding = etcdPropertySourceAttribute.getEncoding();
         return ByteSequence.from(value.getBytes(encoding));
     }
 
-    private Client getClient(EtcdPropertySourceAttributes etcdPropertySourceAttributes) {
-        String key = etcdPropertySourceAttributes.getName();
+    static Client getClient(EtcdPropertySourceAttributes etcdPropertySourceAttributes) {
+        String key = buildClientKey(etcdPropertySourceAttributes);
         return clientsCache.computeIfAbsent(key, k -> {
             ClientBuilder clientBuilder = Client.builder();
             String target = etcdPropertySourceAttributes.getTarget();
             if (StringUtils.hasText(target)) {
                 // clientBuilder.target(target);
+            } else if (etcdPropertySourceAttributes.isLatencyAware()) {
+                EtcdEndpointSelector selector = new EtcdEndpointSelector(etcdPropertySourceAttributes.getEndpointProbeTimeoutMillis());
+                // The first reachable endpoint is used, the next one takes over on failure
+                clientBuilder.endpoints(selector.select(etcdPropertySourceAttributes.getEndpoints()))
+                        .loadBalancerPolicy(PICK_FIRST_POLICY)
+                        .keepaliveTime(Duration.ofMillis(etcdPropertySourceAttributes.getKeepaliveTimeMillis()))
+                        .keepaliveTimeout(Duration.ofMillis(etcdPropertySourceAttributes.getKeepaliveTimeoutMillis()));
             } else {
                 clientBuilder.endpoints(etcdPropertySourceAttributes.getEndpoints());
             }
-            // TODO support more settings
+            // TODO support more settings, which must be involved in the client key
             return clientBuilder.build();
         });
     }
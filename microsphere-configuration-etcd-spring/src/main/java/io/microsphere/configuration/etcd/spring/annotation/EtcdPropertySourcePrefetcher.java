@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.etcd.spring.annotation;
+
+import io.etcd.jetcd.kv.GetResponse;
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetchRegistry;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetcher;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.CompletableFuture;
+
+import static io.microsphere.configuration.etcd.spring.annotation.EtcdPropertySourceLoader.BACKEND;
+import static io.microsphere.configuration.etcd.spring.annotation.EtcdPropertySourceLoader.buildPrefetchKey;
+import static io.microsphere.configuration.etcd.spring.annotation.EtcdPropertySourceLoader.get;
+import static io.microsphere.configuration.etcd.spring.annotation.EtcdPropertySourceLoader.read;
+
+/**
+ * {@link EtcdPropertySource} {@link PropertySourcePrefetcher} starts the asynchronous "get" requests for the keys
+ * by the jetcd client, which are taken by {@link EtcdPropertySourceLoader} later.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see EtcdPropertySource
+ * @see EtcdPropertySourceLoader
+ * @since 1.0.0
+ */
+public class EtcdPropertySourcePrefetcher implements PropertySourcePrefetcher {
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+        return EtcdPropertySource.class;
+    }
+
+    @Override
+    public void prefetch(AnnotationAttributes annotationAttributes, ConfigurableEnvironment environment,
+                         PropertySourcePrefetchRegistry registry) throws Throwable {
+        EtcdPropertySourceAttributes attributes = new EtcdPropertySourceAttributes(annotationAttributes,
+                EtcdPropertySource.class, environment);
+        if (attributes.isHedged()) {
+            // The hedged reads are issued by the primary of group on loading
+            HedgedReadGroup.getGroup(environment, attributes.getHedgeGroup()).register(attributes.getName(),
+                    attributes.getHedgeOrder(), resourceValue -> read(attributes, resourceValue));
+            return;
+        }
+        if (attributes.isLazy()) {
+            // The keys are fetched on the first access
+            return;
+        }
+        for (String key : attributes.getKeys()) {
+            registry.register(BACKEND, buildPrefetchKey(attributes, key), () -> {
+                try {
+                    return get(attributes, key);
+                } catch (Throwable e) {
+                    CompletableFuture<GetResponse> future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            });
+        }
+    }
+}
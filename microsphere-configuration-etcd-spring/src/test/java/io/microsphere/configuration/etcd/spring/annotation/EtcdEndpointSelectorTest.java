@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.etcd.spring.annotation;
+
+import io.microsphere.configuration.etcd.spring.annotation.EtcdEndpointSelector.EndpointHealth;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link EtcdEndpointSelector} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class EtcdEndpointSelectorTest {
+
+    private final EtcdEndpointSelector selector = new EtcdEndpointSelector(500);
+
+    @Test
+    public void testSelect() throws Exception {
+        int unreachablePort;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            unreachablePort = serverSocket.getLocalPort();
+        }
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            String unreachable = "http://127.0.0.1:" + unreachablePort;
+            String unprobed = "ip:///127.0.0.1:2379";
+            String reachable = "http://127.0.0.1:" + serverSocket.getLocalPort();
+
+            String[] endpoints = selector.select(unreachable, unprobed, reachable);
+            assertArrayEquals(new String[]{reachable, unprobed, unreachable}, endpoints);
+
+            List<EndpointHealth> endpointHealths = selector.probe(unreachable, reachable);
+            assertEquals(reachable, endpointHealths.get(0).getEndpoint());
+            assertTrue(endpointHealths.get(0).isReachable());
+            assertFalse(endpointHealths.get(1).isReachable());
+        }
+    }
+
+    @Test
+    public void testSingleEndpoint() {
+        assertArrayEquals(new String[]{"http://127.0.0.1:2379"}, selector.select("http://127.0.0.1:2379"));
+    }
+
+    @Test
+    public void testResolveAddress() {
+        assertEquals(new InetSocketAddress("127.0.0.1", 2379), EtcdEndpointSelector.resolveAddress("http://127.0.0.1"));
+        assertEquals(new InetSocketAddress("127.0.0.1", 12379), EtcdEndpointSelector.resolveAddress("https://127.0.0.1:12379"));
+        assertNull(EtcdEndpointSelector.resolveAddress("dns:///etcd.local:2379"));
+        assertNull(EtcdEndpointSelector.resolveAddress("not a uri"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.etcd.spring.annotation;
+
+import org.junit.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import static io.microsphere.configuration.etcd.spring.annotation.EtcdPropertySourceLoader.buildClientKey;
+import static io.microsphere.configuration.etcd.spring.annotation.EtcdPropertySourceLoader.buildPrefetchKey;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.springframework.core.annotation.AnnotationUtils.getAnnotationAttributes;
+
+/**
+ * {@link EtcdPropertySourceLoader} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class EtcdPropertySourceLoaderTest {
+
+    @Test
+    public void testBuildPrefetchKey() {
+        // The different clusters are not shared even if the names and keys are same
+        assertNotEquals(buildPrefetchKey(attributes(ClusterA.class), "/config"),
+                buildPrefetchKey(attributes(ClusterB.class), "/config"));
+        // The order of endpoints doesn't matter
+        assertEquals(buildPrefetchKey(attributes(ClusterB.class), "/config"),
+                buildPrefetchKey(attributes(ReorderedClusterB.class), "/config"));
+    }
+
+    @Test
+    public void testBuildClientKey() {
+        assertNotEquals(buildClientKey(attributes(ClusterB.class)), buildClientKey(attributes(LatencyAwareClusterB.class)));
+    }
+
+    private static EtcdPropertySourceAttributes attributes(Class<?> configClass) {
+        EtcdPropertySource etcdPropertySource = configClass.getAnnotation(EtcdPropertySource.class);
+        return new EtcdPropertySourceAttributes(getAnnotationAttributes(etcdPropertySource, false, false),
+                EtcdPropertySource.class, new StandardEnvironment());
+    }
+
+    @EtcdPropertySource(key = "/config", endpoints = "http://127.0.0.1:2379")
+    static class ClusterA {
+    }
+
+    @EtcdPropertySource(key = "/config", endpoints = {"http://127.0.0.2:2379", "http://127.0.0.3:2379"})
+    static class ClusterB {
+    }
+
+    @EtcdPropertySource(key = "/config", endpoints = {"http://127.0.0.3:2379", "http://127.0.0.2:2379"})
+    static class ReorderedClusterB {
+    }
+
+    @EtcdPropertySource(key = "/config", endpoints = {"http://127.0.0.2:2379", "http://127.0.0.3:2379"}, latencyAware = true)
+    static class LatencyAwareClusterB {
+    }
+}
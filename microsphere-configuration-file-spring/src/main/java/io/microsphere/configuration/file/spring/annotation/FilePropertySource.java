@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.configuration.spring.env.IndexedPropertySource;
+import io.microsphere.configuration.spring.env.support.CachingPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.ParallelResourceParser;
+import io.microsphere.configuration.spring.env.support.ParsedContentCache;
+import io.microsphere.configuration.spring.env.support.StreamingJsonPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.StreamingYamlPropertySourceFactory;
+import io.microsphere.spring.config.context.annotation.PropertySourceExtension;
+import io.microsphere.spring.config.env.support.DefaultResourceComparator;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.DefaultPropertySourceFactory;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Comparator;
+
+/**
+ * The annotation for the local file {@link PropertySource}, e.g, the files synchronized by the sidecar
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see FilePropertySourceAttributes
+ * @see FilePropertySourceLoader
+ * @since 1.0.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+@PropertySourceExtension
+@Import(FilePropertySourceLoader.class)
+public @interface FilePropertySource {
+
+    /**
+     * The name of file {@link PropertySource}
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    String name() default "";
+
+    /**
+     * It indicates the property source is auto-refreshed when the configuration is
+     * changed.
+     *
+     * @return default value is <code>true</code>
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    boolean autoRefreshed() default true;
+
+    /**
+     * Indicates current {@link PropertySource} is first order or not If specified ,
+     * {@link #before()} and {@link #after()} will be ignored, or last order.
+     *
+     * @return default value is <code>false</code>
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    boolean first() default false;
+
+    /**
+     * The relative order before specified {@link PropertySource}
+     * <p>
+     * If not specified , current {@link PropertySource} will be added last.
+     * <p>
+     * If {@link #first()} specified , current attribute will be ignored.
+     *
+     * @return the name of {@link PropertySource}, default value is the empty string
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    String before() default "";
+
+    /**
+     * The relative order after specified {@link PropertySource}
+     * <p>
+     * If not specified , current {@link PropertySource} will be added last.
+     * <p>
+     * If {@link #first()} specified , current attribute will be ignored.
+     *
+     * @return the name of {@link PropertySource}, default value is the empty string
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    String after() default "";
+
+    /**
+     * Indicate the path(s) of the property source file(s) to be loaded.
+     * <p>The resource format is supported by the specified {@link #factory()}
+     * , for example, {@code "/etc/myco/app.properties"} or {@code "/path/to/file.xml"}.
+     * <p>${...} placeholders will be resolved against any/all property sources already
+     * registered with the {@code Environment}.
+     * <p>Each path will be added to the enclosing {@code Environment} as its own
+     * property source, and in the order declared.
+     *
+     * @see #path()
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    String[] value() default {};
+
+    /**
+     * Indicate the path(s) of the property source file(s) to be loaded.
+     *
+     * @see #value()
+     */
+    @AliasFor(annotation = PropertySourceExtension.class, attribute = "value")
+    String[] path() default {};
+
+    /**
+     * Indicate the resources to be sorted when {@link #value()} specifies the resource location wildcards
+     * <p>For example, {@code "classpath:/com/myco/*.properties"}, suppose there are two resources named
+     * "a.properties" and "b.properties" where two instances of {@link Resource} will be resolved, they are
+     * the sources of {@link org.springframework.core.env.PropertySource}, thus it has to sort
+     * them to indicate the order of {@link org.springframework.core.env.PropertySource} that will be added to
+     * the enclosing {@code Environment}.
+     *
+     * <p>Default is {@link DefaultResourceComparator}
+     *
+     * @see DefaultResourceComparator
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    Class<? extends Comparator<Resource>> resourceComparator() default DefaultResourceComparator.class;
+
+    /**
+     * Indicate if a failure to find a {@link #value property resource} should be
+     * ignored.
+     * <p>{@code true} is appropriate if the properties file is completely optional.
+     * <p>Default is {@code false}.
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    boolean ignoreResourceNotFound() default false;
+
+    /**
+     * A specific character encoding for the given resources.
+     * <p>Default is "UTF-8"
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    String encoding() default "UTF-8";
+
+    /**
+     * Specify a custom {@link PropertySourceFactory}, if any.
+     * <p>By default, a default factory for standard resource files will be used.
+     * <p>For the large JSON or YAML resources, {@link StreamingJsonPropertySourceFactory} or
+     * {@link StreamingYamlPropertySourceFactory} is recommended to avoid materializing the intermediate tree.
+     * <p>Default is {@link DefaultPropertySourceFactory}
+     *
+     * @see DefaultPropertySourceFactory
+     * @see StreamingJsonPropertySourceFactory
+     * @see StreamingYamlPropertySourceFactory
+     */
+    @AliasFor(annotation = PropertySourceExtension.class)
+    Class<? extends PropertySourceFactory> factory() default DefaultPropertySourceFactory.class;
+
+    /**
+     * Indicates the loaded file {@link PropertySource} is exposed as a single pre-merged and immutable hash index,
+     * thus the property lookup is constant-time regardless of the count of resources, the index will be rebuilt
+     * when the configuration is refreshed.
+     *
+     * @return default value is <code>false</code>
+     * @see IndexedPropertySource
+     */
+    boolean indexed() default false;
+
+    /**
+     * Indicates the properties parsed by the {@link #factory()} are cached by the hash of the resource content,
+     * thus the unchanged or shared contents will not be re-parsed when the configuration is refreshed.
+     *
+     * <p>The cached properties are retained until evicted by the bounds of {@link ParsedContentCache}, which count the
+     * entries and the raw content bytes rather than the heap retained by the parsed properties.
+     *
+     * @return default value is <code>false</code>
+     * @see CachingPropertySourceFactory
+     * @see ParsedContentCache
+     */
+    boolean parsedContentCached() default false;
+
+    /**
+     * Indicates the resources of all paths are resolved first, and then parsed in parallel on a bounded fork-join
+     * pool when there are more than one, the {@link PropertySource PropertySources} are built from the parsed
+     * results in the order of {@link #resourceComparator()}.
+     *
+     * @return default value is <code>false</code>
+     * @see ParallelResourceParser
+     */
+    boolean parallelParsed() default false;
+
+    /**
+     * Indicates the changes of resources arriving together, in the same watch response or within the
+     * {@link #transactionWindowMillis() window}, are staged and then applied in one atomic step, thus the readers
+     * never see the half-applied configuration, and a single consolidated
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent} of the changed keys is published.
+     * <p>The {@link PropertySource} is {@link #indexed() indexed} implicitly.
+     *
+     * @return default value is <code>false</code>
+     */
+    boolean transactional() default false;
+
+    /**
+     * The window in milliseconds to stage the changes since the first one when {@link #transactional()}
+     *
+     * @return default value is 50 milliseconds
+     */
+    long transactionWindowMillis() default 50;
+
+    /**
+     * Indicates the properties of the resources are stored in the off-heap compact arena
+     * ({@link io.microsphere.configuration.spring.env.OffHeapPropertySource}) rather than the
+     * {@link java.util.HashMap}, as well as the snapshot for the change detection, thus the heap footprint is
+     * independent of the count of keys. The values are stored as {@link String strings}.
+     * <p>It's recommended for the very large flat property sets, e.g, hundreds of thousands of feature flags.
+     * The {@link #parsedContentCached() parsed content cache} and {@link #parallelParsed() parallel parsing} are
+     * not applied, the {@link #indexed() index} is not built since the arena is looked up by the binary search,
+     * and it can't be {@link #transactional() transactional}.
+     *
+     * @return default value is <code>false</code>
+     */
+    boolean offHeap() default false;
+
+    /**
+     * Indicates the resolved values of the properties containing the placeholders, e.g, <code>"${server.port}"</code>,
+     * are cached with the keys they depend on, which are invalidated precisely by the
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent} of the changed keys, thus the
+     * placeholders are not resolved through the property-source chain on every lookup.
+     * <p>The changes of the depended keys should be published as the
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent}.
+     *
+     * @return default value is <code>false</code>
+     * @see io.microsphere.configuration.spring.env.PlaceholderCachingPropertySource
+     */
+    boolean placeholdersCached() default false;
+
+    /**
+     * Indicates a placeholder {@link PropertySource} is registered on startup, the resources are fetched, parsed
+     * and then watched on the first property access, exactly once even if accessed concurrently, thus the rarely
+     * used configuration doesn't slow down the startup.
+     * <p>The {@link #lazyKeyPrefixes() key prefixes} are required, otherwise any lookup falling through the former
+     * {@link PropertySource PropertySources} would load it. The placeholder {@link PropertySource} presents no property
+     * name before being loaded, and the failed loading is retried after the backoff rather than on every lookup.
+     *
+     * @return default value is <code>false</code>
+     * @see io.microsphere.configuration.spring.env.LazyPropertySource
+     * @see #lazyKeyPrefixes()
+     */
+    boolean lazy() default false;
+
+    /**
+     * The prefixes of the property names triggering the loading when {@link #lazy()}, the access of the other
+     * property names is missed without loading, at least one prefix is required if {@link #lazy()}.
+     *
+     * @return default value is the empty array
+     */
+    String[] lazyKeyPrefixes() default {};
+
+    /**
+     * The quiet period in milliseconds after the last change of file before it's refreshed, thus the bursts of
+     * events caused by one write are coalesced.
+     *
+     * @return default value is 100 milliseconds
+     */
+    long debounceMillis() default 100;
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.configuration.metrics.ChangeTrace;
+import io.microsphere.configuration.spring.annotation.ConfigurationPropertySourceLoader;
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
+import io.microsphere.util.ArrayUtils;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static io.microsphere.configuration.concurrent.ConfigurationExecutors.newSerialDispatchExecutor;
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
+import static io.microsphere.util.ShutdownHookUtils.addShutdownHookCallback;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+
+/**
+ * {@link FilePropertySource} {@link PropertySource} Loader to load the local files:
+ * <ul>
+ *     <li>Read the whole content of files at once, except the files of
+ *     {@link io.microsphere.configuration.spring.env.support.BinaryPropertySourceFactory} that are mapped into memory
+ *     </li>
+ *     <li>Refresh the files by the {@link FileWatcher} based on {@link java.nio.file.WatchService} with debouncing,
+ *     which is stopped when the {@link org.springframework.context.ApplicationContext} is closed</li>
+ * </ul>
+ * <p>
+ * The writers are recommended to replace the files by the atomic move rather than writing them in place, thus the
+ * partial content will not be read, and the mapped binary files will not be changed underneath.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see FilePropertySource
+ * @see FilePropertySourceAttributes
+ * @see FileWatcher
+ * @since 1.0.0
+ */
+public class FilePropertySourceLoader extends ConfigurationPropertySourceLoader<FilePropertySource, FilePropertySourceAttributes> {
+
+    /**
+     * The name of configuration backend
+     */
+    public static final String BACKEND = "file";
+
+    private static FileWatcher fileWatcher;
+
+    static {
+        addShutdownHookCallback(new Runnable() {
+            @Override
+            public void run() {
+                // Close the watcher when JVM is shutdown
+                closeFileWatcher();
+            }
+        });
+    }
+
+    @Override
+    protected String getBackend() {
+        return BACKEND;
+    }
+
+    @Override
+    protected Resource[] doResolveResources(FilePropertySourceAttributes filePropertySourceAttributes,
+                                            String propertySourceName, String resourceValue) throws Throwable {
+        long startTime = nanoTime();
+
+        Path path = Paths.get(resourceValue);
+
+        if (!Files.isRegularFile(path)) { // Not Existed
+            metrics.recordResolve(BACKEND, propertySourceName, resourceValue, nanoTime() - startTime, 0);
+            return null;
+        }
+
+        Resource resource = createResource(filePropertySourceAttributes, path);
+
+        metrics.recordResolve(BACKEND, propertySourceName, resourceValue, nanoTime() - startTime, resource.contentLength());
+
+        return ArrayUtils.of(resource);
+    }
+
+    @Override
+    protected void configureResourcePropertySourcesRefresher(FilePropertySourceAttributes filePropertySourceAttributes,
+                                                             List<PropertySourceResource> propertySourceResources,
+                                                             CompositePropertySource propertySource,
+                                                             ResourcePropertySourcesRefresher refresher) throws Throwable {
+        FileWatcher fileWatcher = getFileWatcher();
+        String propertySourceName = propertySource.getName();
+        long debounceMillis = filePropertySourceAttributes.getDebounceMillis();
+
+        int size = propertySourceResources.size();
+        for (int i = 0; i < size; i++) {
+            PropertySourceResource propertySourceResource = propertySourceResources.get(i);
+            String resourceValue = propertySourceResource.getResourceValue();
+            // Dispatch the changes of file in order
+            Executor dispatcher = newSerialDispatchExecutor();
+            Subscription subscription = fileWatcher.watch(Paths.get(resourceValue), debounceMillis, file -> dispatcher.execute(() -> {
+                long receivedTime = nanoTime();
+                long receivedTimeMillis = currentTimeMillis();
+                onConfigChanged(filePropertySourceAttributes, resourceValue, file, propertySourceName, refresher);
+                long applyStartTime = nanoTime();
+                afterRefresh(filePropertySourceAttributes, propertySourceName);
+                long appliedTime = nanoTime();
+                metrics.recordPropagation(BACKEND, propertySourceName, resourceValue, appliedTime - receivedTime);
+                // The last modified time is both the version and its time
+                long lastModified = getLastModifiedTime(file);
+                metrics.recordChange(BACKEND, propertySourceName, resourceValue, new ChangeTrace(lastModified, lastModified,
+                        receivedTimeMillis, applyStartTime - receivedTime, appliedTime - applyStartTime, currentTimeMillis()));
+            }));
+            registerSubscription(subscription);
+        }
+    }
+
+    private static long getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private void onConfigChanged(FilePropertySourceAttributes filePropertySourceAttributes, String resourceValue,
+                                 Path file, String propertySourceName, ResourcePropertySourcesRefresher refresher) {
+        metrics.recordWatchEvent(BACKEND, propertySourceName, resourceValue);
+        Resource resource;
+        try {
+            resource = createResource(filePropertySourceAttributes, file);
+        } catch (IOException e) {
+            // The file may be removed or being replaced
+            logger.warn("The file[{}] can't be read, caused by : {}", file, e.getMessage());
+            return;
+        }
+        refreshResource(propertySourceName, resourceValue, resource, refresher);
+    }
+
+    /**
+     * Read the whole content of file
+     *
+     * @param path the path of file
+     * @return non-null
+     * @throws IOException if the file can't be read
+     */
+    static byte[] readContent(Path path) throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    /**
+     * Create the {@link Resource} of file, the binary file is handed over as it is to be mapped, the others are read
+     * at once
+     *
+     * @param filePropertySourceAttributes {@link FilePropertySourceAttributes}
+     * @param path                         the path of file
+     * @return non-null
+     * @throws IOException if the file can't be read
+     */
+    static Resource createResource(FilePropertySourceAttributes filePropertySourceAttributes, Path path) throws IOException {
+        if (filePropertySourceAttributes.isBinary()) {
+            FileSystemResource resource = new FileSystemResource(path.toFile());
+            if (!resource.exists()) {
+                throw new NoSuchFileException(path.toString());
+            }
+            return resource;
+        }
+        return new ByteArrayResource(readContent(path), "The file configuration from the path : " + path);
+    }
+
+    private static synchronized FileWatcher getFileWatcher() throws IOException {
+        if (fileWatcher == null) {
+            fileWatcher = new FileWatcher(FileSystems.getDefault().newWatchService());
+        }
+        return fileWatcher;
+    }
+
+    private static synchronized void closeFileWatcher() {
+        if (fileWatcher != null) {
+            try {
+                fileWatcher.close();
+            } catch (IOException ignored) {
+            }
+            fileWatcher = null;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
+import io.microsphere.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.microsphere.logging.LoggerFactory.getLogger;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The watcher of files based on the {@link WatchService}, the parent directories of files are registered rather than
+ * polling, and the change events of one file are debounced, that is the listener is notified once after the quiet
+ * period since the last event, thus the bursts of events caused by one write, or the replacement by an atomic move,
+ * are coalesced.
+ * <p>
+ * The directory is unregistered when the last {@link Subscription} of its files is closed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see WatchService
+ * @since 1.0.0
+ */
+public class FileWatcher implements Closeable {
+
+    private static final Logger logger = getLogger(FileWatcher.class);
+
+    private static final String THREAD_NAME = "microsphere-configuration-file-watcher";
+
+    private final WatchService watchService;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentMap<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Path, List<FileSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private final Thread watchThread;
+
+    public FileWatcher(WatchService watchService) {
+        this.watchService = watchService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME + "-debouncer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchThread = new Thread(this::processEvents, THREAD_NAME);
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    /**
+     * Watch the file
+     *
+     * @param file           the file to be watched, its parent directory must exist
+     * @param debounceMillis the quiet period in milliseconds
+     * @param listener       {@link FileChangedListener}
+     * @return the {@link Subscription} to stop watching
+     * @throws IOException if the parent directory can't be registered
+     */
+    public Subscription watch(Path file, long debounceMillis, FileChangedListener listener) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        FileSubscription subscription = new FileSubscription(debounceMillis, listener);
+        synchronized (watchKeys) {
+            if (!watchKeys.containsKey(directory)) {
+                watchKeys.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+            }
+            subscriptions.computeIfAbsent(path, p -> new CopyOnWriteArrayList<>()).add(subscription);
+        }
+        return () -> unwatch(path, subscription);
+    }
+
+    private void unwatch(Path path, FileSubscription subscription) {
+        subscription.cancel();
+        Path directory = path.getParent();
+        synchronized (watchKeys) {
+            List<FileSubscription> fileSubscriptions = subscriptions.get(path);
+            if (fileSubscriptions == null || !fileSubscriptions.remove(subscription)) {
+                return;
+            }
+            if (fileSubscriptions.isEmpty()) {
+                subscriptions.remove(path);
+            }
+            for (Path watchedFile : subscriptions.keySet()) {
+                if (directory.equals(watchedFile.getParent())) {
+                    // The directory is still watched by the other files
+                    return;
+                }
+            }
+            WatchKey watchKey = watchKeys.remove(directory);
+            if (watchKey != null) {
+                watchKey.cancel();
+            }
+        }
+    }
+
+    /**
+     * @return the count of the watched directories
+     */
+    public int getDirectoryCount() {
+        return watchKeys.size();
+    }
+
+    private void processEvents() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) watchKey.watchable();
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (OVERFLOW.equals(event.kind())) {
+                    // Some events are lost, notify all files in the directory
+                    subscriptions.forEach((file, subscriptions) -> {
+                        if (directory.equals(file.getParent())) {
+                            notify(file, subscriptions);
+                        }
+                    });
+                } else {
+                    Path file = directory.resolve((Path) event.context());
+                    List<FileSubscription> subscriptions = this.subscriptions.get(file);
+                    if (subscriptions != null) {
+                        notify(file, subscriptions);
+                    }
+                }
+            }
+            if (!watchKey.reset()) {
+                watchKeys.remove(directory, watchKey);
+                logger.warn("The directory[{}] is no longer watched", directory);
+            }
+        }
+    }
+
+    private void notify(Path file, List<FileSubscription> subscriptions) {
+        for (FileSubscription subscription : subscriptions) {
+            subscription.debounce(file);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchThread.interrupt();
+        scheduler.shutdownNow();
+        watchService.close();
+    }
+
+    private class FileSubscription {
+
+        private final long debounceMillis;
+
+        private final FileChangedListener listener;
+
+        private final AtomicReference<ScheduledFuture<?>> pending = new AtomicReference<>();
+
+        private volatile boolean cancelled;
+
+        private FileSubscription(long debounceMillis, FileChangedListener listener) {
+            this.debounceMillis = debounceMillis;
+            this.listener = listener;
+        }
+
+        private void debounce(Path file) {
+            if (cancelled) {
+                return;
+            }
+            ScheduledFuture<?> future = scheduler.schedule(() -> onFileChanged(file), debounceMillis, MILLISECONDS);
+            ScheduledFuture<?> previous = pending.getAndSet(future);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> previous = pending.getAndSet(null);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        private void onFileChanged(Path file) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                listener.onFileChanged(file);
+            } catch (Throwable e) {
+                logger.error("The file[{}] can't be refreshed, caused by : {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The listener of the changed file
+     */
+    @FunctionalInterface
+    public interface FileChangedListener {
+
+        /**
+         * Callback when the file is changed
+         *
+         * @param file the changed file
+         * @throws Throwable if any error occurs
+         */
+        void onFileChanged(Path file) throws Throwable;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.configuration.spring.env.BinaryPropertySource;
+import io.microsphere.configuration.spring.env.support.BinaryPropertySourceFactory;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.microsphere.configuration.spring.env.BinaryPropertySource.encode;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FilePropertySource} Test with {@link BinaryPropertySourceFactory}
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        FilePropertySourceBinaryTest.class,
+        FilePropertySourceBinaryTest.Config.class
+})
+public class FilePropertySourceBinaryTest {
+
+    private static final String PROPERTY_SOURCE_NAME = "binary-file-property-source";
+
+    private static final String FILE_NAME_PREFIX = "microsphere-file-property-source-binary-test-";
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"));
+
+    private static final int FILES = 2;
+
+    static {
+        try {
+            for (int i = 0; i < FILES; i++) {
+                Files.write(file(i), encode(singletonMap("my.key" + i, "value" + i)));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private ConfigurableEnvironment environment;
+
+    private static Path file(int index) {
+        return DIRECTORY.resolve(FILE_NAME_PREFIX + index + ".bin");
+    }
+
+    @AfterClass
+    public static void destroy() throws IOException {
+        for (int i = 0; i < FILES; i++) {
+            Files.deleteIfExists(file(i));
+        }
+    }
+
+    @Test
+    public void test() {
+        for (int i = 0; i < FILES; i++) {
+            assertEquals("value" + i, environment.getProperty("my.key" + i));
+        }
+
+        PropertySource<?> propertySource = environment.getPropertySources().get(PROPERTY_SOURCE_NAME);
+        assertNotNull(propertySource);
+        List<PropertySource<?>> leafPropertySources = new ArrayList<>();
+        collectLeafPropertySources(propertySource, leafPropertySources);
+        assertEquals(FILES, leafPropertySources.size());
+        for (PropertySource<?> leafPropertySource : leafPropertySources) {
+            // Neither cached nor parsed in parallel, the files are mapped
+            assertTrue(leafPropertySource instanceof BinaryPropertySource);
+            assertTrue(((BinaryPropertySource) leafPropertySource).getSource().isDirect());
+        }
+    }
+
+    private static void collectLeafPropertySources(PropertySource<?> propertySource, List<PropertySource<?>> leafPropertySources) {
+        if (propertySource instanceof CompositePropertySource) {
+            for (PropertySource<?> nestedPropertySource : ((CompositePropertySource) propertySource).getPropertySources()) {
+                collectLeafPropertySources(nestedPropertySource, leafPropertySources);
+            }
+        } else {
+            leafPropertySources.add(propertySource);
+        }
+    }
+
+    @FilePropertySource(name = PROPERTY_SOURCE_NAME, path = {
+            "${java.io.tmpdir}/" + FILE_NAME_PREFIX + "0.bin",
+            "${java.io.tmpdir}/" + FILE_NAME_PREFIX + "1.bin"
+    }, autoRefreshed = false, parsedContentCached = true, parallelParsed = true, factory = BinaryPropertySourceFactory.class)
+    static class Config {
+
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.configuration.spring.env.event.ConfigChange;
+import io.microsphere.configuration.spring.env.event.ConfigChangePublisher;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.MODIFIED;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.Assert.assertEquals;
+import static reactor.core.publisher.FluxSink.OverflowStrategy.BUFFER;
+
+/**
+ * {@link FilePropertySource} Test with {@link ConfigChangePublisher}
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        FilePropertySourceConfigChangeTest.class,
+        FilePropertySourceConfigChangeTest.Config.class
+})
+public class FilePropertySourceConfigChangeTest {
+
+    private static final String FILE_NAME = "microsphere-file-property-source-config-change-test.properties";
+
+    private static final Path FILE = Paths.get(System.getProperty("java.io.tmpdir"), FILE_NAME);
+
+    private static final long TIMEOUT_MILLIS = 30 * 1000;
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    /**
+     * The time to wait for the unexpected changes after the expected one
+     */
+    private static final long QUIET_MILLIS = 500;
+
+    static {
+        try {
+            writeConfig("my.name = mercyblitz\nmy.id = 1\nmy.age = 18");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ConfigChangePublisher configChangePublisher;
+
+    private static void writeConfig(String content) throws IOException {
+        Path tempFile = Files.createTempFile(FILE.getParent(), FILE_NAME, ".tmp");
+        Files.write(tempFile, content.getBytes(UTF_8));
+        Files.move(tempFile, FILE, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @AfterClass
+    public static void destroy() throws IOException {
+        Files.deleteIfExists(FILE);
+    }
+
+    @Test
+    public void testOnlyChangedKeyPublished() throws Exception {
+        List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+        Disposable disposable = configChangePublisher.changesWithPrefix("my.", BUFFER).subscribe(changes::add);
+
+        // Only "my.name" is changed
+        writeConfig("my.name = Mercy Ma\nmy.id = 1\nmy.age = 18");
+
+        long deadline = currentTimeMillis() + TIMEOUT_MILLIS;
+        while (changes.isEmpty() && currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        Thread.sleep(QUIET_MILLIS);
+
+        assertEquals("Mercy Ma", environment.getProperty("my.name"));
+        assertEquals(1, changes.size());
+        ConfigChange change = changes.get(0);
+        assertEquals("my.name", change.getKey());
+        assertEquals("mercyblitz", change.getOldValue());
+        assertEquals("Mercy Ma", change.getNewValue());
+        assertEquals(MODIFIED, change.getType());
+        disposable.dispose();
+    }
+
+    @FilePropertySource(path = "${java.io.tmpdir}/" + FILE_NAME)
+    static class Config {
+
+        @Bean
+        public ConfigChangePublisher configChangePublisher() {
+            return new ConfigChangePublisher(Schedulers.immediate());
+        }
+    }
+}
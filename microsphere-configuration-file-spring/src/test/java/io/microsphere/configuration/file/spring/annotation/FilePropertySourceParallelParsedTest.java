@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.support.DefaultPropertySourceFactory;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.microsphere.configuration.spring.env.support.ParallelResourceParser.PARALLELISM_PROPERTY_NAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FilePropertySource#parallelParsed()} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        FilePropertySourceParallelParsedTest.class,
+        FilePropertySourceParallelParsedTest.Config.class
+})
+public class FilePropertySourceParallelParsedTest {
+
+    private static final String FILE_NAME_PREFIX = "microsphere-file-property-source-parallel-test-";
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"));
+
+    private static final int FILES = 3;
+
+    static {
+        // The parallelism is independent of the available processors of the test machine
+        System.setProperty(PARALLELISM_PROPERTY_NAME, String.valueOf(FILES));
+        try {
+            for (int i = 0; i < FILES; i++) {
+                Files.write(file(i), ("my.key" + i + " = value" + i).getBytes(UTF_8));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    private static Path file(int index) {
+        return DIRECTORY.resolve(FILE_NAME_PREFIX + index + ".properties");
+    }
+
+    @AfterClass
+    public static void destroy() throws IOException {
+        System.clearProperty(PARALLELISM_PROPERTY_NAME);
+        for (int i = 0; i < FILES; i++) {
+            Files.deleteIfExists(file(i));
+        }
+    }
+
+    @Test
+    public void test() {
+        for (int i = 0; i < FILES; i++) {
+            assertEquals("value" + i, environment.getProperty("my.key" + i));
+        }
+        // Each resource is parsed once, and more than one are parsed concurrently
+        assertEquals(FILES, ConcurrencyRecordingPropertySourceFactory.parsedCount.get());
+        assertTrue(ConcurrencyRecordingPropertySourceFactory.maxConcurrency.get() > 1);
+    }
+
+    @FilePropertySource(path = {
+            "${java.io.tmpdir}/" + FILE_NAME_PREFIX + "0.properties",
+            "${java.io.tmpdir}/" + FILE_NAME_PREFIX + "1.properties",
+            "${java.io.tmpdir}/" + FILE_NAME_PREFIX + "2.properties"
+    }, autoRefreshed = false, parallelParsed = true, factory = ConcurrencyRecordingPropertySourceFactory.class)
+    static class Config {
+
+    }
+
+    /**
+     * The {@link DefaultPropertySourceFactory} records the concurrency of parsing, each parsing waits for another one
+     * for a while, thus the sequential parsing is observed as no concurrency.
+     */
+    public static class ConcurrencyRecordingPropertySourceFactory extends DefaultPropertySourceFactory {
+
+        static final AtomicInteger parsedCount = new AtomicInteger();
+
+        static final AtomicInteger concurrency = new AtomicInteger();
+
+        static final AtomicInteger maxConcurrency = new AtomicInteger();
+
+        static final CountDownLatch latch = new CountDownLatch(2);
+
+        @Override
+        public PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+            parsedCount.incrementAndGet();
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            latch.countDown();
+            try {
+                latch.await(3, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrency.decrementAndGet();
+            }
+            return super.createPropertySource(name, resource);
+        }
+    }
+}
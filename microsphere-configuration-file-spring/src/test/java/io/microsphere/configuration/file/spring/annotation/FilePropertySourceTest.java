@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link FilePropertySource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        FilePropertySourceTest.class,
+        FilePropertySourceTest.Config.class
+})
+public class FilePropertySourceTest {
+
+    private static final String FILE_NAME = "microsphere-file-property-source-test.properties";
+
+    private static final Path FILE = Paths.get(System.getProperty("java.io.tmpdir"), FILE_NAME);
+
+    /**
+     * The polling {@link java.nio.file.WatchService WatchServices}, e.g, on macOS, may take about 10 seconds to
+     * detect the change
+     */
+    private static final long TIMEOUT_MILLIS = 30 * 1000;
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    static {
+        // The file must be written before the context is loaded
+        try {
+            writeConfig("my.name = mercyblitz");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    private static void writeConfig(String content) throws IOException {
+        Path tempFile = Files.createTempFile(FILE.getParent(), FILE_NAME, ".tmp");
+        Files.write(tempFile, content.getBytes(UTF_8));
+        Files.move(tempFile, FILE, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @AfterClass
+    public static void destroy() throws IOException {
+        Files.deleteIfExists(FILE);
+    }
+
+    @Test
+    public void test() throws Exception {
+        assertEquals("mercyblitz", environment.getProperty("my.name"));
+
+        writeConfig("my.name = Mercy Ma");
+
+        assertPropertyEventually("my.name", "Mercy Ma");
+    }
+
+    private void assertPropertyEventually(String name, String expectedValue) throws InterruptedException {
+        long deadline = currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!expectedValue.equals(environment.getProperty(name)) && currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        assertEquals(expectedValue, environment.getProperty(name));
+    }
+
+    @FilePropertySource(path = "${java.io.tmpdir}/" + FILE_NAME)
+    static class Config {
+
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FilePropertySource#transactional() Transactional} {@link FilePropertySource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        FilePropertySourceTransactionalTest.class,
+        FilePropertySourceTransactionalTest.Config.class,
+        FilePropertySourceTransactionalTest.EventRecorder.class
+})
+public class FilePropertySourceTransactionalTest {
+
+    private static final String FILE_NAME = "microsphere-file-property-source-transactional-test.properties";
+
+    private static final String ADDED_FILE_NAME = "microsphere-file-property-source-transactional-added-test.properties";
+
+    private static final Path FILE = Paths.get(System.getProperty("java.io.tmpdir"), FILE_NAME);
+
+    private static final Path ADDED_FILE = Paths.get(System.getProperty("java.io.tmpdir"), ADDED_FILE_NAME);
+
+    private static final long TIMEOUT_MILLIS = 30 * 1000;
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    static {
+        // The file must be written before the context is loaded
+        try {
+            writeConfig(FILE, "my.name = mercyblitz\nmy.age = 18");
+            // The added file is absent in the load
+            Files.deleteIfExists(ADDED_FILE);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private EventRecorder eventRecorder;
+
+    private static void writeConfig(Path file, String content) throws IOException {
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        Files.write(tempFile, content.getBytes(UTF_8));
+        Files.move(tempFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @AfterClass
+    public static void destroy() throws IOException {
+        Files.deleteIfExists(FILE);
+        Files.deleteIfExists(ADDED_FILE);
+    }
+
+    @Test
+    public void test() throws Exception {
+        assertEquals("mercyblitz", environment.getProperty("my.name"));
+        assertEquals("18", environment.getProperty("my.age"));
+        assertNull(environment.getProperty("my.city"));
+
+        // The mixed commit : the loaded file is replaced and the absent one is added
+        writeConfig(FILE, "my.name = Mercy Ma\nmy.age = 19");
+        writeConfig(ADDED_FILE, "my.city = Hangzhou");
+
+        long deadline = currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((!"19".equals(environment.getProperty("my.age")) || !"Hangzhou".equals(environment.getProperty("my.city"))
+                || eventRecorder.events.isEmpty()) && currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        assertEquals("Mercy Ma", environment.getProperty("my.name"));
+        assertEquals("19", environment.getProperty("my.age"));
+        assertEquals("Hangzhou", environment.getProperty("my.city"));
+
+        // Wait for the events published by the refresher if any
+        Thread.sleep(500);
+
+        // The commit publishes the only event
+        assertEquals(1, eventRecorder.events.size());
+        assertTrue(eventRecorder.events.get(0) instanceof PropertySourcesChangedEvent);
+    }
+
+    @FilePropertySource(path = {"${java.io.tmpdir}/" + FILE_NAME, "${java.io.tmpdir}/" + ADDED_FILE_NAME},
+            ignoreResourceNotFound = true, transactional = true, transactionWindowMillis = 200)
+    static class Config {
+
+    }
+
+    static class EventRecorder implements ApplicationListener<ApplicationEvent> {
+
+        private final List<ApplicationEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onApplicationEvent(ApplicationEvent event) {
+            if (event instanceof PropertySourcesChangedEvent || event instanceof PropertySourceChangedEvent) {
+                events.add(event);
+            }
+        }
+    }
+}
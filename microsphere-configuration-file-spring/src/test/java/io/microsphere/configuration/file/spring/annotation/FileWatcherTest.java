@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.file.spring.annotation;
+
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link FileWatcher} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class FileWatcherTest {
+
+    private FileWatcher fileWatcher;
+
+    private Path directory;
+
+    @Before
+    public void init() throws IOException {
+        fileWatcher = new FileWatcher(FileSystems.getDefault().newWatchService());
+        directory = Files.createTempDirectory("microsphere-file-watcher-test");
+    }
+
+    @After
+    public void destroy() throws IOException {
+        fileWatcher.close();
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testUnwatch() throws IOException {
+        Subscription a = fileWatcher.watch(directory.resolve("a.properties"), 10, file -> {
+        });
+        Subscription b = fileWatcher.watch(directory.resolve("b.properties"), 10, file -> {
+        });
+        assertEquals(1, fileWatcher.getDirectoryCount());
+
+        a.close();
+        // The directory is still watched by "b.properties"
+        assertEquals(1, fileWatcher.getDirectoryCount());
+
+        b.close();
+        assertEquals(0, fileWatcher.getDirectoryCount());
+
+        // idempotent
+        b.close();
+        assertEquals(0, fileWatcher.getDirectoryCount());
+    }
+}
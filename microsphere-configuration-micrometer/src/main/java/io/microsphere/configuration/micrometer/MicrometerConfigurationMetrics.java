@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.micrometer;
+
+import io.microsphere.configuration.metrics.ChangeTrace;
+import io.microsphere.configuration.metrics.ConfigurationMetrics;
+import io.microsphere.configuration.metrics.PropertySourceFootprint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The {@link ConfigurationMetrics} binding for Micrometer, the meters are tagged by
+ * {@link #BACKEND_TAG_NAME the backend} and {@link #PROPERTY_SOURCE_TAG_NAME the name of property source}.
+ * <p>
+ * The instance loaded by {@link java.util.ServiceLoader} registers the meters into {@link Metrics#globalRegistry}.
+ * <p>
+ * The {@link ChangeTrace traces of changes} are exposed as the latency histograms of receiving, parsing, applying
+ * and the end-to-end visibility, as well as the gauges of the last applied version and time, which are helpful to
+ * find the slow or stale nodes across the fleet.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationMetrics
+ * @see MeterRegistry
+ * @since 1.0.0
+ */
+public class MicrometerConfigurationMetrics implements ConfigurationMetrics {
+
+    public static final String METER_NAME_PREFIX = "microsphere.configuration.";
+
+    public static final String RESOLVE_METER_NAME = METER_NAME_PREFIX + "resolve";
+
+    public static final String FETCHED_BYTES_METER_NAME = METER_NAME_PREFIX + "fetched.bytes";
+
+    public static final String WATCH_EVENTS_METER_NAME = METER_NAME_PREFIX + "watch.events";
+
+    public static final String REFRESH_METER_NAME = METER_NAME_PREFIX + "refresh";
+
+    public static final String PROPAGATION_METER_NAME = METER_NAME_PREFIX + "propagation";
+
+    public static final String CHANGE_RECEIVE_METER_NAME = METER_NAME_PREFIX + "change.receive";
+
+    public static final String CHANGE_PARSE_METER_NAME = METER_NAME_PREFIX + "change.parse";
+
+    public static final String CHANGE_APPLY_METER_NAME = METER_NAME_PREFIX + "change.apply";
+
+    public static final String CHANGE_VISIBILITY_METER_NAME = METER_NAME_PREFIX + "change.visibility";
+
+    public static final String APPLIED_VERSION_METER_NAME = METER_NAME_PREFIX + "applied.version";
+
+    public static final String APPLIED_TIME_METER_NAME = METER_NAME_PREFIX + "applied.time";
+
+    public static final String FOOTPRINT_KEYS_METER_NAME = METER_NAME_PREFIX + "footprint.keys";
+
+    public static final String FOOTPRINT_HEAP_BYTES_METER_NAME = METER_NAME_PREFIX + "footprint.heap.bytes";
+
+    public static final String FOOTPRINT_OFF_HEAP_BYTES_METER_NAME = METER_NAME_PREFIX + "footprint.offheap.bytes";
+
+    public static final String FOOTPRINT_PAYLOAD_BYTES_METER_NAME = METER_NAME_PREFIX + "footprint.payload.bytes";
+
+    public static final String BACKEND_TAG_NAME = "backend";
+
+    public static final String PROPERTY_SOURCE_TAG_NAME = "property.source";
+
+    public static final String OUTCOME_TAG_NAME = "outcome";
+
+    private final MeterRegistry registry;
+
+    /**
+     * The values of gauges, the key is composed by the meter name, backend and the name of property source
+     */
+    private final ConcurrentMap<String, AtomicLong> gaugeValues = new ConcurrentHashMap<>();
+
+    public MicrometerConfigurationMetrics() {
+        this(Metrics.globalRegistry);
+    }
+
+    public MicrometerConfigurationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordResolve(String backend, String propertySourceName, String resourceValue, long durationNanos, long fetchedBytes) {
+        Timer.builder(RESOLVE_METER_NAME)
+                .description("The duration of resolving the configuration resources")
+                .tag(BACKEND_TAG_NAME, backend)
+                .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                .register(registry)
+                .record(durationNanos, NANOSECONDS);
+        DistributionSummary.builder(FETCHED_BYTES_METER_NAME)
+                .description("The bytes fetched from the configuration backend")
+                .baseUnit("bytes")
+                .tag(BACKEND_TAG_NAME, backend)
+                .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                .register(registry)
+                .record(fetchedBytes);
+    }
+
+    @Override
+    public void recordWatchEvent(String backend, String propertySourceName, String resourceValue) {
+        Counter.builder(WATCH_EVENTS_METER_NAME)
+                .description("The count of events watched from the configuration backend")
+                .tag(BACKEND_TAG_NAME, backend)
+                .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordRefresh(String backend, String propertySourceName, String resourceValue, long durationNanos, boolean succeeded) {
+        Timer.builder(REFRESH_METER_NAME)
+                .description("The duration of refreshing the property source")
+                .tag(BACKEND_TAG_NAME, backend)
+                .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                .tag(OUTCOME_TAG_NAME, succeeded ? "success" : "failure")
+                .register(registry)
+                .record(durationNanos, NANOSECONDS);
+    }
+
+    @Override
+    public void recordPropagation(String backend, String propertySourceName, String resourceValue, long latencyNanos) {
+        Timer.builder(PROPAGATION_METER_NAME)
+                .description("The latency that the changed value takes to reach the Environment")
+                .tag(BACKEND_TAG_NAME, backend)
+                .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                .register(registry)
+                .record(latencyNanos, NANOSECONDS);
+    }
+
+    @Override
+    public void recordChange(String backend, String propertySourceName, String resourceValue, ChangeTrace trace) {
+        long receiveLatencyMillis = trace.getReceiveLatencyMillis();
+        if (receiveLatencyMillis != UNKNOWN) {
+            latencyTimer(CHANGE_RECEIVE_METER_NAME, "The latency from the backend write to the receipt of change",
+                    backend, propertySourceName).record(receiveLatencyMillis, MILLISECONDS);
+        }
+        latencyTimer(CHANGE_PARSE_METER_NAME, "The duration of parsing the changed resources", backend,
+                propertySourceName).record(trace.getParseNanos(), NANOSECONDS);
+        latencyTimer(CHANGE_APPLY_METER_NAME, "The duration of applying the change into the Environment", backend,
+                propertySourceName).record(trace.getApplyNanos(), NANOSECONDS);
+        long visibilityLatencyMillis = trace.getVisibilityLatencyMillis();
+        if (visibilityLatencyMillis != UNKNOWN) {
+            latencyTimer(CHANGE_VISIBILITY_METER_NAME, "The latency from the backend write to the visibility in the Environment",
+                    backend, propertySourceName).record(visibilityLatencyMillis, MILLISECONDS);
+        }
+        long version = trace.getVersion();
+        if (version != UNKNOWN) {
+            gaugeValue(APPLIED_VERSION_METER_NAME, "The last applied version of backend", backend, propertySourceName)
+                    .set(version);
+        }
+        gaugeValue(APPLIED_TIME_METER_NAME, "The time in milliseconds when the last change was applied", backend,
+                propertySourceName).set(trace.getAppliedTimeMillis());
+    }
+
+    @Override
+    public void recordFootprint(PropertySourceFootprint footprint) {
+        String propertySourceName = footprint.getPropertySourceName();
+        gaugeValue(FOOTPRINT_KEYS_METER_NAME, "The count of keys of the property source", null, propertySourceName)
+                .set(footprint.getKeyCount());
+        gaugeValue(FOOTPRINT_HEAP_BYTES_METER_NAME, "The estimated retained heap bytes of the property source", null,
+                propertySourceName).set(footprint.getHeapBytes());
+        gaugeValue(FOOTPRINT_OFF_HEAP_BYTES_METER_NAME, "The off-heap bytes of the property source", null,
+                propertySourceName).set(footprint.getOffHeapBytes());
+        gaugeValue(FOOTPRINT_PAYLOAD_BYTES_METER_NAME, "The bytes of raw payload of the property source", null,
+                propertySourceName).set(footprint.getPayloadBytes());
+    }
+
+    private Timer latencyTimer(String name, String description, String backend, String propertySourceName) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(BACKEND_TAG_NAME, backend)
+                .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Get the value of gauge, the backend tag is absent if the backend is <code>null</code>
+     */
+    private AtomicLong gaugeValue(String name, String description, String backend, String propertySourceName) {
+        return gaugeValues.computeIfAbsent(name + ":" + backend + ":" + propertySourceName, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.Builder<AtomicLong> builder = Gauge.builder(name, value, AtomicLong::get)
+                    .description(description)
+                    .tag(PROPERTY_SOURCE_TAG_NAME, propertySourceName)
+                    .strongReference(true);
+            if (backend != null) {
+                builder.tag(BACKEND_TAG_NAME, backend);
+            }
+            builder.register(registry);
+            return value;
+        });
+    }
+}
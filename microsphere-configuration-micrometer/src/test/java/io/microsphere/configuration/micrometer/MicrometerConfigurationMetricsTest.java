@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.micrometer;
+
+import io.microsphere.configuration.metrics.ChangeTrace;
+import io.microsphere.configuration.metrics.ConfigurationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
+import static io.microsphere.configuration.metrics.ConfigurationMetricsUtils.loadConfigurationMetrics;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.APPLIED_VERSION_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.CHANGE_APPLY_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.CHANGE_PARSE_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.CHANGE_RECEIVE_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.CHANGE_VISIBILITY_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.FETCHED_BYTES_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.PROPAGATION_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.REFRESH_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.RESOLVE_METER_NAME;
+import static io.microsphere.configuration.micrometer.MicrometerConfigurationMetrics.WATCH_EVENTS_METER_NAME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MicrometerConfigurationMetrics} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class MicrometerConfigurationMetricsTest {
+
+    @Test
+    public void testLoad() {
+        ConfigurationMetrics metrics = loadConfigurationMetrics(getClass().getClassLoader());
+        assertTrue(metrics instanceof MicrometerConfigurationMetrics);
+    }
+
+    @Test
+    public void testRecord() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConfigurationMetrics metrics = new MicrometerConfigurationMetrics(registry);
+
+        metrics.recordResolve("etcd", "test", "test.json", 1000, 128);
+        metrics.recordWatchEvent("etcd", "test", "test.json");
+        metrics.recordWatchEvent("etcd", "test", "test.json");
+        metrics.recordRefresh("etcd", "test", "test.json", 1000, true);
+        metrics.recordPropagation("etcd", "test", "test.json", 1000);
+
+        assertEquals(1, registry.get(RESOLVE_METER_NAME).tag("backend", "etcd").timer().count());
+        assertEquals(128.0, registry.get(FETCHED_BYTES_METER_NAME).summary().totalAmount(), 0.0);
+        assertEquals(2.0, registry.get(WATCH_EVENTS_METER_NAME).tag("property.source", "test").counter().count(), 0.0);
+        assertEquals(1, registry.get(REFRESH_METER_NAME).tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get(PROPAGATION_METER_NAME).timer().count());
+    }
+
+    @Test
+    public void testRecordChange() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConfigurationMetrics metrics = new MicrometerConfigurationMetrics(registry);
+
+        metrics.recordChange("zookeeper", "test", "/test", new ChangeTrace(100, 1000, 1010, 1000, 1000, 1020));
+        metrics.recordChange("zookeeper", "test", "/test", new ChangeTrace(101, 2000, 2010, 1000, 1000, 2030));
+        metrics.recordChange("etcd", "test", "test.json", new ChangeTrace(7, UNKNOWN, 1010, 1000, 1000, 1020));
+
+        assertEquals(2, registry.get(CHANGE_RECEIVE_METER_NAME).tag("backend", "zookeeper").timer().count());
+        assertEquals(30.0, registry.get(CHANGE_VISIBILITY_METER_NAME).tag("backend", "zookeeper").timer().max(MILLISECONDS), 0.0);
+        assertEquals(0, registry.find(CHANGE_VISIBILITY_METER_NAME).tag("backend", "etcd").timers().size());
+        assertEquals(1, registry.get(CHANGE_PARSE_METER_NAME).tag("backend", "etcd").timer().count());
+        assertEquals(1, registry.get(CHANGE_APPLY_METER_NAME).tag("backend", "etcd").timer().count());
+        assertEquals(101.0, registry.get(APPLIED_VERSION_METER_NAME).tag("backend", "zookeeper").gauge().value(), 0.0);
+        assertEquals(7.0, registry.get(APPLIED_VERSION_METER_NAME).tag("backend", "etcd").gauge().value(), 0.0);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression formats of configuration payloads, which are detected by the magic bytes at the beginning of
+ * content.
+ * <p>
+ * {@link #GZIP} is supported by JDK, {@link #LZ4} (frame format) requires "org.lz4:lz4-java" and {@link #ZSTD}
+ * requires "com.github.luben:zstd-jni" on the class-path.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see CompressionUtils
+ * @since 1.0.0
+ */
+public enum CompressionFormat {
+
+    GZIP(new byte[]{(byte) 0x1f, (byte) 0x8b}, null) {
+        @Override
+        public InputStream newInputStream(InputStream inputStream) throws IOException {
+            return new GZIPInputStream(inputStream);
+        }
+
+        @Override
+        public OutputStream newOutputStream(OutputStream outputStream) throws IOException {
+            return new GZIPOutputStream(outputStream);
+        }
+    },
+
+    LZ4(new byte[]{(byte) 0x04, (byte) 0x22, (byte) 0x4d, (byte) 0x18}, "net.jpountz.lz4.LZ4FrameInputStream") {
+        @Override
+        public InputStream newInputStream(InputStream inputStream) throws IOException {
+            return Lz4Streams.newInputStream(inputStream);
+        }
+
+        @Override
+        public OutputStream newOutputStream(OutputStream outputStream) throws IOException {
+            return Lz4Streams.newOutputStream(outputStream);
+        }
+    },
+
+    ZSTD(new byte[]{(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd}, "com.github.luben.zstd.ZstdInputStream") {
+        @Override
+        public InputStream newInputStream(InputStream inputStream) throws IOException {
+            return ZstdStreams.newInputStream(inputStream);
+        }
+
+        @Override
+        public OutputStream newOutputStream(OutputStream outputStream) throws IOException {
+            return ZstdStreams.newOutputStream(outputStream);
+        }
+    };
+
+    private final byte[] magic;
+
+    private final boolean available;
+
+    CompressionFormat(byte[] magic, String requiredClassName) {
+        this.magic = magic;
+        this.available = requiredClassName == null || isPresent(requiredClassName);
+    }
+
+    /**
+     * Create the {@link InputStream} to decompress
+     *
+     * @param inputStream the compressed {@link InputStream}
+     * @return non-null
+     * @throws IOException if the header is invalid
+     */
+    public abstract InputStream newInputStream(InputStream inputStream) throws IOException;
+
+    /**
+     * Create the {@link OutputStream} to compress
+     *
+     * @param outputStream the target {@link OutputStream}
+     * @return non-null
+     * @throws IOException if the header can't be written
+     */
+    public abstract OutputStream newOutputStream(OutputStream outputStream) throws IOException;
+
+    /**
+     * Is the content started with the magic bytes of this format or not
+     *
+     * @param content the content
+     * @return <code>true</code> if matched
+     */
+    public boolean matches(byte[] content) {
+        if (content == null || content.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (content[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Is the library of this format present or not
+     *
+     * @return <code>true</code> if present
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Detect the format of content by the magic bytes
+     *
+     * @param content the content
+     * @return the {@link CompressionFormat} if compressed, or <code>null</code>
+     */
+    public static CompressionFormat detect(byte[] content) {
+        for (CompressionFormat format : values()) {
+            if (format.matches(content)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, CompressionFormat.class.getClassLoader());
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Isolates the LZ4 classes that are optional
+     */
+    private static class Lz4Streams {
+
+        static InputStream newInputStream(InputStream inputStream) throws IOException {
+            return new net.jpountz.lz4.LZ4FrameInputStream(inputStream);
+        }
+
+        static OutputStream newOutputStream(OutputStream outputStream) throws IOException {
+            return new net.jpountz.lz4.LZ4FrameOutputStream(outputStream);
+        }
+    }
+
+    /**
+     * Isolates the Zstandard classes that are optional
+     */
+    private static class ZstdStreams {
+
+        static InputStream newInputStream(InputStream inputStream) throws IOException {
+            return new com.github.luben.zstd.ZstdInputStream(inputStream);
+        }
+
+        static OutputStream newOutputStream(OutputStream outputStream) throws IOException {
+            return new com.github.luben.zstd.ZstdOutputStream(outputStream);
+        }
+    }
+}
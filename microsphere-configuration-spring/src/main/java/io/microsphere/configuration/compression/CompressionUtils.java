@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * The utilities class for the compressed configuration payloads, the readers {@link #decompress(byte[]) decompress}
+ * the content transparently by the detected {@link CompressionFormat}, and the writers, e.g, the publishing tools,
+ * {@link #compress(byte[], CompressionFormat) compress} the content before it's put into the backends to cut the
+ * network bytes, storage and watch bandwidth.
+ * <p>
+ * The size of decompressed content is limited, thus a small malicious payload can't exhaust the heap, the limit could
+ * be configured by the System Property {@link #MAX_DECOMPRESSED_BYTES_PROPERTY_NAME
+ * "microsphere.configuration.compression.max-decompressed-bytes"}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see CompressionFormat
+ * @since 1.0.0
+ */
+public abstract class CompressionUtils {
+
+    /**
+     * The System Property name of the maximum size of decompressed content in bytes
+     */
+    public static final String MAX_DECOMPRESSED_BYTES_PROPERTY_NAME = "microsphere.configuration.compression.max-decompressed-bytes";
+
+    public static final long DEFAULT_MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+    private static final long MAX_DECOMPRESSED_BYTES = Long.getLong(MAX_DECOMPRESSED_BYTES_PROPERTY_NAME,
+            DEFAULT_MAX_DECOMPRESSED_BYTES);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private CompressionUtils() {
+    }
+
+    /**
+     * Decompress the content if it's compressed by any {@link CompressionFormat}, the size of decompressed content
+     * is limited by {@link #getMaxDecompressedBytes()}
+     *
+     * @param content the content
+     * @return the decompressed content, or the content itself if it's not compressed
+     * @throws IOException if the content can't be decompressed, the library of format is absent or the decompressed
+     *                     content exceeds the limit
+     */
+    public static byte[] decompress(byte[] content) throws IOException {
+        return decompress(content, MAX_DECOMPRESSED_BYTES);
+    }
+
+    /**
+     * Decompress the content if it's compressed by any {@link CompressionFormat}
+     *
+     * @param content              the content
+     * @param maxDecompressedBytes the maximum size of decompressed content in bytes
+     * @return the decompressed content, or the content itself if it's not compressed
+     * @throws IOException if the content can't be decompressed, the library of format is absent or the decompressed
+     *                     content exceeds the limit
+     */
+    public static byte[] decompress(byte[] content, long maxDecompressedBytes) throws IOException {
+        CompressionFormat format = CompressionFormat.detect(content);
+        if (format == null) {
+            return content;
+        }
+        if (!format.isAvailable()) {
+            throw new IOException("The content compressed by " + format + " can't be decompressed, " +
+                    "the library is absent in the class-path");
+        }
+        int initialSize = (int) Math.min((long) content.length * 4, Math.min(maxDecompressedBytes, Integer.MAX_VALUE - 8));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(initialSize, 32));
+        try (InputStream inputStream = format.newInputStream(new ByteArrayInputStream(content))) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long totalBytes = 0;
+            int n;
+            while ((n = inputStream.read(buffer)) > -1) {
+                totalBytes += n;
+                if (totalBytes > maxDecompressedBytes) {
+                    throw new IOException("The content compressed by " + format + " exceeds the maximum decompressed size : "
+                            + maxDecompressedBytes + " bytes");
+                }
+                outputStream.write(buffer, 0, n);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * @return the maximum size of decompressed content in bytes
+     */
+    public static long getMaxDecompressedBytes() {
+        return MAX_DECOMPRESSED_BYTES;
+    }
+
+    /**
+     * Compress the content
+     *
+     * @param content the content
+     * @param format  {@link CompressionFormat}
+     * @return the compressed content
+     * @throws IOException if the content can't be compressed
+     */
+    public static byte[] compress(byte[] content, CompressionFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(content.length / 4, 64));
+        try (OutputStream compressedOutputStream = format.newOutputStream(outputStream)) {
+            compressedOutputStream.write(content);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Compress the text content
+     *
+     * @param content the text content
+     * @param charset the {@link Charset} of content
+     * @param format  {@link CompressionFormat}
+     * @return the compressed content
+     * @throws IOException if the content can't be compressed
+     */
+    public static byte[] compress(String content, Charset charset, CompressionFormat format) throws IOException {
+        return compress(content.getBytes(charset), format);
+    }
+}
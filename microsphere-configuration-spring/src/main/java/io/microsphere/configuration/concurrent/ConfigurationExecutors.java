@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Boolean.getBoolean;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The utilities class for the {@link Executor Executors} running the blocking I/O and the change dispatch of
+ * configuration backends.
+ * <p>
+ * When the System Property {@link #VIRTUAL_THREADS_ENABLED_PROPERTY_NAME
+ * "microsphere.configuration.virtual-threads.enabled"} is <code>true</code> and the runtime is Java 21 or above, the
+ * tasks are executed on the virtual threads, thus the hundreds of subscriptions don't require the pooled platform
+ * threads. Otherwise, the bounded platform threads are used and the changes are dispatched by the threads of the
+ * backend clients as before.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see SerialExecutor
+ * @since 1.0.0
+ */
+public abstract class ConfigurationExecutors {
+
+    /**
+     * The System Property name to enable the virtual threads
+     */
+    public static final String VIRTUAL_THREADS_ENABLED_PROPERTY_NAME = "microsphere.configuration.virtual-threads.enabled";
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final boolean virtualThreadsEnabled = getBoolean(VIRTUAL_THREADS_ENABLED_PROPERTY_NAME)
+            && VirtualThreads.isSupported();
+
+    private static volatile ExecutorService dispatchExecutor;
+
+    private ConfigurationExecutors() {
+    }
+
+    /**
+     * Are the virtual threads enabled and supported by the runtime or not
+     *
+     * @return <code>true</code> if enabled
+     */
+    public static boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Create a new {@link ExecutorService} for the blocking tasks
+     *
+     * @param namePrefix the prefix of thread name
+     * @param maxThreads the maximum platform threads, which is ignored if {@link #isVirtualThreadsEnabled() the
+     *                   virtual threads are enabled}
+     * @return non-null
+     */
+    public static ExecutorService newExecutor(String namePrefix, int maxThreads) {
+        ExecutorService virtualThreadExecutor = virtualThreadsEnabled ? VirtualThreads.newExecutor(namePrefix) : null;
+        if (virtualThreadExecutor != null) {
+            return virtualThreadExecutor;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, SECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory(namePrefix));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Get the shared {@link Executor} to dispatch the configuration changes, it runs the tasks on the virtual threads
+     * if {@link #isVirtualThreadsEnabled() enabled}, or runs the tasks in the caller thread, e.g, the thread of
+     * backend client.
+     *
+     * @return non-null
+     */
+    public static Executor getDispatchExecutor() {
+        if (!virtualThreadsEnabled) {
+            return Runnable::run;
+        }
+        ExecutorService executor = dispatchExecutor;
+        if (executor == null) {
+            synchronized (ConfigurationExecutors.class) {
+                executor = dispatchExecutor;
+                if (executor == null) {
+                    executor = VirtualThreads.newExecutor("microsphere-configuration-dispatcher-");
+                    if (executor == null) {
+                        return Runnable::run;
+                    }
+                    dispatchExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Create a new {@link Executor} dispatching the changes of one subscription in order, on the
+     * {@link #getDispatchExecutor() shared dispatch executor}
+     *
+     * @return non-null
+     */
+    public static Executor newSerialDispatchExecutor() {
+        Executor executor = getDispatchExecutor();
+        return virtualThreadsEnabled ? new SerialExecutor(executor) : executor;
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
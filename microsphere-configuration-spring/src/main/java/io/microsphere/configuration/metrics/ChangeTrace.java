@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+/**
+ * The trace of a configuration change from the backend write to the {@code Environment}, which is stamped by the
+ * backend version and time where available:
+ * <ul>
+ *     <li>etcd : the {@code mod_revision} as the version, the time is unknown</li>
+ *     <li>Zookeeper : the {@code Stat.mzxid} as the version, the {@code Stat.mtime} as the time</li>
+ *     <li>Apollo : unknown, the release key is not exposed by the client</li>
+ *     <li>File : the last modified time as both the version and the time</li>
+ * </ul>
+ * The backend time comes from the clock of backend, thus the latencies derived from it are affected by the clock
+ * skew between the backend and the application.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationMetrics#recordChange(String, String, String, ChangeTrace)
+ * @since 1.0.0
+ */
+public final class ChangeTrace {
+
+    /**
+     * The unknown version or time
+     */
+    public static final long UNKNOWN = -1L;
+
+    private final long version;
+
+    private final long versionTimeMillis;
+
+    private final long receivedTimeMillis;
+
+    private final long parseNanos;
+
+    private final long applyNanos;
+
+    private final long appliedTimeMillis;
+
+    public ChangeTrace(long version, long versionTimeMillis, long receivedTimeMillis, long parseNanos, long applyNanos,
+                       long appliedTimeMillis) {
+        this.version = version;
+        this.versionTimeMillis = versionTimeMillis;
+        this.receivedTimeMillis = receivedTimeMillis;
+        this.parseNanos = parseNanos;
+        this.applyNanos = applyNanos;
+        this.appliedTimeMillis = appliedTimeMillis;
+    }
+
+    /**
+     * @return the version of backend, e.g, the etcd {@code mod_revision}, or {@link #UNKNOWN}
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the time in milliseconds when the change was written into the backend, or {@link #UNKNOWN}
+     */
+    public long getVersionTimeMillis() {
+        return versionTimeMillis;
+    }
+
+    /**
+     * @return the time in milliseconds when the change was received by the application
+     */
+    public long getReceivedTimeMillis() {
+        return receivedTimeMillis;
+    }
+
+    /**
+     * @return the duration in nanoseconds to decode, parse and refresh the changed resources
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * @return the duration in nanoseconds to apply the change into the {@code Environment}, e.g, re-indexing and
+     * publishing the events
+     */
+    public long getApplyNanos() {
+        return applyNanos;
+    }
+
+    /**
+     * @return the time in milliseconds when the change was applied into the {@code Environment}
+     */
+    public long getAppliedTimeMillis() {
+        return appliedTimeMillis;
+    }
+
+    /**
+     * @return the latency in milliseconds from the backend write to the receipt, or {@link #UNKNOWN}
+     */
+    public long getReceiveLatencyMillis() {
+        return versionTimeMillis < 0 ? UNKNOWN : Math.max(0, receivedTimeMillis - versionTimeMillis);
+    }
+
+    /**
+     * @return the latency in milliseconds from the backend write to the visibility in the {@code Environment},
+     * or {@link #UNKNOWN}
+     */
+    public long getVisibilityLatencyMillis() {
+        return versionTimeMillis < 0 ? UNKNOWN : Math.max(0, appliedTimeMillis - versionTimeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeTrace{" +
+                "version=" + version +
+                ", versionTimeMillis=" + versionTimeMillis +
+                ", receivedTimeMillis=" + receivedTimeMillis +
+                ", parseNanos=" + parseNanos +
+                ", applyNanos=" + applyNanos +
+                ", appliedTimeMillis=" + appliedTimeMillis +
+                '}';
+    }
+}
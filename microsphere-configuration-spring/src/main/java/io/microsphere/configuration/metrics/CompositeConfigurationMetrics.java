@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+import java.util.List;
+
+/**
+ * The composite {@link ConfigurationMetrics} delegates to the multiple {@link ConfigurationMetrics}
+ * in order, the failure of one delegate does not affect others.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationMetrics
+ * @since 1.0.0
+ */
+public class CompositeConfigurationMetrics implements ConfigurationMetrics {
+
+    private final ConfigurationMetrics[] delegates;
+
+    public CompositeConfigurationMetrics(List<ConfigurationMetrics> delegates) {
+        this.delegates = delegates.toArray(new ConfigurationMetrics[0]);
+    }
+
+    @Override
+    public void recordResolve(String backend, String propertySourceName, String resourceValue, long durationNanos, long fetchedBytes) {
+        for (ConfigurationMetrics delegate : delegates) {
+            try {
+                delegate.recordResolve(backend, propertySourceName, resourceValue, durationNanos, fetchedBytes);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void recordWatchEvent(String backend, String propertySourceName, String resourceValue) {
+        for (ConfigurationMetrics delegate : delegates) {
+            try {
+                delegate.recordWatchEvent(backend, propertySourceName, resourceValue);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void recordRefresh(String backend, String propertySourceName, String resourceValue, long durationNanos, boolean succeeded) {
+        for (ConfigurationMetrics delegate : delegates) {
+            try {
+                delegate.recordRefresh(backend, propertySourceName, resourceValue, durationNanos, succeeded);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void recordPropagation(String backend, String propertySourceName, String resourceValue, long latencyNanos) {
+        for (ConfigurationMetrics delegate : delegates) {
+            try {
+                delegate.recordPropagation(backend, propertySourceName, resourceValue, latencyNanos);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void recordChange(String backend, String propertySourceName, String resourceValue, ChangeTrace trace) {
+        for (ConfigurationMetrics delegate : delegates) {
+            try {
+                delegate.recordChange(backend, propertySourceName, resourceValue, trace);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void recordFootprint(PropertySourceFootprint footprint) {
+        for (ConfigurationMetrics delegate : delegates) {
+            try {
+                delegate.recordFootprint(footprint);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+}
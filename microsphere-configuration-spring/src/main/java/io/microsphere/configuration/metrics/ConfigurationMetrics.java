@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+/**
+ * The SPI of metrics for the hot paths of configuration loading, refreshing and watching, e.g, the etcd,
+ * Zookeeper and Apollo property sources.
+ * <p>
+ * The implementations are loaded by {@link java.util.ServiceLoader} from
+ * "META-INF/services/io.microsphere.configuration.metrics.ConfigurationMetrics", if none is present,
+ * {@link NoOpConfigurationMetrics} will be used. All methods are invoked on the hot paths, thus
+ * the implementations must be thread-safe and should not block.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see NoOpConfigurationMetrics
+ * @see CompositeConfigurationMetrics
+ * @see ConfigurationMetricsUtils
+ * @since 1.0.0
+ */
+public interface ConfigurationMetrics {
+
+    /**
+     * Record the resolution of the resource(s) from the configuration backend
+     *
+     * @param backend            the name of configuration backend, e.g, "etcd"
+     * @param propertySourceName the name of property source
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     * @param durationNanos      the duration of resolution in nanoseconds
+     * @param fetchedBytes       the count of bytes fetched from the backend
+     */
+    void recordResolve(String backend, String propertySourceName, String resourceValue, long durationNanos, long fetchedBytes);
+
+    /**
+     * Record an event that was watched from the configuration backend
+     *
+     * @param backend            the name of configuration backend, e.g, "etcd"
+     * @param propertySourceName the name of property source
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     */
+    void recordWatchEvent(String backend, String propertySourceName, String resourceValue);
+
+    /**
+     * Record the refresh of the property source
+     *
+     * @param backend            the name of configuration backend, e.g, "etcd"
+     * @param propertySourceName the name of property source
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     * @param durationNanos      the duration of refresh in nanoseconds
+     * @param succeeded          the refresh is succeeded or not
+     */
+    void recordRefresh(String backend, String propertySourceName, String resourceValue, long durationNanos, boolean succeeded);
+
+    /**
+     * Record the latency that the changed value takes to reach the {@code Environment} since it was received
+     *
+     * @param backend            the name of configuration backend, e.g, "etcd"
+     * @param propertySourceName the name of property source
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     * @param latencyNanos       the latency in nanoseconds
+     */
+    void recordPropagation(String backend, String propertySourceName, String resourceValue, long latencyNanos);
+
+    /**
+     * Record the trace of the change that has been applied into the {@code Environment}, including the backend
+     * version for the "last applied version" and the latencies of receiving, parsing and applying.
+     * <p>
+     * The default implementation does nothing for the compatibility of the existing implementations.
+     *
+     * @param backend            the name of configuration backend, e.g, "etcd"
+     * @param propertySourceName the name of property source
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     * @param trace              {@link ChangeTrace}
+     */
+    default void recordChange(String backend, String propertySourceName, String resourceValue, ChangeTrace trace) {
+    }
+
+    /**
+     * Record the memory footprint of the property source, which is reported periodically.
+     * <p>
+     * The default implementation does nothing for the compatibility of the existing implementations.
+     *
+     * @param footprint {@link PropertySourceFootprint}
+     */
+    default void recordFootprint(PropertySourceFootprint footprint) {
+    }
+}
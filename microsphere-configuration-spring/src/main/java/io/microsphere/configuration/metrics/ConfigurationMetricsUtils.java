@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The utilities class for {@link ConfigurationMetrics}
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationMetrics
+ * @since 1.0.0
+ */
+public abstract class ConfigurationMetricsUtils {
+
+    private static volatile ConfigurationMetrics configurationMetrics;
+
+    private ConfigurationMetricsUtils() {
+    }
+
+    /**
+     * Get the {@link ConfigurationMetrics} that was loaded by {@link ServiceLoader} once.
+     *
+     * @return {@link NoOpConfigurationMetrics#INSTANCE} if no {@link ConfigurationMetrics} is present,
+     * or {@link CompositeConfigurationMetrics} if multiple {@link ConfigurationMetrics} are present
+     */
+    public static ConfigurationMetrics getConfigurationMetrics() {
+        ConfigurationMetrics metrics = configurationMetrics;
+        if (metrics == null) {
+            synchronized (ConfigurationMetricsUtils.class) {
+                metrics = configurationMetrics;
+                if (metrics == null) {
+                    metrics = loadConfigurationMetrics(ConfigurationMetricsUtils.class.getClassLoader());
+                    configurationMetrics = metrics;
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Load the {@link ConfigurationMetrics} by {@link ServiceLoader}
+     *
+     * @param classLoader {@link ClassLoader}
+     * @return non-null
+     */
+    public static ConfigurationMetrics loadConfigurationMetrics(ClassLoader classLoader) {
+        List<ConfigurationMetrics> metricsList = new ArrayList<>();
+        for (ConfigurationMetrics metrics : ServiceLoader.load(ConfigurationMetrics.class, classLoader)) {
+            metricsList.add(metrics);
+        }
+        int size = metricsList.size();
+        if (size == 0) {
+            return NoOpConfigurationMetrics.INSTANCE;
+        } else if (size == 1) {
+            return metricsList.get(0);
+        }
+        return new CompositeConfigurationMetrics(metricsList);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+/**
+ * The no-op {@link ConfigurationMetrics} as the default, it's stateless and allocation-free.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationMetrics
+ * @since 1.0.0
+ */
+public enum NoOpConfigurationMetrics implements ConfigurationMetrics {
+
+    /**
+     * The singleton instance
+     */
+    INSTANCE;
+
+    @Override
+    public void recordResolve(String backend, String propertySourceName, String resourceValue, long durationNanos, long fetchedBytes) {
+    }
+
+    @Override
+    public void recordWatchEvent(String backend, String propertySourceName, String resourceValue) {
+    }
+
+    @Override
+    public void recordRefresh(String backend, String propertySourceName, String resourceValue, long durationNanos, boolean succeeded) {
+    }
+
+    @Override
+    public void recordPropagation(String backend, String propertySourceName, String resourceValue, long latencyNanos) {
+    }
+}
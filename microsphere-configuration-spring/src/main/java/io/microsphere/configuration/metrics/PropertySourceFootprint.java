@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+/**
+ * The memory footprint of a property source, including the count of keys, the estimated retained heap bytes,
+ * the off-heap bytes and the size of raw payload fetched from the configuration backend.
+ * <p>
+ * The heap bytes are estimated roughly from the keys and values, rather than measured, thus they should be used to
+ * compare the property sources and find the outliers.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationMetrics#recordFootprint(PropertySourceFootprint)
+ * @since 1.0.0
+ */
+public final class PropertySourceFootprint {
+
+    private final String propertySourceName;
+
+    private final int keyCount;
+
+    private final long heapBytes;
+
+    private final long offHeapBytes;
+
+    private final long payloadBytes;
+
+    public PropertySourceFootprint(String propertySourceName, int keyCount, long heapBytes, long offHeapBytes,
+                                   long payloadBytes) {
+        this.propertySourceName = propertySourceName;
+        this.keyCount = keyCount;
+        this.heapBytes = heapBytes;
+        this.offHeapBytes = offHeapBytes;
+        this.payloadBytes = payloadBytes;
+    }
+
+    public String getPropertySourceName() {
+        return propertySourceName;
+    }
+
+    /**
+     * @return the count of keys, the duplicated keys of the sub-sources are counted repeatedly
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * @return the estimated retained heap bytes
+     */
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    /**
+     * @return the off-heap bytes, e.g, the arena of {@code OffHeapPropertySource}
+     */
+    public long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+
+    /**
+     * @return the bytes of raw payload fetched from the configuration backend, or <code>0</code> if unknown
+     */
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySourceFootprint{" +
+                "propertySourceName='" + propertySourceName + '\'' +
+                ", keyCount=" + keyCount +
+                ", heapBytes=" + heapBytes +
+                ", offHeapBytes=" + offHeapBytes +
+                ", payloadBytes=" + payloadBytes +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import io.microsphere.configuration.spring.env.support.BinaryPropertySourceFactory;
+import io.microsphere.spring.config.context.annotation.PropertySourceExtensionAttributes;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.util.StringUtils;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+
+/**
+ * The {@link PropertySourceExtensionAttributes} for the annotations of configuration backends, e.g, etcd and Zookeeper
+ *
+ * @param <A> the type of annotation
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourceExtensionAttributes
+ * @see ConfigurationPropertySourceLoader
+ * @since 1.0.0
+ */
+public class ConfigurationPropertySourceAttributes<A extends Annotation> extends PropertySourceExtensionAttributes<A> {
+
+    public ConfigurationPropertySourceAttributes(Map<String, Object> another, Class<A> annotationType, PropertyResolver propertyResolver) {
+        super(another, annotationType, propertyResolver);
+    }
+
+    public boolean isIndexed() {
+        return getBoolean("indexed");
+    }
+
+    public boolean isParsedContentCached() {
+        return getBoolean("parsedContentCached");
+    }
+
+    public boolean isParallelParsed() {
+        return getBoolean("parallelParsed");
+    }
+
+    public boolean isTransactional() {
+        return getBoolean("transactional");
+    }
+
+    public long getTransactionWindowMillis() {
+        return getNumber("transactionWindowMillis").longValue();
+    }
+
+    public boolean isOffHeap() {
+        return getBoolean("offHeap");
+    }
+
+    /**
+     * Is the factory {@link BinaryPropertySourceFactory binary} or not, whose resources are mapped without parsing
+     *
+     * @return <code>true</code> if binary
+     */
+    public boolean isBinary() {
+        Class<?> factoryClass = getClass("factory");
+        return BinaryPropertySourceFactory.class.isAssignableFrom(factoryClass);
+    }
+
+    public boolean isPlaceholdersCached() {
+        return getBoolean("placeholdersCached");
+    }
+
+    public boolean isLazy() {
+        return getBoolean("lazy");
+    }
+
+    public String[] getLazyKeyPrefixes() {
+        return getStringArray("lazyKeyPrefixes");
+    }
+
+    /**
+     * Get the name of {@link HedgedReadGroup}
+     *
+     * @return the empty string if the annotation doesn't support or declare it
+     */
+    public String getHedgeGroup() {
+        return containsKey("hedgeGroup") ? getString("hedgeGroup") : "";
+    }
+
+    public boolean isHedged() {
+        return StringUtils.hasText(getHedgeGroup());
+    }
+
+    public int getHedgeOrder() {
+        return getNumber("hedgeOrder").intValue();
+    }
+
+    public long getHedgeDelayMillis() {
+        return getNumber("hedgeDelayMillis").longValue();
+    }
+}
@@ -0,0 +1,875 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import io.microsphere.configuration.metrics.ConfigurationMetrics;
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup.VersionedResources;
+import io.microsphere.configuration.spring.env.IndexedPropertySource;
+import io.microsphere.configuration.spring.env.LazyPropertySource;
+import io.microsphere.configuration.spring.env.OffHeapPropertySource;
+import io.microsphere.configuration.spring.env.PlaceholderCachingPropertySource;
+import io.microsphere.configuration.spring.env.PropertySourceFootprintReporter;
+import io.microsphere.configuration.spring.env.event.PropertiesDiff;
+import io.microsphere.configuration.spring.env.support.BinaryPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.CachingPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.OffHeapPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.ParallelResourceParser;
+import io.microsphere.configuration.watch.WatchSubscriptionHub;
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
+import io.microsphere.spring.config.context.annotation.PropertySourceExtensionLoader;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static io.microsphere.configuration.metrics.ConfigurationMetricsUtils.getConfigurationMetrics;
+import static io.microsphere.configuration.spring.env.PropertySourceUtils.getProperties;
+import static java.lang.Integer.toHexString;
+import static java.lang.System.identityHashCode;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The abstract {@link PropertySourceExtensionLoader} for the configuration backends, e.g, etcd and Zookeeper,
+ * which provides the common features:
+ * <ul>
+ *     <li>{@link ConfigurationPropertySourceAttributes#isIndexed() Indexed PropertySource}</li>
+ *     <li>{@link ConfigurationPropertySourceAttributes#isParsedContentCached() Parsed content cache}</li>
+ *     <li>{@link ConfigurationPropertySourceAttributes#isParallelParsed() Parallel parsing}</li>
+ *     <li>{@link ConfigurationPropertySourceAttributes#isTransactional() Transactional apply}</li>
+ *     <li>{@link ConfigurationPropertySourceAttributes#isLazy() Lazy loading}</li>
+ *     <li>{@link ConfigurationPropertySourceAttributes#isPlaceholdersCached() Placeholder resolution cache}</li>
+ *     <li>The {@link HedgedReadGroup hedged reads} across the redundant backends</li>
+ *     <li>{@link ConfigurationMetrics Metrics}</li>
+ *     <li>The backend watches shared by the {@link ApplicationContext ApplicationContexts} in the JVM via
+ *     {@link WatchSubscriptionHub}</li>
+ *     <li>The key-level {@link PropertiesDiff difference} published as {@link PropertySourcesChangedEvent} on refresh</li>
+ * </ul>
+ *
+ * @param <A>  the type of annotation
+ * @param <EA> the type of {@link ConfigurationPropertySourceAttributes}
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourceExtensionLoader
+ * @see ConfigurationPropertySourceAttributes
+ * @since 1.0.0
+ */
+public abstract class ConfigurationPropertySourceLoader<A extends Annotation, EA extends ConfigurationPropertySourceAttributes<A>>
+        extends PropertySourceExtensionLoader<A, EA> implements ApplicationContextAware {
+
+    private static ScheduledExecutorService transactionScheduler;
+
+    /**
+     * The {@link Transaction} of the {@link PropertySource} being loaded by the current thread
+     */
+    private static final ThreadLocal<ConfigurationPropertySourceLoader<?, ?>.Transaction> loadingTransaction = new ThreadLocal<>();
+
+    protected final ConfigurationMetrics metrics = getConfigurationMetrics();
+
+    /**
+     * The snapshots of properties before refreshing, the key is the name of {@link PropertySource}, the value is
+     * either {@link MapPropertySource} or the {@link CompositePropertySource} of the {@link OffHeapPropertySource}
+     * arenas if {@link ConfigurationPropertySourceAttributes#isOffHeap() off-heap}
+     */
+    private final Map<String, EnumerablePropertySource<?>> propertiesSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * The transactions of the {@link ConfigurationPropertySourceAttributes#isTransactional() transactional}
+     * {@link PropertySource PropertySources}, the key is the name of {@link PropertySource}
+     */
+    private final ConcurrentMap<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    /**
+     * The {@link Subscription subscriptions} of {@link WatchSubscriptionHub}, which will be closed when the
+     * {@link ApplicationContext} is closed
+     */
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * The {@link PlaceholderCachingPropertySource PlaceholderCachingPropertySources} to be invalidated by the
+     * {@link PropertySourcesChangedEvent PropertySourcesChangedEvents} of the {@link ApplicationContext}
+     */
+    private final List<PlaceholderCachingPropertySource> placeholderCachingPropertySources = new CopyOnWriteArrayList<>();
+
+    /**
+     * The resources resolved and parsed in parallel ahead of the base loader, the key is the name of
+     * {@link PropertySource}, which are consumed by {@link #resolveResources} and the {@link PropertySourceFactory}
+     * during the load
+     */
+    private final ConcurrentMap<String, ParallelParsedResources> parallelParsedResources = new ConcurrentHashMap<>();
+
+    private ApplicationContext context;
+
+    /**
+     * Get the name of configuration backend, e.g, "etcd"
+     *
+     * @return non-null
+     */
+    protected abstract String getBackend();
+
+    /**
+     * Resolve the {@link Resource resources} from the configuration backend
+     *
+     * @param extensionAttributes {@link ConfigurationPropertySourceAttributes}
+     * @param propertySourceName  the name of {@link PropertySource}
+     * @param resourceValue       the resource value, e.g, the etcd key or Zookeeper path
+     * @return the resolved {@link Resource resources}, or <code>null</code> if not found
+     * @throws Throwable if any error occurs
+     */
+    protected abstract Resource[] doResolveResources(EA extensionAttributes, String propertySourceName,
+                                                     String resourceValue) throws Throwable;
+
+    @Override
+    protected final Resource[] resolveResources(EA extensionAttributes, String propertySourceName,
+                                                String resourceValue) throws Throwable {
+        ParallelParsedResources parsedResources = parallelParsedResources.get(propertySourceName);
+        if (parsedResources != null && parsedResources.isResolved(resourceValue)) {
+            return parsedResources.getResources(resourceValue);
+        }
+        return resolveResources0(extensionAttributes, propertySourceName, resourceValue);
+    }
+
+    private Resource[] resolveResources0(EA extensionAttributes, String propertySourceName,
+                                         String resourceValue) throws Throwable {
+        HedgedReadGroup hedgedReadGroup = findHedgedReadGroup(extensionAttributes);
+        Resource[] resources = hedgedReadGroup == null ?
+                doResolveResources(extensionAttributes, propertySourceName, resourceValue) :
+                resolveHedgedResources(hedgedReadGroup, extensionAttributes, resourceValue);
+        recordPayload(propertySourceName, resourceValue, resources);
+        return resources;
+    }
+
+    private Resource[] resolveHedgedResources(HedgedReadGroup hedgedReadGroup, EA extensionAttributes,
+                                              String resourceValue) throws Throwable {
+        VersionedResources versionedResources;
+        try {
+            versionedResources = hedgedReadGroup.read(resourceValue, extensionAttributes.getHedgeDelayMillis()).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        return versionedResources == null ? null : versionedResources.getResources();
+    }
+
+    private HedgedReadGroup findHedgedReadGroup(ConfigurationPropertySourceAttributes<?> extensionAttributes) {
+        if (!extensionAttributes.isHedged()) {
+            return null;
+        }
+        String memberName = extensionAttributes.getName();
+        if (!StringUtils.hasText(memberName)) {
+            throw new IllegalArgumentException("The name is required by the member of hedge group["
+                    + extensionAttributes.getHedgeGroup() + "]");
+        }
+        HedgedReadGroup hedgedReadGroup = HedgedReadGroup.findGroup(context.getEnvironment(), extensionAttributes.getHedgeGroup());
+        if (hedgedReadGroup == null || hedgedReadGroup.size() == 0) {
+            // The members are not registered, e.g, the prefetcher is absent
+            return null;
+        }
+        // The primary is decided by the members registered by now
+        hedgedReadGroup.resolve();
+        hedgedReadGroup.checkMember(memberName);
+        return hedgedReadGroup;
+    }
+
+    @Override
+    protected PropertySource<?> loadPropertySource(EA extensionAttributes, String propertySourceName) throws Throwable {
+        HedgedReadGroup hedgedReadGroup = findHedgedReadGroup(extensionAttributes);
+        if (hedgedReadGroup != null && !hedgedReadGroup.isPrimary(extensionAttributes.getName())) {
+            // The read replica is read by the primary, no PropertySource is loaded
+            logger.info("The PropertySource[name : {}] is the read replica of hedge group[{}]", propertySourceName,
+                    hedgedReadGroup.getName());
+            return null;
+        }
+        if (extensionAttributes.isLazy()) {
+            if (extensionAttributes.getLazyKeyPrefixes().length == 0) {
+                // Any lookup falling through the former PropertySources would load it
+                throw new IllegalArgumentException("The key prefixes are required by the lazy PropertySource[name : "
+                        + propertySourceName + "]");
+            }
+            // The resources are fetched and watched on the first access
+            return new LazyPropertySource(propertySourceName, () -> {
+                try {
+                    return doLoadPropertySource(extensionAttributes, propertySourceName);
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }, extensionAttributes.getLazyKeyPrefixes());
+        }
+        return doLoadPropertySource(extensionAttributes, propertySourceName);
+    }
+
+    private PropertySource<?> doLoadPropertySource(EA extensionAttributes, String propertySourceName) throws Throwable {
+        if (extensionAttributes.isOffHeap()) {
+            if (extensionAttributes.isTransactional()) {
+                // The staged changes are isolated by the heap index, which is not built for the off-heap one
+                throw new IllegalArgumentException("The PropertySource[name : " + propertySourceName
+                        + "] can't be both transactional and off-heap");
+            }
+            if (extensionAttributes.isIndexed()) {
+                logger.info("The PropertySource[name : {}] is off-heap, which is looked up by the binary search, " +
+                        "thus it's not indexed", propertySourceName);
+            }
+        }
+        Transaction transaction = extensionAttributes.isTransactional() ?
+                new Transaction(extensionAttributes, propertySourceName) : null;
+        loadingTransaction.set(transaction);
+        PropertySource<?> propertySource;
+        try {
+            propertySource = loadPropertySource0(extensionAttributes, propertySourceName);
+        } finally {
+            loadingTransaction.remove();
+        }
+        if (propertySource == null) {
+            return null;
+        }
+        if (extensionAttributes.isAutoRefreshed()) {
+            takeSnapshot(extensionAttributes, propertySourceName, propertySource);
+        }
+        if (transaction != null) {
+            transaction.bind(propertySource);
+            transactions.putIfAbsent(propertySourceName, transaction);
+        }
+        if (isIndexed(extensionAttributes)) {
+            propertySource = new IndexedPropertySource(propertySource);
+        }
+        if (extensionAttributes.isPlaceholdersCached()) {
+            PlaceholderCachingPropertySource placeholderCachingPropertySource =
+                    new PlaceholderCachingPropertySource(propertySource, environment);
+            placeholderCachingPropertySources.add(placeholderCachingPropertySource);
+            propertySource = placeholderCachingPropertySource;
+        }
+        return propertySource;
+    }
+
+    private PropertySource<?> loadPropertySource0(EA extensionAttributes, String propertySourceName) throws Throwable {
+        PropertySource<?> propertySource;
+        if (isParallelParsed(extensionAttributes)) {
+            parallelParsedResources.put(propertySourceName, parseInParallel(extensionAttributes, propertySourceName));
+            try {
+                propertySource = super.loadPropertySource(extensionAttributes, propertySourceName);
+            } finally {
+                parallelParsedResources.remove(propertySourceName);
+            }
+        } else {
+            propertySource = super.loadPropertySource(extensionAttributes, propertySourceName);
+        }
+        return propertySource;
+    }
+
+    @Override
+    protected PropertySourceFactory createPropertySourceFactory(EA extensionAttributes) {
+        PropertySourceFactory factory = doCreatePropertySourceFactory(extensionAttributes);
+        if (isParallelParsed(extensionAttributes)) {
+            factory = new ParallelParsedPropertySourceFactory(factory);
+        }
+        if (extensionAttributes.isTransactional()) {
+            factory = new TransactionalPropertySourceFactory(factory);
+        }
+        return factory;
+    }
+
+    private PropertySourceFactory doCreatePropertySourceFactory(EA extensionAttributes) {
+        PropertySourceFactory factory = super.createPropertySourceFactory(extensionAttributes);
+        if (factory instanceof BinaryPropertySourceFactory) {
+            // The binary content is mapped rather than parsed, thus it's neither cached nor copied
+            return factory;
+        }
+        if (extensionAttributes.isOffHeap()) {
+            return new OffHeapPropertySourceFactory(factory);
+        }
+        if (extensionAttributes.isParsedContentCached()) {
+            return new CachingPropertySourceFactory(factory);
+        }
+        return factory;
+    }
+
+    private static boolean isParallelParsed(ConfigurationPropertySourceAttributes<?> extensionAttributes) {
+        return extensionAttributes.isParallelParsed() && !extensionAttributes.isOffHeap() && !extensionAttributes.isBinary();
+    }
+
+    /**
+     * Refresh the resource by the {@link ResourcePropertySourcesRefresher}, {@link #afterRefresh} should be invoked
+     * after the resource(s) are refreshed.
+     * <p>
+     * If the {@link PropertySource} is {@link ConfigurationPropertySourceAttributes#isTransactional() transactional},
+     * the resource is staged rather than refreshed, and then the staged resources are parsed into the nested
+     * {@link PropertySource PropertySources} on commit without the {@link ResourcePropertySourcesRefresher}, thus no
+     * event is published until the commit publishes the consolidated one.
+     *
+     * @param propertySourceName the name of {@link PropertySource}
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     * @param resource           the refreshed {@link Resource}
+     * @param refresher          {@link ResourcePropertySourcesRefresher}
+     */
+    protected void refreshResource(String propertySourceName, String resourceValue, Resource resource,
+                                   ResourcePropertySourcesRefresher refresher) {
+        Transaction transaction = transactions.get(propertySourceName);
+        if (transaction == null) {
+            doRefreshResource(propertySourceName, resourceValue, resource, refresher);
+        } else {
+            // Stage the change, which is invisible until the transaction is committed
+            transaction.stage(resourceValue, resource);
+        }
+    }
+
+    private void doRefreshResource(String propertySourceName, String resourceValue, Resource resource,
+                                   ResourcePropertySourcesRefresher refresher) {
+        long startTime = nanoTime();
+        boolean succeeded = false;
+        try {
+            refresher.refresh(resourceValue, resource);
+            succeeded = true;
+            recordPayload(propertySourceName, resourceValue, resource);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        } finally {
+            metrics.recordRefresh(getBackend(), propertySourceName, resourceValue, nanoTime() - startTime, succeeded);
+        }
+    }
+
+    /**
+     * Callback after the resource(s) are refreshed:
+     * <ul>
+     *     <li>Re-index the {@link PropertySource} if {@link ConfigurationPropertySourceAttributes#isIndexed() indexed}</li>
+     *     <li>Publish the {@link PropertySourcesChangedEvent} that only contains the changed keys</li>
+     * </ul>
+     * If the {@link PropertySource} is {@link ConfigurationPropertySourceAttributes#isTransactional() transactional},
+     * the steps above are deferred until the end of the
+     * {@link ConfigurationPropertySourceAttributes#getTransactionWindowMillis() window}, thus the changes arrived
+     * within the window are applied atomically.
+     *
+     * @param extensionAttributes {@link ConfigurationPropertySourceAttributes}
+     * @param propertySourceName  the name of {@link PropertySource}
+     */
+    protected void afterRefresh(EA extensionAttributes, String propertySourceName) {
+        Transaction transaction = transactions.get(propertySourceName);
+        if (transaction == null) {
+            apply(extensionAttributes, propertySourceName);
+        } else {
+            transaction.schedule();
+        }
+    }
+
+    private void apply(EA extensionAttributes, String propertySourceName) {
+        MutablePropertySources propertySources = environment.getPropertySources();
+        PropertySource<?> propertySource = propertySources.get(propertySourceName);
+        if (isIndexed(extensionAttributes)) {
+            PropertySource<?> targetPropertySource = unwrap(propertySource);
+            if (targetPropertySource instanceof IndexedPropertySource) {
+                ((IndexedPropertySource) targetPropertySource).refresh();
+            } else if (targetPropertySource == propertySource) {
+                IndexedPropertySource.reindex(propertySources, propertySourceName);
+            }
+        }
+        publishPropertiesChangedEvent(extensionAttributes, propertySourceName, propertySources.get(propertySourceName));
+    }
+
+    /**
+     * Unwrap the {@link LazyPropertySource} and {@link PlaceholderCachingPropertySource} created by this loader
+     */
+    private static PropertySource<?> unwrap(PropertySource<?> propertySource) {
+        if (propertySource instanceof LazyPropertySource) {
+            return unwrap(((LazyPropertySource) propertySource).getDelegate());
+        } else if (propertySource instanceof PlaceholderCachingPropertySource) {
+            return unwrap(((PlaceholderCachingPropertySource) propertySource).getSource());
+        }
+        return propertySource;
+    }
+
+    private static boolean isIndexed(ConfigurationPropertySourceAttributes<?> extensionAttributes) {
+        if (extensionAttributes.isOffHeap()) {
+            // The heap index would rebuild the full map of the off-heap properties
+            return false;
+        }
+        if (extensionAttributes.isBinary() && !extensionAttributes.isTransactional()) {
+            // The binary properties are looked up by the binary search as well
+            return false;
+        }
+        // The transactional PropertySource must be indexed to isolate the staged changes from the readers
+        return extensionAttributes.isIndexed() || extensionAttributes.isTransactional();
+    }
+
+    private void recordPayload(String propertySourceName, String resourceValue, Resource... resources) {
+        if (resources == null || environment == null) {
+            return;
+        }
+        long bytes = 0;
+        for (Resource resource : resources) {
+            try {
+                bytes += resource.contentLength();
+            } catch (IOException e) {
+                // The content length is unknown
+            }
+        }
+        PropertySourceFootprintReporter.recordPayload(environment, propertySourceName, resourceValue, bytes);
+    }
+
+    /**
+     * Resolve the resources of all resource values, and then parse them in parallel, the
+     * {@link PropertySource PropertySources} are taken from the parsed results by the base loader in the order of
+     * the resource comparator, thus no resource is parsed twice.
+     * <p>
+     * The resource value failed to be resolved is left to the base loader, as well as the resources if any of them
+     * failed to be parsed, thus the failures are reported as the sequential loading does.
+     *
+     * @param extensionAttributes {@link ConfigurationPropertySourceAttributes}
+     * @param propertySourceName  the name of {@link PropertySource}
+     * @return non-null
+     */
+    private ParallelParsedResources parseInParallel(EA extensionAttributes, String propertySourceName) {
+        ParallelParsedResources parsedResources = new ParallelParsedResources();
+        List<Resource> resources = new ArrayList<>();
+        for (String resourceValue : extensionAttributes.getValue()) {
+            try {
+                Resource[] resolvedResources = resolveResources0(extensionAttributes, propertySourceName, resourceValue);
+                parsedResources.putResources(resourceValue, resolvedResources);
+                if (resolvedResources != null) {
+                    resources.addAll(Arrays.asList(resolvedResources));
+                }
+            } catch (Throwable e) {
+                logger.warn("The resource[{}] of PropertySource[name : {}] can't be resolved ahead of parsing, caused by : {}",
+                        resourceValue, propertySourceName, e.getMessage());
+            }
+        }
+
+        int size = resources.size();
+        if (size < 2) {
+            // Nothing to be parallelized
+            return parsedResources;
+        }
+
+        String encoding = extensionAttributes.getEncoding();
+        EncodedResource[] encodedResources = new EncodedResource[size];
+        for (int i = 0; i < size; i++) {
+            encodedResources[i] = new EncodedResource(resources.get(i), encoding);
+        }
+        try {
+            PropertySource<?>[] propertySources = ParallelResourceParser.getDefault()
+                    .parse(doCreatePropertySourceFactory(extensionAttributes), encodedResources);
+            for (int i = 0; i < size; i++) {
+                parsedResources.putPropertySource(resources.get(i), propertySources[i]);
+            }
+        } catch (IOException e) {
+            // The failure will be reported by the sequential parsing
+            logger.warn("The parallel parsing of PropertySource[name : {}] is failed, caused by : {}",
+                    propertySourceName, e.getMessage());
+        }
+        return parsedResources;
+    }
+
+    private PropertySource<?> takeParallelParsed(String name, Resource resource) {
+        for (ParallelParsedResources parsedResources : parallelParsedResources.values()) {
+            PropertySource<?> propertySource = parsedResources.takePropertySource(resource);
+            if (propertySource != null) {
+                return rename(propertySource, name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rename the parsed {@link PropertySource} that is parsed without the name
+     *
+     * @return <code>null</code> if it can't be renamed
+     */
+    private static PropertySource<?> rename(PropertySource<?> propertySource, String name) {
+        if (name == null || name.equals(propertySource.getName())) {
+            return propertySource;
+        } else if (propertySource instanceof ResourcePropertySource) {
+            return ((ResourcePropertySource) propertySource).withName(name);
+        } else if (propertySource instanceof MapPropertySource) {
+            return new MapPropertySource(name, ((MapPropertySource) propertySource).getSource());
+        }
+        return null;
+    }
+
+    private void publishPropertiesChangedEvent(EA extensionAttributes, String propertySourceName,
+                                               PropertySource<?> propertySource) {
+        if (propertySource == null) {
+            return;
+        }
+        synchronized (propertiesSnapshots) {
+            EnumerablePropertySource<?> oldSnapshot = propertiesSnapshots.get(propertySourceName);
+            EnumerablePropertySource<?> newSnapshot = takeSnapshot(extensionAttributes, propertySourceName, propertySource);
+            if (oldSnapshot == null || newSnapshot == null) {
+                return;
+            }
+            PropertiesDiff diff = PropertiesDiff.diff(oldSnapshot, newSnapshot);
+            if (diff.isEmpty() || context == null) {
+                return;
+            }
+            context.publishEvent(diff.toEvent(context, propertySourceName, oldSnapshot));
+        }
+    }
+
+    private EnumerablePropertySource<?> takeSnapshot(EA extensionAttributes, String propertySourceName,
+                                                     PropertySource<?> propertySource) {
+        EnumerablePropertySource<?> snapshot = null;
+        if (extensionAttributes.isOffHeap()) {
+            // The off-heap snapshot keeps the heap footprint independent of the count of keys
+            snapshot = takeOffHeapSnapshot(propertySourceName, propertySource);
+        }
+        if (snapshot == null) {
+            Map<String, Object> properties = getProperties(propertySource);
+            if (properties != null) {
+                snapshot = extensionAttributes.isOffHeap() ? OffHeapPropertySource.of(propertySourceName, properties) :
+                        new MapPropertySource(propertySourceName, properties);
+            }
+        }
+        synchronized (propertiesSnapshots) {
+            if (snapshot == null) {
+                propertiesSnapshots.remove(propertySourceName);
+            } else {
+                propertiesSnapshots.put(propertySourceName, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Take the snapshot that shares the immutable arenas of the {@link OffHeapPropertySource OffHeapPropertySources},
+     * the refreshed resources are parsed into the new arenas, thus nothing is copied
+     *
+     * @return <code>null</code> if any of the sub-sources is not {@link OffHeapPropertySource}
+     */
+    private static EnumerablePropertySource<?> takeOffHeapSnapshot(String propertySourceName, PropertySource<?> propertySource) {
+        PropertySource<?> targetPropertySource = unwrap(propertySource);
+        if (targetPropertySource instanceof OffHeapPropertySource) {
+            return ((OffHeapPropertySource) targetPropertySource).withName(propertySourceName);
+        } else if (targetPropertySource instanceof CompositePropertySource) {
+            CompositePropertySource snapshot = new CompositePropertySource(propertySourceName);
+            for (PropertySource<?> subPropertySource : ((CompositePropertySource) targetPropertySource).getPropertySources()) {
+                if (!(subPropertySource instanceof OffHeapPropertySource)) {
+                    return null;
+                }
+                snapshot.addPropertySource(subPropertySource);
+            }
+            return snapshot;
+        }
+        return null;
+    }
+
+    private static synchronized ScheduledExecutorService getTransactionScheduler() {
+        if (transactionScheduler == null) {
+            transactionScheduler = newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "microsphere-configuration-transaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return transactionScheduler;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.context = applicationContext;
+        Environment environment = applicationContext.getEnvironment();
+        // The snapshots are reported as the footprints of the context
+        PropertySourceFootprintReporter.registerSnapshots(environment, getClass().getSimpleName() + "@"
+                + toHexString(identityHashCode(this)) + ".snapshots", propertiesSnapshots);
+        if (applicationContext instanceof ConfigurableApplicationContext) {
+            ((ConfigurableApplicationContext) applicationContext).addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+                if (event instanceof ContextRefreshedEvent && ((ContextRefreshedEvent) event).getApplicationContext() == applicationContext) {
+                    // The prefetches that no loader has taken are discarded
+                    PropertySourcePrefetchRegistry.remove(applicationContext.getAutowireCapableBeanFactory());
+                } else if (event instanceof ContextClosedEvent && ((ContextClosedEvent) event).getApplicationContext() == applicationContext) {
+                    closeSubscriptions();
+                    PropertySourceFootprintReporter.unregister(environment);
+                    PropertySourcePrefetchRegistry.remove(applicationContext.getAutowireCapableBeanFactory());
+                    HedgedReadGroup.removeGroups(environment);
+                } else if (event instanceof PropertySourcesChangedEvent) {
+                    for (PlaceholderCachingPropertySource placeholderCachingPropertySource : placeholderCachingPropertySources) {
+                        placeholderCachingPropertySource.onApplicationEvent((PropertySourcesChangedEvent) event);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the {@link PropertySourcePrefetchRegistry} of the {@link ApplicationContext}, which is removed when the
+     * context is refreshed or closed
+     *
+     * @return non-null
+     */
+    protected PropertySourcePrefetchRegistry getPrefetchRegistry() {
+        return PropertySourcePrefetchRegistry.get(context.getAutowireCapableBeanFactory());
+    }
+
+    /**
+     * Get the {@link WatchSubscriptionHub} to share the backend watches and fetches in the JVM
+     *
+     * @return non-null
+     */
+    protected WatchSubscriptionHub getWatchSubscriptionHub() {
+        return WatchSubscriptionHub.getDefault();
+    }
+
+    /**
+     * Register the {@link Subscription} of {@link WatchSubscriptionHub}, which will be closed when the
+     * {@link ApplicationContext} is closed
+     *
+     * @param subscription {@link Subscription}
+     */
+    protected void registerSubscription(Subscription subscription) {
+        subscriptions.add(subscription);
+    }
+
+    private void closeSubscriptions() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * The {@link PropertySourceFactory} takes the {@link PropertySource PropertySources} parsed in parallel, the
+     * others, e.g, the refreshed resources, are created by the delegate.
+     */
+    private class ParallelParsedPropertySourceFactory implements PropertySourceFactory {
+
+        private final PropertySourceFactory delegate;
+
+        private ParallelParsedPropertySourceFactory(PropertySourceFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+            PropertySource<?> propertySource = takeParallelParsed(name, resource.getResource());
+            return propertySource == null ? delegate.createPropertySource(name, resource) : propertySource;
+        }
+    }
+
+    /**
+     * The {@link PropertySourceFactory} records the names of nested {@link PropertySource PropertySources} created
+     * during the load of {@link ConfigurationPropertySourceAttributes#isTransactional() transactional}
+     * {@link PropertySource}, which are replaced by the staged resources on commit.
+     */
+    private static class TransactionalPropertySourceFactory implements PropertySourceFactory {
+
+        private final PropertySourceFactory delegate;
+
+        private TransactionalPropertySourceFactory(PropertySourceFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+            PropertySource<?> propertySource = delegate.createPropertySource(name, resource);
+            ConfigurationPropertySourceLoader<?, ?>.Transaction transaction = loadingTransaction.get();
+            if (transaction != null && propertySource != null) {
+                transaction.recordNestedPropertySource(resource.getResource(), propertySource);
+            }
+            return propertySource;
+        }
+    }
+
+    /**
+     * The resources resolved and parsed in parallel for one {@link PropertySource}
+     */
+    private static class ParallelParsedResources {
+
+        private final Map<String, Resource[]> resolvedResources = new HashMap<>();
+
+        /**
+         * The {@link Resource} is identified by the reference that is passed through the base loader
+         */
+        private final Map<Resource, PropertySource<?>> propertySources = new IdentityHashMap<>();
+
+        private synchronized void putResources(String resourceValue, Resource[] resources) {
+            resolvedResources.put(resourceValue, resources);
+        }
+
+        private synchronized boolean isResolved(String resourceValue) {
+            return resolvedResources.containsKey(resourceValue);
+        }
+
+        private synchronized Resource[] getResources(String resourceValue) {
+            return resolvedResources.get(resourceValue);
+        }
+
+        private synchronized void putPropertySource(Resource resource, PropertySource<?> propertySource) {
+            propertySources.put(resource, propertySource);
+        }
+
+        private synchronized PropertySource<?> takePropertySource(Resource resource) {
+            return propertySources.remove(resource);
+        }
+    }
+
+    /**
+     * The transaction stages the changes of one {@link PropertySource} within the window, and then commits them by
+     * replacing the nested {@link PropertySource PropertySources} of the {@link CompositePropertySource}, which is
+     * the shadow hidden behind the index, and then re-indexing the {@link IndexedPropertySource} in one atomic step,
+     * thus the commit publishes the only {@link PropertySourcesChangedEvent}.
+     */
+    private class Transaction {
+
+        private final EA extensionAttributes;
+
+        private final String propertySourceName;
+
+        private final long windowMillis;
+
+        /**
+         * The names of nested {@link PropertySource PropertySources}, the key is the description of {@link Resource}
+         */
+        private final Map<String, String> nestedPropertySourceNames = new HashMap<>();
+
+        /**
+         * The staged resources, the key is the resource value, the latest one wins
+         */
+        private final Map<String, Resource> stagedResources = new LinkedHashMap<>();
+
+        private CompositePropertySource compositePropertySource;
+
+        private ScheduledFuture<?> pendingCommit;
+
+        private Transaction(EA extensionAttributes, String propertySourceName) {
+            this.extensionAttributes = extensionAttributes;
+            this.propertySourceName = propertySourceName;
+            this.windowMillis = extensionAttributes.getTransactionWindowMillis();
+        }
+
+        private synchronized void schedule() {
+            if (windowMillis < 1) {
+                commit();
+            } else if (pendingCommit == null) {
+                pendingCommit = getTransactionScheduler().schedule(this::commit, windowMillis, MILLISECONDS);
+            }
+        }
+
+        private synchronized void recordNestedPropertySource(Resource resource, PropertySource<?> propertySource) {
+            nestedPropertySourceNames.put(resource.getDescription(), propertySource.getName());
+        }
+
+        private synchronized void bind(PropertySource<?> propertySource) {
+            if (propertySource instanceof CompositePropertySource) {
+                this.compositePropertySource = (CompositePropertySource) propertySource;
+            }
+        }
+
+        private synchronized void stage(String resourceValue, Resource resource) {
+            stagedResources.put(resourceValue, resource);
+        }
+
+        private synchronized void commit() {
+            pendingCommit = null;
+            if (!stagedResources.isEmpty()) {
+                List<Map.Entry<String, Resource>> entries = new ArrayList<>(stagedResources.entrySet());
+                stagedResources.clear();
+                for (Map.Entry<String, Resource> entry : entries) {
+                    commitResource(entry.getKey(), entry.getValue());
+                }
+            }
+            apply(extensionAttributes, propertySourceName);
+        }
+
+        private void commitResource(String resourceValue, Resource resource) {
+            long startTime = nanoTime();
+            boolean succeeded = false;
+            try {
+                if (!replaceNestedPropertySource(resource)) {
+                    // The resource is absent in the load, e.g, the new key of etcd prefix, it's added rather than
+                    // refreshed by the refresher, which would publish the events of the partial transaction
+                    addNestedPropertySource(resource);
+                }
+                succeeded = true;
+                recordPayload(propertySourceName, resourceValue, resource);
+            } catch (Throwable e) {
+                logger.error("The staged resource[{}] of PropertySource[name : {}] can't be committed", resourceValue,
+                        propertySourceName, e);
+            } finally {
+                metrics.recordRefresh(getBackend(), propertySourceName, resourceValue, nanoTime() - startTime, succeeded);
+            }
+        }
+
+        private boolean replaceNestedPropertySource(Resource resource) throws IOException {
+            String nestedName = nestedPropertySourceNames.get(resource.getDescription());
+            if (compositePropertySource == null || nestedName == null) {
+                return false;
+            }
+            Collection<PropertySource<?>> nestedPropertySources = compositePropertySource.getPropertySources();
+            List<PropertySource<?>> propertySources = new ArrayList<>(nestedPropertySources);
+            int index = -1;
+            for (int i = 0; i < propertySources.size(); i++) {
+                if (nestedName.equals(propertySources.get(i).getName())) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            PropertySource<?> propertySource = doCreatePropertySourceFactory(extensionAttributes)
+                    .createPropertySource(nestedName, new EncodedResource(resource, extensionAttributes.getEncoding()));
+            propertySources.set(index, propertySource);
+            // The readers are isolated by the index until the commit re-indexes
+            nestedPropertySources.clear();
+            nestedPropertySources.addAll(propertySources);
+            return true;
+        }
+
+        private void addNestedPropertySource(Resource resource) throws IOException {
+            if (compositePropertySource == null) {
+                throw new IllegalStateException("The PropertySource[name : " + propertySourceName
+                        + "] is not composite, the resource[" + resource.getDescription() + "] can't be added");
+            }
+            String nestedName = resource.getDescription();
+            PropertySource<?> propertySource = doCreatePropertySourceFactory(extensionAttributes)
+                    .createPropertySource(nestedName, new EncodedResource(resource, extensionAttributes.getEncoding()));
+            // The new resource follows the loaded ones, and then it's replaced by the later changes
+            compositePropertySource.addPropertySource(propertySource);
+            nestedPropertySourceNames.put(nestedName, propertySource.getName());
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import io.microsphere.logging.Logger;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
+import static io.microsphere.logging.LoggerFactory.getLogger;
+import static java.util.Collections.synchronizedMap;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The group of the redundant configuration backends mirroring the same configuration, e.g, etcd and Zookeeper,
+ * which are declared by the annotations with the same {@link ConfigurationPropertySourceAttributes#getHedgeGroup()
+ * hedge group}. The member of the lowest {@link ConfigurationPropertySourceAttributes#getHedgeOrder() order} is the
+ * primary that loads the {@link org.springframework.core.env.PropertySource}, the others are the read replicas.
+ * <p>
+ * The {@link #read(String, long) hedged read} is issued to the primary first, if it has not answered within the
+ * hedge delay, the read is issued to the next member, and so on, the first valid response wins :
+ * <ul>
+ *     <li>The resources are present</li>
+ *     <li>The version is not older than the one accepted from the same member before, e.g, the lagging Zookeeper
+ *     follower after the reconnection is rejected</li>
+ * </ul>
+ * The failed, stale or absent response issues the read to the next member immediately, the resources are absent
+ * only if none of the answered members has them. The versions of the different
+ * backends are not comparable, e.g, the etcd revision and the Zookeeper zxid, thus they are checked per member.
+ * <p>
+ * The members are registered by the {@link PropertySourcePrefetcher PropertySourcePrefetchers} before any loader, and
+ * are identified by their unique names, the groups are scoped by the {@link Environment} of context, which are
+ * {@link #removeGroups(Environment) removed} when the context is closed. The group is {@link #resolve() resolved} by the first loader of its members, which decides
+ * the primary, thus all members must be declared on the same class, whose annotations are prefetched together before
+ * their loaders, or on the classes registered before the context is refreshed. The member declared after the
+ * resolution, e.g, on the class discovered by the component scanning later, is rejected rather than becoming
+ * another primary.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigurationPropertySourceLoader
+ * @see PropertySourcePrefetcher
+ * @since 1.0.0
+ */
+public class HedgedReadGroup {
+
+    private static final Logger logger = getLogger(HedgedReadGroup.class);
+
+    /**
+     * The groups per {@link Environment} of context, the key of nested map is the name of group
+     */
+    private static final Map<Environment, ConcurrentMap<String, HedgedReadGroup>> groups = synchronizedMap(new WeakHashMap<>());
+
+    private static ScheduledExecutorService hedgeScheduler;
+
+    private final String name;
+
+    private volatile List<Member> members = new ArrayList<>();
+
+    private volatile boolean resolved;
+
+    /**
+     * The names of members declared more than once
+     */
+    private final Set<String> duplicatedMemberNames = new CopyOnWriteArraySet<>();
+
+    /**
+     * The versions accepted from the members, the key is the member name and resource value
+     */
+    private final ConcurrentMap<String, Long> acceptedVersions = new ConcurrentHashMap<>();
+
+    HedgedReadGroup(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get or create the group of the context
+     *
+     * @param environment the {@link Environment} of context
+     * @param name        the name of group
+     * @return non-null
+     */
+    public static HedgedReadGroup getGroup(Environment environment, String name) {
+        return groups.computeIfAbsent(environment, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, HedgedReadGroup::new);
+    }
+
+    /**
+     * Find the group of the context
+     *
+     * @param environment the {@link Environment} of context
+     * @param name        the name of group
+     * @return <code>null</code> if not found
+     */
+    public static HedgedReadGroup findGroup(Environment environment, String name) {
+        Map<String, HedgedReadGroup> contextGroups = groups.get(environment);
+        return contextGroups == null ? null : contextGroups.get(name);
+    }
+
+    /**
+     * Remove the groups of the context
+     *
+     * @param environment the {@link Environment} of context
+     */
+    public static void removeGroups(Environment environment) {
+        groups.remove(environment);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Register the member
+     *
+     * @param memberName the unique name of member, e.g, the name of {@link org.springframework.core.env.PropertySource}
+     * @param order      the order of member, the lower is prior
+     * @param reader     the {@link Reader} of member
+     * @throws IllegalArgumentException if the name of member is blank
+     * @throws IllegalStateException    if the member has been registered, or the group has been
+     *                                  {@link #resolve() resolved}
+     */
+    public synchronized void register(String memberName, int order, Reader reader) throws IllegalArgumentException,
+            IllegalStateException {
+        if (!StringUtils.hasText(memberName)) {
+            throw new IllegalArgumentException("The name of member is required by the hedge group[" + name + "]");
+        }
+        if (contains(memberName)) {
+            // The unnamed or the same named members must not replace each other silently
+            duplicatedMemberNames.add(memberName);
+            throw new IllegalStateException("The member[" + memberName + "] of hedge group[" + name + "] is duplicated");
+        }
+        if (resolved) {
+            throw new IllegalStateException("The hedge group[" + name + "] has been resolved, the member[" + memberName
+                    + "] must be declared on the same class as the others");
+        }
+        List<Member> members = new ArrayList<>(this.members);
+        // The stable sort keeps the registration order for the ties
+        members.add(new Member(memberName, order, reader));
+        members.sort((one, another) -> Integer.compare(one.order, another.order));
+        this.members = members;
+    }
+
+    /**
+     * Resolve the group, no member can be added since then
+     */
+    public void resolve() {
+        this.resolved = true;
+    }
+
+    /**
+     * Check the member is registered uniquely
+     *
+     * @param memberName the name of member
+     * @throws IllegalStateException if the member is not registered, e.g, declared after the group was
+     *                               {@link #resolve() resolved}, or is duplicated
+     */
+    public void checkMember(String memberName) throws IllegalStateException {
+        if (duplicatedMemberNames.contains(memberName)) {
+            throw new IllegalStateException("The member[" + memberName + "] of hedge group[" + name
+                    + "] is duplicated, the members must be named uniquely");
+        }
+        if (!contains(memberName)) {
+            throw new IllegalStateException("The member[" + memberName + "] of hedge group[" + name
+                    + "] is declared after the group was resolved, the members must be declared on the same class");
+        }
+    }
+
+    /**
+     * Is the specified member registered or not
+     *
+     * @param memberName the name of member
+     * @return <code>true</code> if registered
+     */
+    public boolean contains(String memberName) {
+        for (Member member : members) {
+            if (member.name.equals(memberName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the count of members
+     */
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Is the specified member the primary or not
+     *
+     * @param memberName the name of member
+     * @return <code>true</code> if it's the primary or not registered
+     */
+    public boolean isPrimary(String memberName) {
+        List<Member> members = this.members;
+        if (members.isEmpty()) {
+            return true;
+        }
+        for (Member member : members) {
+            if (member.name.equals(memberName)) {
+                return member == members.get(0);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the resources of the resource value from the members with hedging
+     *
+     * @param resourceValue    the resource value, e.g, the etcd key or Zookeeper path, which is the same in the
+     *                         members
+     * @param hedgeDelayMillis the delay in milliseconds to issue the read to the next member
+     * @return the future of the first valid {@link VersionedResources}, it's completed with <code>null</code> if
+     * none of the members has the resources, or completed exceptionally if all reads are failed
+     */
+    public CompletableFuture<VersionedResources> read(String resourceValue, long hedgeDelayMillis) {
+        List<Member> members = this.members;
+        if (members.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HedgedRead hedgedRead = new HedgedRead(members, resourceValue);
+        hedgedRead.issueNext();
+        for (int i = 1; i < hedgedRead.members.size(); i++) {
+            getHedgeScheduler().schedule(() -> {
+                if (!hedgedRead.result.isDone()) {
+                    hedgedRead.issueNext();
+                }
+            }, hedgeDelayMillis * i, MILLISECONDS);
+        }
+        return hedgedRead.result;
+    }
+
+    private boolean isStale(Member member, String resourceValue, long version) {
+        if (version == UNKNOWN) {
+            return false;
+        }
+        Long acceptedVersion = acceptedVersions.get(buildVersionKey(member, resourceValue));
+        return acceptedVersion != null && acceptedVersion > version;
+    }
+
+    private void accept(Member member, String resourceValue, long version) {
+        if (version != UNKNOWN) {
+            acceptedVersions.merge(buildVersionKey(member, resourceValue), version, Math::max);
+        }
+    }
+
+    private static String buildVersionKey(Member member, String resourceValue) {
+        return member.name + "@" + resourceValue;
+    }
+
+    private static boolean isEmpty(Resource[] resources) {
+        return resources == null || resources.length == 0;
+    }
+
+    private static synchronized ScheduledExecutorService getHedgeScheduler() {
+        if (hedgeScheduler == null) {
+            hedgeScheduler = newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "microsphere-configuration-hedge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return hedgeScheduler;
+    }
+
+    /**
+     * The reader of member
+     */
+    @FunctionalInterface
+    public interface Reader {
+
+        /**
+         * Read the resources asynchronously, this method should not block
+         *
+         * @param resourceValue the resource value, e.g, the etcd key or Zookeeper path
+         * @return the future of {@link VersionedResources}, whose resources are <code>null</code> if not found
+         * @throws Exception if the read can't be issued
+         */
+        CompletableFuture<VersionedResources> read(String resourceValue) throws Exception;
+    }
+
+    /**
+     * The resources with the version of backend, the {@link io.microsphere.configuration.metrics.ChangeTrace#UNKNOWN
+     * unknown} version is always accepted
+     */
+    public static class VersionedResources {
+
+        private final Resource[] resources;
+
+        private final long version;
+
+        public VersionedResources(Resource[] resources, long version) {
+            this.resources = resources;
+            this.version = version;
+        }
+
+        /**
+         * @return <code>null</code> if not found
+         */
+        public Resource[] getResources() {
+            return resources;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    private static class Member {
+
+        private final String name;
+
+        private final int order;
+
+        private final Reader reader;
+
+        private Member(String name, int order, Reader reader) {
+            this.name = name;
+            this.order = order;
+            this.reader = reader;
+        }
+    }
+
+    private class HedgedRead {
+
+        private final List<Member> members;
+
+        private final String resourceValue;
+
+        private final CompletableFuture<VersionedResources> result = new CompletableFuture<>();
+
+        private final AtomicInteger issued = new AtomicInteger();
+
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private volatile Throwable failure;
+
+        private volatile boolean absent;
+
+        private HedgedRead(List<Member> members, String resourceValue) {
+            this.members = members;
+            this.resourceValue = resourceValue;
+        }
+
+        private void issueNext() {
+            int index = issued.getAndIncrement();
+            if (index >= members.size()) {
+                return;
+            }
+            Member member = members.get(index);
+            CompletableFuture<VersionedResources> future;
+            try {
+                future = member.reader.read(resourceValue);
+            } catch (Throwable e) {
+                onFailed(member, e);
+                return;
+            }
+            future.whenComplete((versionedResources, e) -> {
+                if (e != null) {
+                    onFailed(member, e);
+                } else if (versionedResources == null || isEmpty(versionedResources.getResources())) {
+                    absent = true;
+                    onCompleted();
+                } else if (isStale(member, resourceValue, versionedResources.getVersion())) {
+                    onFailed(member, new IllegalStateException("The stale version : " + versionedResources.getVersion()));
+                } else if (result.complete(versionedResources)) {
+                    // Only the version of winner is accepted, the losers may be compared with their own later
+                    accept(member, resourceValue, versionedResources.getVersion());
+                }
+            });
+        }
+
+        private void onFailed(Member member, Throwable e) {
+            logger.warn("The read of resource[{}] from the member[{}] of hedge group[{}] is failed, caused by : {}",
+                    resourceValue, member.name, name, e.getMessage());
+            failure = e;
+            onCompleted();
+        }
+
+        private void onCompleted() {
+            if (completed.incrementAndGet() == members.size()) {
+                if (absent) {
+                    // None of the answered members has the resources
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            } else if (!result.isDone()) {
+                // Fail fast to the next member without waiting for the hedge delay
+                issueNext();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import io.microsphere.configuration.concurrent.ConfigurationExecutors;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import static io.microsphere.configuration.concurrent.ConfigurationExecutors.newExecutor;
+import static java.lang.Integer.getInteger;
+import static java.util.Collections.synchronizedMap;
+
+/**
+ * The registry of the prefetched configuration, the fetches are started by the {@link PropertySourcePrefetcher}
+ * when the annotations are parsed, and then the loaders {@link #take(String, String) take} the futures, thus the
+ * total time of loading becomes the maximum latency of the backends instead of the sum.
+ * <p>
+ * Each future is taken once, the refreshed configuration after startup is delivered by the watchers of backends.
+ * The registries are {@link #get(BeanFactory) scoped} by the {@link BeanFactory BeanFactories}, and are
+ * {@link #remove(BeanFactory) removed} with the futures that no loader has taken when the context is refreshed or
+ * closed, thus the prefetched results are neither leaked nor served to another context later.
+ * The blocking fetches are executed on a bounded pool whose size could be configured by the System Property
+ * {@link #THREADS_PROPERTY_NAME "microsphere.configuration.prefetch.threads"}, the idle threads will be terminated,
+ * or on the virtual threads if {@link ConfigurationExecutors#isVirtualThreadsEnabled() enabled}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourcePrefetcher
+ * @see PropertySourcePrefetchSelector
+ * @see ConfigurationExecutors
+ * @since 1.0.0
+ */
+public class PropertySourcePrefetchRegistry {
+
+    /**
+     * The System Property name of the maximum threads executing the blocking fetches
+     */
+    public static final String THREADS_PROPERTY_NAME = "microsphere.configuration.prefetch.threads";
+
+    public static final int DEFAULT_THREADS = 4;
+
+    private static final String THREAD_NAME_PREFIX = "microsphere-configuration-prefetch-";
+
+    private static final PropertySourcePrefetchRegistry DEFAULT = new PropertySourcePrefetchRegistry(
+            getInteger(THREADS_PROPERTY_NAME, DEFAULT_THREADS));
+
+    /**
+     * The registries per {@link BeanFactory}, which share the executor of the {@link #getDefault() default instance}
+     */
+    private static final Map<BeanFactory, PropertySourcePrefetchRegistry> registries = synchronizedMap(new WeakHashMap<>());
+
+    private final ConcurrentMap<String, CompletableFuture<?>> futures = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    public PropertySourcePrefetchRegistry(int threads) {
+        this(newExecutor(THREAD_NAME_PREFIX, checkThreads(threads)));
+    }
+
+    private PropertySourcePrefetchRegistry(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    private static int checkThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The threads must be positive : " + threads);
+        }
+        return threads;
+    }
+
+    /**
+     * Get the default instance whose executor is shared by the registries of {@link BeanFactory BeanFactories}
+     *
+     * @return non-null
+     */
+    public static PropertySourcePrefetchRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get or create the registry of the {@link BeanFactory}
+     *
+     * @param beanFactory {@link BeanFactory}
+     * @return non-null
+     */
+    public static PropertySourcePrefetchRegistry get(BeanFactory beanFactory) {
+        return registries.computeIfAbsent(beanFactory, key -> new PropertySourcePrefetchRegistry(DEFAULT.executor));
+    }
+
+    /**
+     * Remove the registry of the {@link BeanFactory} with the futures that have not been taken, which are discarded
+     * rather than cancelled, since they may be shared with the in-flight fetches of the other contexts, e.g, by
+     * {@link io.microsphere.configuration.watch.WatchSubscriptionHub#fetch}
+     *
+     * @param beanFactory {@link BeanFactory}
+     */
+    public static void remove(BeanFactory beanFactory) {
+        PropertySourcePrefetchRegistry registry = registries.remove(beanFactory);
+        if (registry != null) {
+            registry.futures.clear();
+        }
+    }
+
+    /**
+     * Prefetch by the blocking task that will be executed asynchronously, the task will be ignored if the
+     * prefetch with the same backend and key has been registered.
+     *
+     * @param backend the name of configuration backend, e.g, "etcd"
+     * @param key     the key of prefetch within the backend
+     * @param task    the blocking task
+     * @param <T>     the type of result
+     * @return the registered future
+     */
+    public <T> CompletableFuture<T> prefetch(String backend, String key, Callable<T> task) {
+        return register(backend, key, () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Register the future supplied by the non-blocking backend client, the supplier will not be invoked if the
+     * prefetch with the same backend and key has been registered.
+     *
+     * @param backend        the name of configuration backend, e.g, "etcd"
+     * @param key            the key of prefetch within the backend
+     * @param futureSupplier the supplier of future
+     * @param <T>            the type of result
+     * @return the registered future
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> register(String backend, String key, Supplier<CompletableFuture<T>> futureSupplier) {
+        return (CompletableFuture<T>) futures.computeIfAbsent(buildId(backend, key), id -> futureSupplier.get());
+    }
+
+    /**
+     * Take the prefetched future, which will be removed from this registry
+     *
+     * @param backend the name of configuration backend, e.g, "etcd"
+     * @param key     the key of prefetch within the backend
+     * @param <T>     the type of result
+     * @return the prefetched future if present, or <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> take(String backend, String key) {
+        return (CompletableFuture<T>) futures.remove(buildId(backend, key));
+    }
+
+    /**
+     * @return the count of the registered prefetches that have not been taken
+     */
+    public int size() {
+        return futures.size();
+    }
+
+    /**
+     * Cancel and remove all registered prefetches
+     */
+    public void clear() {
+        futures.values().forEach(future -> future.cancel(true));
+        futures.clear();
+    }
+
+    private static String buildId(String backend, String key) {
+        return backend + ":" + key;
+    }
+}
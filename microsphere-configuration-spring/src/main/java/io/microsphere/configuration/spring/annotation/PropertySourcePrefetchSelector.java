@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import io.microsphere.logging.Logger;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportSelector;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static io.microsphere.logging.LoggerFactory.getLogger;
+
+/**
+ * The {@link ImportSelector} starts the prefetches for the configuration annotations by the
+ * {@link PropertySourcePrefetcher PropertySourcePrefetchers}, it imports nothing.
+ * <p>
+ * The annotations should import this class prior to their loaders, e.g,
+ * <code>@Import({PropertySourcePrefetchSelector.class, EtcdPropertySourceLoader.class})</code>. When it's selected
+ * for the first time in a {@link BeanFactory}, the annotations declared on all configuration classes registered by
+ * then, e.g, by <code>AnnotationConfigApplicationContext#register</code>, are collected and prefetched together, thus
+ * the fetches declared on the different classes overlap before any loader runs. The classes discovered later, e.g,
+ * by the component scanning or the nested imports, are prefetched when their own imports are processed, right
+ * before their loaders. Each class is prefetched once per {@link BeanFactory}.
+ * <p>
+ * The prefetch is the best effort, the failures are logged and the loaders will fetch the configuration by
+ * themselves. The prefetches are registered into the {@link PropertySourcePrefetchRegistry#get(BeanFactory) registry}
+ * of the {@link BeanFactory}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourcePrefetcher
+ * @see PropertySourcePrefetchRegistry
+ * @since 1.0.0
+ */
+public class PropertySourcePrefetchSelector implements ImportSelector, EnvironmentAware, BeanClassLoaderAware,
+        BeanFactoryAware {
+
+    private static final Logger logger = getLogger(PropertySourcePrefetchSelector.class);
+
+    private static final String[] NO_IMPORTS = new String[0];
+
+    /**
+     * The names of the prefetched classes per {@link BeanFactory}
+     */
+    private static final Map<BeanFactory, Set<String>> prefetchedClassNames = new WeakHashMap<>();
+
+    private ConfigurableEnvironment environment;
+
+    private ClassLoader classLoader;
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public String[] selectImports(AnnotationMetadata metadata) {
+        List<PropertySourcePrefetcher> prefetchers = new ArrayList<>();
+        for (PropertySourcePrefetcher prefetcher : ServiceLoader.load(PropertySourcePrefetcher.class, classLoader)) {
+            prefetchers.add(prefetcher);
+        }
+        for (AnnotationMetadata candidate : collectCandidates(metadata)) {
+            prefetch(candidate, prefetchers);
+        }
+        return NO_IMPORTS;
+    }
+
+    /**
+     * Collect the metadata of the classes to be prefetched, the registered configuration classes are collected
+     * along with the importing class for the first time
+     */
+    private List<AnnotationMetadata> collectCandidates(AnnotationMetadata metadata) {
+        List<AnnotationMetadata> candidates = new ArrayList<>();
+        synchronized (prefetchedClassNames) {
+            boolean initial = !prefetchedClassNames.containsKey(beanFactory);
+            Set<String> classNames = prefetchedClassNames.computeIfAbsent(beanFactory, key -> new HashSet<>());
+            if (classNames.add(metadata.getClassName())) {
+                candidates.add(metadata);
+            }
+            if (initial && beanFactory instanceof ConfigurableListableBeanFactory) {
+                ConfigurableListableBeanFactory listableBeanFactory = (ConfigurableListableBeanFactory) beanFactory;
+                for (String beanName : listableBeanFactory.getBeanDefinitionNames()) {
+                    BeanDefinition beanDefinition = listableBeanFactory.getBeanDefinition(beanName);
+                    if (beanDefinition instanceof AnnotatedBeanDefinition) {
+                        AnnotationMetadata registeredMetadata = ((AnnotatedBeanDefinition) beanDefinition).getMetadata();
+                        if (classNames.add(registeredMetadata.getClassName())) {
+                            candidates.add(registeredMetadata);
+                        }
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void prefetch(AnnotationMetadata metadata, List<PropertySourcePrefetcher> prefetchers) {
+        for (PropertySourcePrefetcher prefetcher : prefetchers) {
+            String annotationClassName = prefetcher.getAnnotationType().getName();
+            Map<String, Object> attributes = metadata.getAnnotationAttributes(annotationClassName);
+            if (attributes == null) {
+                continue;
+            }
+            try {
+                prefetcher.prefetch(AnnotationAttributes.fromMap(attributes), environment, PropertySourcePrefetchRegistry.get(beanFactory));
+            } catch (Throwable e) {
+                logger.warn("The prefetch for @{} on the class[{}] is failed, caused by : {}",
+                        annotationClassName, metadata.getClassName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = (ConfigurableEnvironment) environment;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+}
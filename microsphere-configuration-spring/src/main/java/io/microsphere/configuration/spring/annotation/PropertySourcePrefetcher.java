@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * The SPI to start fetching the remote configuration declared by the annotation as early as the annotation is parsed,
+ * the results are registered into the {@link PropertySourcePrefetchRegistry} and consumed by the loaders later.
+ * <p>
+ * The implementations are loaded by {@link java.util.ServiceLoader} from
+ * "META-INF/services/io.microsphere.configuration.spring.annotation.PropertySourcePrefetcher".
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourcePrefetchSelector
+ * @see PropertySourcePrefetchRegistry
+ * @since 1.0.0
+ */
+public interface PropertySourcePrefetcher {
+
+    /**
+     * The type of annotation to be prefetched
+     *
+     * @return non-null
+     */
+    Class<? extends Annotation> getAnnotationType();
+
+    /**
+     * Start the asynchronous fetches for the annotation, this method should not block.
+     *
+     * @param annotationAttributes the attributes of {@link #getAnnotationType() annotation}
+     * @param environment          {@link ConfigurableEnvironment}
+     * @param registry             {@link PropertySourcePrefetchRegistry}
+     * @throws Throwable if any error occurs
+     */
+    void prefetch(AnnotationAttributes annotationAttributes, ConfigurableEnvironment environment,
+                  PropertySourcePrefetchRegistry registry) throws Throwable;
+}
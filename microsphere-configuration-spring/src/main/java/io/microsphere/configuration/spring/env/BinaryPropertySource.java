@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The immutable {@link EnumerablePropertySource} maps the properties in the compact binary format directly, no
+ * parsing and flattening are required, the property is looked up by the binary search on the sorted key table, and
+ * the value is decoded on each lookup.
+ * <p>
+ * The binary format (big-endian) :
+ * <pre>
+ * +--------------------------------------------------------------------------------+
+ * | Header   : magic "MSPB" (4) | version (1) | reserved (3) | count (4) | data length (4) |
+ * | Index    : the offsets of entries in the data section (4 * count), sorted by the key bytes |
+ * | Data     : entries [key length (4)][key UTF-8 bytes][type (1)][value length (4)][value bytes] |
+ * | Checksum : the CRC32 of all bytes above (4)                                        |
+ * +--------------------------------------------------------------------------------+
+ * </pre>
+ * The types of value : {@link #STRING} (UTF-8 bytes), {@link #BOOLEAN} (1 byte), {@link #INT} (4 bytes),
+ * {@link #LONG} (8 bytes) and {@link #DOUBLE} (8 bytes).
+ * <p>
+ * The binary content could be {@link #encode(Map) encoded} by the converter tool
+ * ({@link io.microsphere.configuration.spring.env.support.BinaryPropertiesConverter}) from the JSON, YAML and
+ * Properties files.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see io.microsphere.configuration.spring.env.support.BinaryPropertySourceFactory
+ * @see OffHeapPropertySource
+ * @since 1.0.0
+ */
+public class BinaryPropertySource extends EnumerablePropertySource<ByteBuffer> {
+
+    /**
+     * The magic number : "MSPB"
+     */
+    public static final int MAGIC = 0x4D535042;
+
+    /**
+     * The version of binary format
+     */
+    public static final byte VERSION = 1;
+
+    public static final byte STRING = 0;
+
+    public static final byte BOOLEAN = 1;
+
+    public static final byte INT = 2;
+
+    public static final byte LONG = 3;
+
+    public static final byte DOUBLE = 4;
+
+    private static final int INT_BYTES = 4;
+
+    private static final int HEADER_BYTES = 16;
+
+    private static final String[] EMPTY_PROPERTY_NAMES = new String[0];
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    private final int indexOffset;
+
+    private final int dataOffset;
+
+    private BinaryPropertySource(String name, ByteBuffer buffer, int size) {
+        super(name, buffer);
+        this.buffer = buffer;
+        this.size = size;
+        this.indexOffset = HEADER_BYTES;
+        this.dataOffset = HEADER_BYTES + size * INT_BYTES;
+    }
+
+    /**
+     * Map the binary content, the header and checksum are verified
+     *
+     * @param name   the name of {@link PropertySource}
+     * @param buffer the binary content from the position to the limit, which should not be modified later
+     * @return non-null
+     * @throws IllegalArgumentException if the content is not in the binary format or corrupted
+     */
+    public static BinaryPropertySource of(String name, ByteBuffer buffer) throws IllegalArgumentException {
+        ByteBuffer content = buffer.slice();
+        int length = content.remaining();
+        if (!isBinary(content)) {
+            throw new IllegalArgumentException("The content is not in the binary property format");
+        }
+        byte version = content.get(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("The unsupported version of binary property format : " + version);
+        }
+        int size = content.getInt(8);
+        int dataLength = content.getInt(12);
+        long expectedLength = (long) HEADER_BYTES + (long) size * INT_BYTES + dataLength + INT_BYTES;
+        if (size < 0 || dataLength < 0 || expectedLength != length) {
+            throw new IllegalArgumentException("The binary property content is truncated or corrupted, length : "
+                    + length + " , expected : " + expectedLength);
+        }
+        int checksum = content.getInt(length - INT_BYTES);
+        if (checksum != checksum(content, length - INT_BYTES)) {
+            throw new IllegalArgumentException("The checksum of binary property content is mismatched");
+        }
+        return new BinaryPropertySource(name, content.asReadOnlyBuffer(), size);
+    }
+
+    /**
+     * Is the content in the binary format or not, only the magic number is checked
+     *
+     * @param buffer the content from the position
+     * @return <code>true</code> if the magic number is matched
+     */
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_BYTES + INT_BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Encode the properties in the binary format
+     *
+     * @param properties the properties, the <code>null</code> values are ignored
+     * @return the binary content
+     */
+    public static byte[] encode(Map<String, ?> properties) {
+        List<Entry> entries = new ArrayList<>(properties.size());
+        long dataBytes = 0;
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            Object value = property.getValue();
+            if (value != null) {
+                Entry entry = new Entry(property.getKey(), value);
+                entries.add(entry);
+                dataBytes += INT_BYTES + entry.key.length + 1 + INT_BYTES + entry.value.length;
+            }
+        }
+        entries.sort((a, b) -> compare(a.key, b.key));
+
+        int size = entries.size();
+        long totalBytes = HEADER_BYTES + (long) size * INT_BYTES + dataBytes + INT_BYTES;
+        if (totalBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The properties are too large to be encoded : " + totalBytes + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) totalBytes);
+        buffer.putInt(MAGIC).put(VERSION).put(new byte[3]).putInt(size).putInt((int) dataBytes);
+        int offset = 0;
+        for (Entry entry : entries) {
+            buffer.putInt(offset);
+            offset += INT_BYTES + entry.key.length + 1 + INT_BYTES + entry.value.length;
+        }
+        for (Entry entry : entries) {
+            buffer.putInt(entry.key.length).put(entry.key).put(entry.type).putInt(entry.value.length).put(entry.value);
+        }
+        buffer.putInt(checksum(buffer, buffer.position()));
+        return buffer.array();
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        int offset = find(name);
+        if (offset < 0) {
+            return null;
+        }
+        int typeOffset = offset + INT_BYTES + buffer.getInt(offset);
+        byte type = buffer.get(typeOffset);
+        int valueOffset = typeOffset + 1 + INT_BYTES;
+        switch (type) {
+            case BOOLEAN:
+                return buffer.get(valueOffset) != 0;
+            case INT:
+                return buffer.getInt(valueOffset);
+            case LONG:
+                return buffer.getLong(valueOffset);
+            case DOUBLE:
+                return buffer.getDouble(valueOffset);
+            default:
+                return readString(typeOffset + 1);
+        }
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return find(name) > -1;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        if (size == 0) {
+            return EMPTY_PROPERTY_NAMES;
+        }
+        String[] propertyNames = new String[size];
+        for (int i = 0; i < size; i++) {
+            propertyNames[i] = readString(entryOffset(i));
+        }
+        return propertyNames;
+    }
+
+    /**
+     * @return the count of properties
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the offset of entry by the binary search
+     *
+     * @param name the name of property
+     * @return the offset if found, or <code>-1</code>
+     */
+    private int find(String name) {
+        if (name == null || size == 0) {
+            return -1;
+        }
+        byte[] key = name.getBytes(UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = entryOffset(middle);
+            int result = compare(offset, key);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private int entryOffset(int index) {
+        return dataOffset + buffer.getInt(indexOffset + index * INT_BYTES);
+    }
+
+    private int compare(int offset, byte[] key) {
+        int keyLength = buffer.getInt(offset);
+        int start = offset + INT_BYTES;
+        int length = Math.min(keyLength, key.length);
+        for (int i = 0; i < length; i++) {
+            int result = (buffer.get(start + i) & 0xff) - (key[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return keyLength - key.length;
+    }
+
+    private String readString(int offset) {
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset + INT_BYTES);
+        duplicate.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc32 = new CRC32();
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(0).limit(length);
+        crc32.update(duplicate);
+        return (int) crc32.getValue();
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int result = (a[i] & 0xff) - (b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static class Entry {
+
+        private final byte[] key;
+
+        private final byte type;
+
+        private final byte[] value;
+
+        private Entry(String key, Object value) {
+            this.key = key.getBytes(UTF_8);
+            if (value instanceof Boolean) {
+                this.type = BOOLEAN;
+                this.value = new byte[]{(byte) (((Boolean) value) ? 1 : 0)};
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                this.type = INT;
+                this.value = ByteBuffer.allocate(INT_BYTES).putInt(((Number) value).intValue()).array();
+            } else if (value instanceof Long) {
+                this.type = LONG;
+                this.value = ByteBuffer.allocate(8).putLong((Long) value).array();
+            } else if (value instanceof Double || value instanceof Float) {
+                this.type = DOUBLE;
+                this.value = ByteBuffer.allocate(8).putDouble(((Number) value).doubleValue()).array();
+            } else {
+                this.type = STRING;
+                this.value = String.valueOf(value).getBytes(UTF_8);
+            }
+        }
+    }
+}
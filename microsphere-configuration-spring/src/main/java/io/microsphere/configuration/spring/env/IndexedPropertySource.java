@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.microsphere.configuration.spring.env.PropertySourceUtils.mergeProperties;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * The {@link EnumerablePropertySource} exposes a pre-merged and immutable hash index of the delegated
+ * {@link PropertySource}, e.g, the {@link CompositePropertySource} whose sub-sources are loaded from
+ * the etcd keys or Zookeeper paths, thus the property lookup is constant-time regardless of the count of
+ * sub-sources.
+ * <p>
+ * The precedence of the delegated {@link PropertySource} is preserved, that is the property of the former
+ * sub-source wins. The index will be rebuilt and swapped atomically by {@link #refresh()}.
+ * <p>
+ * If the delegated {@link PropertySource} or one of its sub-sources is not {@link EnumerablePropertySource enumerable},
+ * the index can't be built, the lookup falls back to the delegated {@link PropertySource}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see CompositePropertySource
+ * @see EnumerablePropertySource
+ * @since 1.0.0
+ */
+public class IndexedPropertySource extends EnumerablePropertySource<PropertySource<?>> {
+
+    private static final String[] EMPTY_PROPERTY_NAMES = new String[0];
+
+    private volatile Index index;
+
+    public IndexedPropertySource(PropertySource<?> delegate) {
+        super(delegate.getName(), delegate);
+        refresh();
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Index index = this.index;
+        if (index.indexed) {
+            return index.properties.get(name);
+        }
+        return getSource().getProperty(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        Index index = this.index;
+        if (index.indexed) {
+            return index.properties.containsKey(name);
+        }
+        return getSource().containsProperty(name);
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        Index index = this.index;
+        if (index.indexed) {
+            return index.propertyNames.clone();
+        }
+        PropertySource<?> source = getSource();
+        if (source instanceof EnumerablePropertySource) {
+            return ((EnumerablePropertySource<?>) source).getPropertyNames();
+        }
+        return EMPTY_PROPERTY_NAMES;
+    }
+
+    /**
+     * Is the delegated {@link PropertySource} indexed or not
+     *
+     * @return <code>true</code> if indexed, or <code>false</code> that means the lookup falls back to the
+     * delegated {@link PropertySource}
+     */
+    public boolean isIndexed() {
+        return index.indexed;
+    }
+
+    /**
+     * Rebuild the index from the delegated {@link PropertySource} and then swap it atomically
+     */
+    public void refresh() {
+        Map<String, Object> properties = new HashMap<>();
+        boolean indexed = mergeProperties(getSource(), properties);
+        this.index = new Index(indexed, properties);
+    }
+
+    /**
+     * Re-index the {@link PropertySource} by the specified name from the {@link MutablePropertySources}:
+     * <ul>
+     *     <li>If it's an {@link IndexedPropertySource}, it will be {@link #refresh() refreshed}</li>
+     *     <li>Otherwise, it will be replaced by a new {@link IndexedPropertySource} delegating it</li>
+     * </ul>
+     *
+     * @param propertySources {@link MutablePropertySources}
+     * @param name            the name of {@link PropertySource}
+     * @return the {@link IndexedPropertySource} if present, or <code>null</code>
+     */
+    public static IndexedPropertySource reindex(MutablePropertySources propertySources, String name) {
+        PropertySource<?> propertySource = propertySources.get(name);
+        if (propertySource == null) {
+            return null;
+        }
+        IndexedPropertySource indexedPropertySource;
+        if (propertySource instanceof IndexedPropertySource) {
+            indexedPropertySource = (IndexedPropertySource) propertySource;
+            indexedPropertySource.refresh();
+        } else {
+            indexedPropertySource = new IndexedPropertySource(propertySource);
+            propertySources.replace(name, indexedPropertySource);
+        }
+        return indexedPropertySource;
+    }
+
+    private static class Index {
+
+        private final boolean indexed;
+
+        private final Map<String, Object> properties;
+
+        private final String[] propertyNames;
+
+        private Index(boolean indexed, Map<String, Object> properties) {
+            this.indexed = indexed;
+            this.properties = unmodifiableMap(properties);
+            this.propertyNames = properties.keySet().toArray(EMPTY_PROPERTY_NAMES);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.logging.Logger;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.concurrent.Callable;
+
+import static io.microsphere.logging.LoggerFactory.getLogger;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptyMap;
+
+/**
+ * The placeholder {@link PropertySource} loads the delegated {@link PropertySource} on the first property access,
+ * thus the rarely used configuration, e.g, the large Apollo namespaces or etcd key sets, are not fetched and parsed
+ * before the context starts.
+ * <p>
+ * The loading is thread-safe and happens exactly once if succeeded. If the key prefixes are specified, only the
+ * access of the matched property names triggers the loading, the others are missed without loading. Without the key
+ * prefixes, any lookup falling through the former {@link PropertySource PropertySources}, e.g, the absent or
+ * defaulted properties, triggers the loading, thus it's deferred until the first miss rather than avoided.
+ * <p>
+ * The failed loading is cached, the property access is missed rather than failed, and the loading is retried by
+ * one of the accesses after the backoff, which is doubled on each failure up to {@link #MAX_RETRY_INTERVAL_MILLIS},
+ * thus the down backend neither breaks nor blocks every lookup.
+ * <p>
+ * It's {@link EnumerablePropertySource enumerable} without loading, that is no property name is present until it's
+ * loaded, and then the names of the delegated {@link EnumerablePropertySource} are presented, thus the enumeration,
+ * e.g, by the property binders or {@link org.springframework.core.env.CompositePropertySource}, doesn't load it
+ * eagerly.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySource
+ * @since 1.0.0
+ */
+public class LazyPropertySource extends EnumerablePropertySource<Callable<PropertySource<?>>> {
+
+    private static final Logger logger = getLogger(LazyPropertySource.class);
+
+    public static final long DEFAULT_RETRY_INTERVAL_MILLIS = 1000;
+
+    public static final long MAX_RETRY_INTERVAL_MILLIS = 60 * 1000;
+
+    private static final String[] EMPTY_PROPERTY_NAMES = new String[0];
+
+    private final String[] keyPrefixes;
+
+    private final long retryIntervalMillis;
+
+    private volatile PropertySource<?> delegate;
+
+    /**
+     * The last failure of loading, <code>null</code> if not failed
+     */
+    private volatile Failure failure;
+
+    /**
+     * Indicates the loading is in progress
+     */
+    private volatile boolean loading;
+
+    /**
+     * @param name        the name of {@link PropertySource}
+     * @param loader      the loader of the delegated {@link PropertySource}, which may return <code>null</code> if
+     *                    the configuration is absent
+     * @param keyPrefixes the prefixes of the property names triggering the loading, all property names match if empty
+     */
+    public LazyPropertySource(String name, Callable<PropertySource<?>> loader, String... keyPrefixes) {
+        this(name, loader, DEFAULT_RETRY_INTERVAL_MILLIS, keyPrefixes);
+    }
+
+    /**
+     * @param name                the name of {@link PropertySource}
+     * @param loader              the loader of the delegated {@link PropertySource}, which may return
+     *                            <code>null</code> if the configuration is absent
+     * @param retryIntervalMillis the initial interval in milliseconds to retry the failed loading
+     * @param keyPrefixes         the prefixes of the property names triggering the loading, all property names match
+     *                            if empty
+     */
+    public LazyPropertySource(String name, Callable<PropertySource<?>> loader, long retryIntervalMillis,
+                              String... keyPrefixes) {
+        super(name, loader);
+        this.keyPrefixes = keyPrefixes == null ? new String[0] : keyPrefixes;
+        this.retryIntervalMillis = retryIntervalMillis;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        PropertySource<?> delegate = resolveDelegate(name);
+        return delegate == null ? null : delegate.getProperty(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        PropertySource<?> delegate = resolveDelegate(name);
+        return delegate != null && delegate.containsProperty(name);
+    }
+
+    /**
+     * Get the names of the delegated {@link EnumerablePropertySource} without loading
+     *
+     * @return the empty array if not loaded or the delegated {@link PropertySource} is not enumerable
+     */
+    @Override
+    public String[] getPropertyNames() {
+        PropertySource<?> delegate = this.delegate;
+        if (delegate instanceof EnumerablePropertySource) {
+            return ((EnumerablePropertySource<?>) delegate).getPropertyNames();
+        }
+        return EMPTY_PROPERTY_NAMES;
+    }
+
+    /**
+     * @return <code>true</code> if the delegated {@link PropertySource} has been loaded
+     */
+    public boolean isLoaded() {
+        return delegate != null;
+    }
+
+    /**
+     * Get the delegated {@link PropertySource} without loading
+     *
+     * @return <code>null</code> if not loaded
+     */
+    public PropertySource<?> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Load the delegated {@link PropertySource} if not loaded, the backoff of failure is not applied
+     *
+     * @return non-null, the empty {@link PropertySource} will be returned if the configuration is absent
+     * @throws IllegalStateException if the loading is failed
+     */
+    public PropertySource<?> load() {
+        PropertySource<?> delegate = this.delegate;
+        if (delegate == null) {
+            synchronized (this) {
+                delegate = this.delegate;
+                if (delegate == null) {
+                    loading = true;
+                    try {
+                        delegate = getSource().call();
+                    } catch (Exception e) {
+                        Failure failure = new Failure(this.failure, retryIntervalMillis);
+                        this.failure = failure;
+                        logger.warn("The PropertySource[name : '{}'] can't be loaded, it will be retried after {} ms, caused by : {}",
+                                getName(), failure.intervalMillis, e.getMessage());
+                        throw new IllegalStateException("The PropertySource[name : '" + getName() + "'] can't be loaded", e);
+                    } finally {
+                        loading = false;
+                    }
+                    if (delegate == null) {
+                        delegate = new MapPropertySource(getName(), emptyMap());
+                    }
+                    this.delegate = delegate;
+                    this.failure = null;
+                }
+            }
+        }
+        return delegate;
+    }
+
+    private PropertySource<?> resolveDelegate(String propertyName) {
+        PropertySource<?> delegate = this.delegate;
+        if (delegate != null) {
+            return delegate;
+        }
+        if (!matches(propertyName)) {
+            return null;
+        }
+        Failure failure = this.failure;
+        if (failure != null && (loading || failure.isBackingOff())) {
+            // Missed without blocking until the retry
+            return null;
+        }
+        try {
+            return load();
+        } catch (IllegalStateException e) {
+            // The failure has been cached and logged
+            return null;
+        }
+    }
+
+    private boolean matches(String propertyName) {
+        if (keyPrefixes.length == 0) {
+            return true;
+        }
+        for (String keyPrefix : keyPrefixes) {
+            if (propertyName.startsWith(keyPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The failure of loading with the exponential backoff
+     */
+    private static class Failure {
+
+        private final long intervalMillis;
+
+        private final long retryTime;
+
+        private Failure(Failure previous, long retryIntervalMillis) {
+            this.intervalMillis = previous == null ? retryIntervalMillis :
+                    Math.min(previous.intervalMillis << 1, Math.max(MAX_RETRY_INTERVAL_MILLIS, retryIntervalMillis));
+            this.retryTime = currentTimeMillis() + intervalMillis;
+        }
+
+        private boolean isBackingOff() {
+            return currentTimeMillis() < retryTime;
+        }
+    }
+}
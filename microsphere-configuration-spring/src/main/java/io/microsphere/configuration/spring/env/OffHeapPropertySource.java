@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The immutable {@link EnumerablePropertySource} stores the properties in an off-heap arena, the UTF-8 keys and values
+ * are laid out in a direct {@link ByteBuffer} sorted by the key bytes, and the compact index of entry offsets is also
+ * off-heap, thus the heap footprint is independent of the count of properties, and the property is looked up by the
+ * binary search.
+ * <p>
+ * The values are stored as {@link String Strings}, the non-{@link String} values are converted by
+ * {@link String#valueOf(Object)}. The recently looked up properties are retained by a bounded direct-mapped cache of
+ * at most {@link #MAX_CACHED_ENTRIES} entries, thus the hot keys are neither encoded nor decoded on each lookup while
+ * the heap footprint is still bounded. The arena is shared by {@link #withName(String) the copies}, thus the snapshot
+ * is cheap.
+ * <p>
+ * It fits the very large flat property sets, e.g, the feature flags, the arena is released when this instance is
+ * collected.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see EnumerablePropertySource
+ * @since 1.0.0
+ */
+public class OffHeapPropertySource extends EnumerablePropertySource<ByteBuffer> {
+
+    private static final int INT_BYTES = 4;
+
+    private static final String[] EMPTY_PROPERTY_NAMES = new String[0];
+
+    /**
+     * The maximum count of entries cached on the heap
+     */
+    public static final int MAX_CACHED_ENTRIES = 1024;
+
+    /**
+     * The entries : [key length][key bytes][value length][value bytes]
+     */
+    private final ByteBuffer data;
+
+    /**
+     * The offsets of entries in the order of key bytes
+     */
+    private final ByteBuffer index;
+
+    private final int size;
+
+    /**
+     * The direct-mapped cache of the looked up properties, the slot is selected by the hash code of name
+     */
+    private final CachedEntry[] cachedEntries;
+
+    private OffHeapPropertySource(String name, ByteBuffer data, ByteBuffer index, int size) {
+        this(name, data, index, size, new CachedEntry[cacheCapacity(size)]);
+    }
+
+    private OffHeapPropertySource(String name, ByteBuffer data, ByteBuffer index, int size, CachedEntry[] cachedEntries) {
+        super(name, data);
+        this.data = data;
+        this.index = index;
+        this.size = size;
+        this.cachedEntries = cachedEntries;
+    }
+
+    private static int cacheCapacity(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        // The power of two that is not less than the size
+        int capacity = Integer.highestOneBit(Math.min(size, MAX_CACHED_ENTRIES));
+        return capacity < size ? Math.min(capacity << 1, MAX_CACHED_ENTRIES) : capacity;
+    }
+
+    /**
+     * Create an instance from the properties
+     *
+     * @param name       the name of {@link PropertySource}
+     * @param properties the properties, the <code>null</code> values are ignored
+     * @return non-null
+     */
+    public static OffHeapPropertySource of(String name, Map<String, ?> properties) {
+        List<byte[][]> entries = new ArrayList<>(properties.size());
+        for (Map.Entry<String, ?> entry : properties.entrySet()) {
+            Object value = entry.getValue();
+            if (value != null) {
+                entries.add(new byte[][]{entry.getKey().getBytes(UTF_8), String.valueOf(value).getBytes(UTF_8)});
+            }
+        }
+        return of(name, entries);
+    }
+
+    /**
+     * Create an instance from the {@link EnumerablePropertySource}
+     *
+     * @param propertySource {@link EnumerablePropertySource}
+     * @return non-null
+     */
+    public static OffHeapPropertySource of(EnumerablePropertySource<?> propertySource) {
+        if (propertySource instanceof OffHeapPropertySource) {
+            return (OffHeapPropertySource) propertySource;
+        }
+        String[] propertyNames = propertySource.getPropertyNames();
+        List<byte[][]> entries = new ArrayList<>(propertyNames.length);
+        for (String propertyName : propertyNames) {
+            Object value = propertySource.getProperty(propertyName);
+            if (value != null) {
+                entries.add(new byte[][]{propertyName.getBytes(UTF_8), String.valueOf(value).getBytes(UTF_8)});
+            }
+        }
+        return of(propertySource.getName(), entries);
+    }
+
+    private static OffHeapPropertySource of(String name, List<byte[][]> entries) {
+        entries.sort((a, b) -> compare(a[0], b[0]));
+
+        int size = entries.size();
+        long dataBytes = 0;
+        for (byte[][] entry : entries) {
+            dataBytes += INT_BYTES + entry[0].length + INT_BYTES + entry[1].length;
+        }
+        if (dataBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The properties are too large to be stored : " + dataBytes + " bytes");
+        }
+
+        ByteBuffer data = allocateDirect((int) dataBytes);
+        ByteBuffer index = allocateDirect(size * INT_BYTES);
+        for (byte[][] entry : entries) {
+            index.putInt(data.position());
+            data.putInt(entry[0].length).put(entry[0]);
+            data.putInt(entry[1].length).put(entry[1]);
+        }
+        data.flip();
+        index.flip();
+        return new OffHeapPropertySource(name, data.asReadOnlyBuffer(), index.asReadOnlyBuffer(), size);
+    }
+
+    /**
+     * Create a copy with the specified name, which shares the arena
+     *
+     * @param name the name of {@link PropertySource}
+     * @return non-null
+     */
+    public OffHeapPropertySource withName(String name) {
+        return new OffHeapPropertySource(name, data, index, size, cachedEntries);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        CachedEntry cachedEntry = lookup(name);
+        return cachedEntry == null ? null : cachedEntry.value;
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        CachedEntry cachedEntry = lookup(name);
+        return cachedEntry != null && cachedEntry.value != null;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        if (size == 0) {
+            return EMPTY_PROPERTY_NAMES;
+        }
+        String[] propertyNames = new String[size];
+        for (int i = 0; i < size; i++) {
+            propertyNames[i] = readString(index.getInt(i * INT_BYTES));
+        }
+        return propertyNames;
+    }
+
+    /**
+     * @return the count of properties
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the off-heap bytes of the arena and index
+     */
+    public long getOffHeapBytes() {
+        return (long) data.capacity() + index.capacity();
+    }
+
+    /**
+     * Lookup the property from the cache, or find it from the arena and then cache it
+     *
+     * @param name the name of property
+     * @return <code>null</code> if the name is <code>null</code> or no property is present
+     */
+    private CachedEntry lookup(String name) {
+        if (name == null || size == 0) {
+            return null;
+        }
+        int slot = name.hashCode() & (cachedEntries.length - 1);
+        // The cached entry is immutable, thus the racy reads and writes are benign
+        CachedEntry cachedEntry = cachedEntries[slot];
+        if (cachedEntry != null && cachedEntry.name.equals(name)) {
+            return cachedEntry;
+        }
+        int offset = find(name);
+        String value = null;
+        if (offset > -1) {
+            int keyLength = data.getInt(offset);
+            value = readString(offset + INT_BYTES + keyLength);
+        }
+        cachedEntry = new CachedEntry(name, value);
+        cachedEntries[slot] = cachedEntry;
+        return cachedEntry;
+    }
+
+    /**
+     * Find the offset of entry by the binary search
+     *
+     * @param name the name of property
+     * @return the offset if found, or <code>-1</code>
+     */
+    private int find(String name) {
+        if (name == null || size == 0) {
+            return -1;
+        }
+        byte[] key = name.getBytes(UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = index.getInt(middle * INT_BYTES);
+            int result = compare(offset, key);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int offset, byte[] key) {
+        int keyLength = data.getInt(offset);
+        int start = offset + INT_BYTES;
+        int length = Math.min(keyLength, key.length);
+        for (int i = 0; i < length; i++) {
+            int result = (data.get(start + i) & 0xff) - (key[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return keyLength - key.length;
+    }
+
+    private String readString(int offset) {
+        int length = data.getInt(offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(offset + INT_BYTES);
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int result = (a[i] & 0xff) - (b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static class CachedEntry {
+
+        private final String name;
+
+        /**
+         * The value or <code>null</code> if absent
+         */
+        private final String value;
+
+        private CachedEntry(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.microsphere.configuration.spring.env.TypedPropertyCache.getChangedPropertyNames;
+import static org.springframework.util.SystemPropertyUtils.PLACEHOLDER_PREFIX;
+import static org.springframework.util.SystemPropertyUtils.PLACEHOLDER_SUFFIX;
+import static org.springframework.util.SystemPropertyUtils.VALUE_SEPARATOR;
+
+/**
+ * The {@link PropertySource} caches the resolved values of the delegated {@link PropertySource} whose values contain
+ * the placeholders, e.g, <code>"${server.host}:${server.port}"</code>, thus the placeholder-heavy configuration costs
+ * no more than the plain values on the hot path, the resolved values are returned to the
+ * {@link org.springframework.core.env.PropertyResolver} without placeholders.
+ * <p>
+ * The placeholders are resolved against the {@link ConfigurableEnvironment} in the precedence of its
+ * {@link PropertySource PropertySources}, and the names referenced directly or by the nested placeholders are recorded
+ * as the dependencies of the cached value. The cached values are invalidated precisely by the
+ * {@link PropertySourcesChangedEvent} of the changed keys that they depend on, which are united from the old and new
+ * {@link PropertySource PropertySources} of the sub-events, thus the keys removed by a replaced
+ * {@link PropertySource} are invalidated too, or all of them are invalidated if the changed keys can't be
+ * enumerated. The cached value is also discarded if the raw value of delegated
+ * {@link PropertySource} is changed. The property changes without the {@link PropertySourcesChangedEvent}, e.g, the
+ * {@link PropertySource} added manually, should be followed by {@link #invalidateAll()}.
+ * <p>
+ * The unresolvable placeholders are not cached, the raw value is returned and left to the
+ * {@link org.springframework.core.env.PropertyResolver}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourcesChangedEvent
+ * @see PropertyPlaceholderHelper
+ * @since 1.0.0
+ */
+public class PlaceholderCachingPropertySource extends EnumerablePropertySource<PropertySource<?>>
+        implements ApplicationListener<PropertySourcesChangedEvent> {
+
+    private static final String[] EMPTY_PROPERTY_NAMES = new String[0];
+
+    private static final PropertyPlaceholderHelper placeholderHelper = new PropertyPlaceholderHelper(
+            PLACEHOLDER_PREFIX, PLACEHOLDER_SUFFIX, VALUE_SEPARATOR, false);
+
+    private final ConfigurableEnvironment environment;
+
+    private final ConcurrentMap<String, ResolvedValue> resolvedValues = new ConcurrentHashMap<>();
+
+    /**
+     * The names of the cached properties depending on the key, guarded by this
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    /**
+     * The generation of the cached values, which is increased on invalidation, guarded by this
+     */
+    private long generation;
+
+    public PlaceholderCachingPropertySource(PropertySource<?> delegate, ConfigurableEnvironment environment) {
+        super(delegate.getName(), delegate);
+        this.environment = environment;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Object value = getSource().getProperty(name);
+        if (!(value instanceof String) || !((String) value).contains(PLACEHOLDER_PREFIX)) {
+            return value;
+        }
+        String rawValue = (String) value;
+        ResolvedValue resolvedValue = resolvedValues.get(name);
+        if (resolvedValue != null && resolvedValue.rawValue.equals(rawValue)) {
+            return resolvedValue.value;
+        }
+        return resolve(name, rawValue);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return getSource().containsProperty(name);
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        PropertySource<?> source = getSource();
+        if (source instanceof EnumerablePropertySource) {
+            return ((EnumerablePropertySource<?>) source).getPropertyNames();
+        }
+        return EMPTY_PROPERTY_NAMES;
+    }
+
+    /**
+     * @return the count of the cached values
+     */
+    public int size() {
+        return resolvedValues.size();
+    }
+
+    @Override
+    public void onApplicationEvent(PropertySourcesChangedEvent event) {
+        Set<String> changedPropertyNames = getChangedPropertyNames(event);
+        if (changedPropertyNames == null) {
+            invalidateAll();
+        } else {
+            invalidate(changedPropertyNames);
+        }
+    }
+
+    /**
+     * Invalidate the cached values depending on the specified property names
+     *
+     * @param propertyNames the names of changed properties
+     */
+    public synchronized void invalidate(Collection<String> propertyNames) {
+        generation++;
+        Deque<String> names = new ArrayDeque<>(propertyNames);
+        Set<String> visited = new HashSet<>();
+        while (!names.isEmpty()) {
+            String name = names.poll();
+            if (!visited.add(name)) {
+                continue;
+            }
+            resolvedValues.remove(name);
+            // The dependents of dependents are invalidated transitively
+            Set<String> dependentNames = dependents.remove(name);
+            if (dependentNames != null) {
+                names.addAll(dependentNames);
+            }
+        }
+    }
+
+    /**
+     * Invalidate all cached values
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        resolvedValues.clear();
+        dependents.clear();
+    }
+
+    private Object resolve(String name, String rawValue) {
+        long generation;
+        synchronized (this) {
+            generation = this.generation;
+        }
+        Set<String> dependencies = new HashSet<>();
+        String value;
+        try {
+            value = placeholderHelper.replacePlaceholders(rawValue, placeholderName -> {
+                dependencies.add(placeholderName);
+                return getRawProperty(placeholderName);
+            });
+        } catch (IllegalArgumentException e) {
+            // The unresolvable or circular placeholders are left to the PropertyResolver
+            return rawValue;
+        }
+        synchronized (this) {
+            // The value resolved before the invalidation may be stale
+            if (this.generation == generation) {
+                resolvedValues.put(name, new ResolvedValue(rawValue, value));
+                for (String dependency : dependencies) {
+                    dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(name);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Get the raw property value from the {@link ConfigurableEnvironment}, the nested placeholders are resolved by
+     * the {@link PropertyPlaceholderHelper}, thus they are recorded as the dependencies.
+     */
+    private String getRawProperty(String name) {
+        for (PropertySource<?> propertySource : environment.getPropertySources()) {
+            if (propertySource instanceof PlaceholderCachingPropertySource) {
+                // The raw value rather than the cached one
+                propertySource = ((PlaceholderCachingPropertySource) propertySource).getSource();
+            }
+            Object value = propertySource.getProperty(name);
+            if (value != null) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+
+    private static class ResolvedValue {
+
+        private final String rawValue;
+
+        private final String value;
+
+        private ResolvedValue(String rawValue, String value) {
+            this.rawValue = rawValue;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.configuration.metrics.ConfigurationMetrics;
+import io.microsphere.configuration.metrics.PropertySourceFootprint;
+import io.microsphere.logging.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.microsphere.configuration.metrics.ConfigurationMetricsUtils.getConfigurationMetrics;
+import static io.microsphere.logging.LoggerFactory.getLogger;
+import static java.util.Collections.synchronizedMap;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The reporter of the memory footprints of the {@link PropertySource PropertySources} in the
+ * {@link ConfigurableEnvironment Environment} as well as the registered snapshots, e.g, the old
+ * {@link PropertySource PropertySources} retained by the Apollo listeners or the loaders for the change detection.
+ * <p>
+ * The footprints are available on demand by {@link #report()}, and are reported to {@link ConfigurationMetrics}
+ * periodically every {@link #setPeriodMillis(long) period} after {@link #afterPropertiesSet()}. The warning will be
+ * logged if the raw payload of a single resource, e.g, an etcd key or a Zookeeper path, or the estimated heap bytes
+ * of a single {@link PropertySource} grows past the {@link #setThresholdBytes(long) threshold}.
+ * <p>
+ * The raw payloads are {@link #recordPayload(Environment, String, String, long) recorded} by the loaders when the
+ * resources are resolved or refreshed. The payloads and snapshots are scoped by the {@link Environment} of the
+ * {@link org.springframework.context.ApplicationContext}, thus a reporter only reports the ones of its own context,
+ * and they are {@link #unregister(Environment) unregistered} when the context is closed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourceFootprint
+ * @see ConfigurationMetrics#recordFootprint(PropertySourceFootprint)
+ * @since 1.0.0
+ */
+public class PropertySourceFootprintReporter implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = getLogger(PropertySourceFootprintReporter.class);
+
+    public static final long DEFAULT_PERIOD_MILLIS = 60 * 1000L;
+
+    public static final long DEFAULT_THRESHOLD_BYTES = 16 * 1024 * 1024L;
+
+    /**
+     * The estimated bytes of {@link String} object and its array header
+     */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    /**
+     * The estimated bytes of the hash entry and its table slot
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 48;
+
+    private static final int OBJECT_BYTES = 16;
+
+    /**
+     * The registries of payloads and snapshots, the key is the {@link Environment} that is referenced weakly
+     */
+    private static final Map<Environment, Registry> registries = synchronizedMap(new WeakHashMap<>());
+
+    private final ConfigurableEnvironment environment;
+
+    private final ConfigurationMetrics metrics = getConfigurationMetrics();
+
+    private long periodMillis = DEFAULT_PERIOD_MILLIS;
+
+    private long thresholdBytes = DEFAULT_THRESHOLD_BYTES;
+
+    private ScheduledExecutorService scheduler;
+
+    public PropertySourceFootprintReporter(ConfigurableEnvironment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Record the raw payload of the resource that was resolved or refreshed
+     *
+     * @param environment        the {@link Environment} of the {@link PropertySource}
+     * @param propertySourceName the name of {@link PropertySource}
+     * @param resourceValue      the resource value, e.g, the etcd key or Zookeeper path
+     * @param bytes              the bytes of raw payload
+     */
+    public static void recordPayload(Environment environment, String propertySourceName, String resourceValue, long bytes) {
+        getRegistry(environment).payloads.computeIfAbsent(propertySourceName, name -> new ConcurrentHashMap<>())
+                .put(resourceValue, bytes);
+    }
+
+    /**
+     * Register the snapshots of {@link PropertySource PropertySources}, which is referenced weakly
+     *
+     * @param environment the {@link Environment} of the snapshots
+     * @param name        the name of snapshots
+     * @param snapshots   the snapshots, whose values are {@link PropertySource PropertySources}, must be thread-safe
+     */
+    public static void registerSnapshots(Environment environment, String name, Map<String, ?> snapshots) {
+        getRegistry(environment).snapshots.put(name, new WeakReference<>(snapshots));
+    }
+
+    /**
+     * Unregister the payloads and snapshots of the {@link Environment}, e.g, the context is closed
+     *
+     * @param environment the {@link Environment}
+     */
+    public static void unregister(Environment environment) {
+        registries.remove(environment);
+    }
+
+    private static Registry getRegistry(Environment environment) {
+        return registries.computeIfAbsent(environment, e -> new Registry());
+    }
+
+    /**
+     * Report the footprints of the {@link PropertySource PropertySources} and the registered snapshots
+     *
+     * @return non-null
+     */
+    public List<PropertySourceFootprint> report() {
+        List<PropertySourceFootprint> footprints = new ArrayList<>();
+        Registry registry = registries.get(environment);
+        for (PropertySource<?> propertySource : environment.getPropertySources()) {
+            footprints.add(estimate(propertySource.getName(), propertySource, registry));
+        }
+        if (registry == null) {
+            return footprints;
+        }
+        Iterator<Map.Entry<String, WeakReference<Map<String, ?>>>> iterator = registry.snapshots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, WeakReference<Map<String, ?>>> entry = iterator.next();
+            Map<String, ?> snapshots = entry.getValue().get();
+            if (snapshots == null) { // The owner has been released
+                iterator.remove();
+                continue;
+            }
+            for (Map.Entry<String, ?> snapshot : snapshots.entrySet()) {
+                Object value = snapshot.getValue();
+                if (value instanceof PropertySource) {
+                    String name = entry.getKey() + "[" + snapshot.getKey() + "]";
+                    footprints.add(estimate(name, (PropertySource<?>) value, registry));
+                }
+            }
+        }
+        return footprints;
+    }
+
+    /**
+     * Estimate the footprint of the {@link PropertySource}
+     *
+     * @param name           the name of footprint
+     * @param propertySource {@link PropertySource}
+     * @return non-null
+     */
+    public static PropertySourceFootprint estimate(String name, PropertySource<?> propertySource) {
+        return estimate(name, propertySource, null);
+    }
+
+    private static PropertySourceFootprint estimate(String name, PropertySource<?> propertySource, Registry registry) {
+        Estimation estimation = new Estimation();
+        estimation.add(propertySource);
+        long payloadBytes = registry == null ? 0 : registry.getPayloadBytes(propertySource.getName());
+        return new PropertySourceFootprint(name, estimation.keyCount, estimation.heapBytes, estimation.offHeapBytes,
+                payloadBytes);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (periodMillis < 1) {
+            return;
+        }
+        scheduler = newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "microsphere-configuration-footprint-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reportPeriodically, periodMillis, periodMillis, MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        unregister(environment);
+    }
+
+    /**
+     * @param periodMillis the period in milliseconds to report the footprints, the non-positive value disables the
+     *                     periodic reporting
+     */
+    public void setPeriodMillis(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+
+    /**
+     * @param thresholdBytes the threshold in bytes of a single resource or {@link PropertySource} to warn
+     */
+    public void setThresholdBytes(long thresholdBytes) {
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    private void reportPeriodically() {
+        try {
+            for (PropertySourceFootprint footprint : report()) {
+                metrics.recordFootprint(footprint);
+                if (footprint.getHeapBytes() > thresholdBytes) {
+                    logger.warn("The estimated heap bytes of PropertySource[name : '{}'] is {}, grows past the threshold {} bytes",
+                            footprint.getPropertySourceName(), footprint.getHeapBytes(), thresholdBytes);
+                }
+            }
+            warnLargePayloads();
+        } catch (Throwable e) {
+            logger.warn("The footprints of PropertySources can't be reported, caused by : {}", e.getMessage());
+        }
+    }
+
+    private void warnLargePayloads() {
+        Registry registry = registries.get(environment);
+        if (registry == null) {
+            return;
+        }
+        for (Map.Entry<String, ConcurrentMap<String, Long>> entry : registry.payloads.entrySet()) {
+            for (Map.Entry<String, Long> payload : entry.getValue().entrySet()) {
+                if (payload.getValue() > thresholdBytes) {
+                    logger.warn("The raw payload of resource[value : '{}'] in PropertySource[name : '{}'] is {} bytes, grows past the threshold {} bytes",
+                            payload.getKey(), entry.getKey(), payload.getValue(), thresholdBytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * The payloads and snapshots of one {@link Environment}
+     */
+    private static class Registry {
+
+        /**
+         * The raw payload bytes, the key is the name of {@link PropertySource}, the key of value is the resource value
+         */
+        private final ConcurrentMap<String, ConcurrentMap<String, Long>> payloads = new ConcurrentHashMap<>();
+
+        /**
+         * The registered snapshots, which are referenced weakly to be released with their owners
+         */
+        private final ConcurrentMap<String, WeakReference<Map<String, ?>>> snapshots = new ConcurrentHashMap<>();
+
+        private long getPayloadBytes(String propertySourceName) {
+            Map<String, Long> resourcePayloads = payloads.get(propertySourceName);
+            if (resourcePayloads == null) {
+                return 0;
+            }
+            long bytes = 0;
+            for (Long payload : resourcePayloads.values()) {
+                bytes += payload;
+            }
+            return bytes;
+        }
+    }
+
+    private static class Estimation {
+
+        private int keyCount;
+
+        private long heapBytes;
+
+        private long offHeapBytes;
+
+        private void add(PropertySource<?> propertySource) {
+            heapBytes += OBJECT_BYTES;
+            if (propertySource instanceof OffHeapPropertySource) {
+                OffHeapPropertySource offHeapPropertySource = (OffHeapPropertySource) propertySource;
+                keyCount += offHeapPropertySource.size();
+                offHeapBytes += offHeapPropertySource.getOffHeapBytes();
+            } else if (propertySource instanceof BinaryPropertySource) {
+                BinaryPropertySource binaryPropertySource = (BinaryPropertySource) propertySource;
+                keyCount += binaryPropertySource.size();
+                ByteBuffer buffer = binaryPropertySource.getSource();
+                if (buffer.isDirect()) {
+                    offHeapBytes += buffer.capacity();
+                } else {
+                    heapBytes += buffer.capacity();
+                }
+            } else if (propertySource instanceof CompositePropertySource) {
+                for (PropertySource<?> subPropertySource : ((CompositePropertySource) propertySource).getPropertySources()) {
+                    add(subPropertySource);
+                }
+            } else if (propertySource instanceof IndexedPropertySource) {
+                IndexedPropertySource indexedPropertySource = (IndexedPropertySource) propertySource;
+                add(indexedPropertySource.getSource());
+                if (indexedPropertySource.isIndexed()) {
+                    // The index shares the keys and values, only the entries and the array of names are retained
+                    heapBytes += (long) indexedPropertySource.getPropertyNames().length * (ENTRY_OVERHEAD_BYTES + 8);
+                }
+            } else if (propertySource instanceof PlaceholderCachingPropertySource) {
+                PlaceholderCachingPropertySource placeholderCachingPropertySource = (PlaceholderCachingPropertySource) propertySource;
+                add(placeholderCachingPropertySource.getSource());
+                // The cached values are counted as the entries without the keys shared with the source
+                heapBytes += (long) placeholderCachingPropertySource.size() * ENTRY_OVERHEAD_BYTES * 2;
+            } else if (propertySource instanceof LazyPropertySource) {
+                // The unloaded one holds nothing
+                PropertySource<?> delegate = ((LazyPropertySource) propertySource).getDelegate();
+                if (delegate != null) {
+                    add(delegate);
+                }
+            } else if (propertySource instanceof EnumerablePropertySource) {
+                EnumerablePropertySource<?> enumerablePropertySource = (EnumerablePropertySource<?>) propertySource;
+                for (String propertyName : enumerablePropertySource.getPropertyNames()) {
+                    keyCount++;
+                    heapBytes += ENTRY_OVERHEAD_BYTES + estimate(propertyName)
+                            + estimate(enumerablePropertySource.getProperty(propertyName));
+                }
+            }
+        }
+
+        private static long estimate(Object value) {
+            if (value == null || value instanceof Boolean) {
+                return 0;
+            }
+            if (value instanceof CharSequence) {
+                // Assume UTF-16 for the upper bound
+                return STRING_OVERHEAD_BYTES + 2L * ((CharSequence) value).length();
+            }
+            return OBJECT_BYTES;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.configuration.util.StringInterner;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The utilities class for {@link PropertySource}
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySource
+ * @since 1.0.0
+ */
+public abstract class PropertySourceUtils {
+
+    private static final StringInterner interner = StringInterner.getDefault();
+
+    private PropertySourceUtils() {
+    }
+
+    /**
+     * Get the flattened properties of the specified {@link PropertySource} with its precedence preserved,
+     * that is the property of the former sub-source of {@link CompositePropertySource} wins.
+     *
+     * @param propertySource {@link PropertySource}
+     * @return the mutable properties, or <code>null</code> if the {@link PropertySource} or one of its sub-sources
+     * is not {@link EnumerablePropertySource enumerable}
+     */
+    public static Map<String, Object> getProperties(PropertySource<?> propertySource) {
+        Map<String, Object> properties = new HashMap<>();
+        return mergeProperties(propertySource, properties) ? properties : null;
+    }
+
+    /**
+     * Merge the properties of the specified {@link PropertySource} into the target properties if absent, the keys
+     * and {@link String} values are {@link StringInterner interned}.
+     *
+     * @param propertySource {@link PropertySource}
+     * @param properties     the target properties
+     * @return <code>true</code> if merged, or <code>false</code> if the {@link PropertySource} or one of its sub-sources
+     * is not {@link EnumerablePropertySource enumerable} or an unloaded {@link LazyPropertySource}
+     */
+    public static boolean mergeProperties(PropertySource<?> propertySource, Map<String, Object> properties) {
+        if (propertySource instanceof IndexedPropertySource) {
+            return mergeProperties(((IndexedPropertySource) propertySource).getSource(), properties);
+        } else if (propertySource instanceof PlaceholderCachingPropertySource) {
+            // The raw values
+            return mergeProperties(((PlaceholderCachingPropertySource) propertySource).getSource(), properties);
+        } else if (propertySource instanceof LazyPropertySource) {
+            // The unloaded one can't be merged without loading
+            PropertySource<?> delegate = ((LazyPropertySource) propertySource).getDelegate();
+            return delegate != null && mergeProperties(delegate, properties);
+        } else if (propertySource instanceof CompositePropertySource) {
+            Collection<PropertySource<?>> subPropertySources = ((CompositePropertySource) propertySource).getPropertySources();
+            for (PropertySource<?> subPropertySource : subPropertySources) {
+                if (!mergeProperties(subPropertySource, properties)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (propertySource instanceof EnumerablePropertySource) {
+            EnumerablePropertySource<?> enumerablePropertySource = (EnumerablePropertySource<?>) propertySource;
+            for (String propertyName : enumerablePropertySource.getPropertyNames()) {
+                if (properties.containsKey(propertyName)) {
+                    // The former one wins
+                    continue;
+                }
+                Object propertyValue = enumerablePropertySource.getProperty(propertyName);
+                if (propertyValue != null) {
+                    properties.put(interner.intern(propertyName), interner.internValue(propertyValue));
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
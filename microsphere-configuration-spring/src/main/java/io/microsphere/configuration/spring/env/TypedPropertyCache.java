@@ -0,0 +1,470 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.logging.Logger;
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import static io.microsphere.logging.LoggerFactory.getLogger;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.emptySet;
+import static org.springframework.util.SystemPropertyUtils.PLACEHOLDER_PREFIX;
+import static org.springframework.util.SystemPropertyUtils.PLACEHOLDER_SUFFIX;
+import static org.springframework.util.SystemPropertyUtils.VALUE_SEPARATOR;
+
+/**
+ * The cache of the pre-converted primitive property values for the hot-path reads, e.g, the boolean or int flags
+ * read by the request paths, the values are held in a slot array, each typed accessor
+ * ({@link BooleanProperty}, {@link IntProperty}, {@link LongProperty} and {@link DoubleProperty}) owns one slot, thus
+ * a read costs one volatile read and one array load, no property-source chain lookup, no boxing, no string parsing.
+ * <p>
+ * The slots are invalidated precisely by the {@link PropertySourcesChangedEvent} of the changed keys, only the
+ * accessors whose property names are changed are re-resolved from the {@link PropertyResolver}, and the slot array
+ * is replaced copy-on-write, thus the readers are lock-free and never see the half-updated values. If the changed
+ * keys can't be enumerated, all slots will be re-resolved. The property changes without the
+ * {@link PropertySourcesChangedEvent}, e.g, the {@link PropertySource} added manually, should be followed by
+ * {@link #invalidateAll()}.
+ * <p>
+ * If the {@link PropertyResolver} is a {@link ConfigurableEnvironment}, the names referenced by the placeholders of
+ * the raw values, e.g, <code>"${base.limit}"</code>, are recorded as the dependencies of the slot directly or by the
+ * nested placeholders, thus the slot is re-resolved when any of them is changed too. Otherwise, the slots of the
+ * placeholder values are only re-resolved by their own keys or {@link #invalidateAll()}.
+ * <p>
+ * If the changed value can't be converted, the previous value is retained.
+ * <p>
+ * Example Usage:
+ * <pre>{@code
+ * @Bean
+ * public TypedPropertyCache typedPropertyCache(Environment environment) {
+ *     return new TypedPropertyCache(environment);
+ * }
+ *
+ * BooleanProperty enabled = typedPropertyCache.getBoolean("feature.enabled", false);
+ * if (enabled.getAsBoolean()) { ... }
+ * }</pre>
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourcesChangedEvent
+ * @see Environment
+ * @since 1.0.0
+ */
+public class TypedPropertyCache implements ApplicationListener<PropertySourcesChangedEvent> {
+
+    private static final Logger logger = getLogger(TypedPropertyCache.class);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The unresolvable placeholders are ignored, thus the absent keys are recorded as the dependencies too
+     */
+    private static final PropertyPlaceholderHelper placeholderHelper = new PropertyPlaceholderHelper(
+            PLACEHOLDER_PREFIX, PLACEHOLDER_SUFFIX, VALUE_SEPARATOR, true);
+
+    private final PropertyResolver propertyResolver;
+
+    /**
+     * The accessors, the key is composed by the type, name and default value
+     */
+    private final ConcurrentMap<String, Slot> accessors = new ConcurrentHashMap<>();
+
+    /**
+     * The slots, guarded by this
+     */
+    private final List<Slot> slots = new ArrayList<>();
+
+    /**
+     * The slots of property names, including the slots depending on them by the placeholders, guarded by this
+     */
+    private final Map<String, Set<Slot>> nameSlots = new HashMap<>();
+
+    /**
+     * The primitive values, the double values are stored as the raw long bits, and the booleans are stored as
+     * <code>1</code> or <code>0</code>.
+     */
+    private volatile long[] values = new long[INITIAL_CAPACITY];
+
+    public TypedPropertyCache(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    /**
+     * Get the {@link BooleanProperty} of the specified property
+     *
+     * @param name         the name of property
+     * @param defaultValue the default value if the property is absent
+     * @return non-null
+     */
+    public BooleanProperty getBoolean(String name, boolean defaultValue) {
+        return (BooleanProperty) accessors.computeIfAbsent("boolean:" + name + ":" + defaultValue,
+                key -> register(new BooleanProperty(this, name, defaultValue)));
+    }
+
+    /**
+     * Get the {@link IntProperty} of the specified property
+     *
+     * @param name         the name of property
+     * @param defaultValue the default value if the property is absent
+     * @return non-null
+     */
+    public IntProperty getInt(String name, int defaultValue) {
+        return (IntProperty) accessors.computeIfAbsent("int:" + name + ":" + defaultValue,
+                key -> register(new IntProperty(this, name, defaultValue)));
+    }
+
+    /**
+     * Get the {@link LongProperty} of the specified property
+     *
+     * @param name         the name of property
+     * @param defaultValue the default value if the property is absent
+     * @return non-null
+     */
+    public LongProperty getLong(String name, long defaultValue) {
+        return (LongProperty) accessors.computeIfAbsent("long:" + name + ":" + defaultValue,
+                key -> register(new LongProperty(this, name, defaultValue)));
+    }
+
+    /**
+     * Get the {@link DoubleProperty} of the specified property
+     *
+     * @param name         the name of property
+     * @param defaultValue the default value if the property is absent
+     * @return non-null
+     */
+    public DoubleProperty getDouble(String name, double defaultValue) {
+        return (DoubleProperty) accessors.computeIfAbsent("double:" + name + ":" + defaultValue,
+                key -> register(new DoubleProperty(this, name, defaultValue)));
+    }
+
+    /**
+     * @return the count of the cached properties
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    @Override
+    public void onApplicationEvent(PropertySourcesChangedEvent event) {
+        Set<String> changedPropertyNames = getChangedPropertyNames(event);
+        if (changedPropertyNames == null) {
+            invalidateAll();
+        } else {
+            invalidate(changedPropertyNames);
+        }
+    }
+
+    /**
+     * Re-resolve the slots of the specified property names
+     *
+     * @param propertyNames the names of changed properties
+     */
+    public synchronized void invalidate(Collection<String> propertyNames) {
+        Set<Slot> slots = new LinkedHashSet<>();
+        for (String propertyName : propertyNames) {
+            Set<Slot> namedSlots = nameSlots.get(propertyName);
+            if (namedSlots != null) {
+                slots.addAll(namedSlots);
+            }
+        }
+        update(slots);
+    }
+
+    /**
+     * Re-resolve all slots
+     */
+    public synchronized void invalidateAll() {
+        update(slots);
+    }
+
+    private synchronized Slot register(Slot slot) {
+        int index = slots.size();
+        long[] values = this.values;
+        if (index == values.length) {
+            values = copyOf(values, index << 1);
+        } else {
+            values = values.clone();
+        }
+        // Fail fast if the current value can't be converted
+        values[index] = slot.resolve(propertyResolver);
+        slot.index = index;
+        slots.add(slot);
+        bind(slot);
+        // publish the slot array after the index is assigned
+        this.values = values;
+        return slot;
+    }
+
+    private void update(Collection<Slot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        long[] values = this.values.clone();
+        for (Slot slot : slots) {
+            try {
+                values[slot.index] = slot.resolve(propertyResolver);
+            } catch (RuntimeException e) {
+                logger.warn("The property[name : '{}'] can't be converted, the previous value is retained, caused by : {}",
+                        slot.name, e.getMessage());
+            }
+            // The placeholders of the raw value may be changed
+            bind(slot);
+        }
+        this.values = values;
+    }
+
+    /**
+     * Bind the slot to its property name and the names of its placeholder dependencies
+     */
+    private void bind(Slot slot) {
+        Set<String> propertyNames = resolveDependencies(slot.name);
+        propertyNames.add(slot.name);
+        for (String propertyName : slot.propertyNames) {
+            if (!propertyNames.contains(propertyName)) {
+                Set<Slot> namedSlots = nameSlots.get(propertyName);
+                namedSlots.remove(slot);
+                if (namedSlots.isEmpty()) {
+                    nameSlots.remove(propertyName);
+                }
+            }
+        }
+        for (String propertyName : propertyNames) {
+            nameSlots.computeIfAbsent(propertyName, name -> new LinkedHashSet<>(2)).add(slot);
+        }
+        slot.propertyNames = propertyNames;
+    }
+
+    /**
+     * Resolve the names referenced by the placeholders of the raw value directly or by the nested placeholders
+     *
+     * @param name the name of property
+     * @return the mutable {@link Set} of the names
+     */
+    private Set<String> resolveDependencies(String name) {
+        Set<String> dependencies = new HashSet<>();
+        if (!(propertyResolver instanceof ConfigurableEnvironment)) {
+            return dependencies;
+        }
+        ConfigurableEnvironment environment = (ConfigurableEnvironment) propertyResolver;
+        String rawValue = getRawProperty(environment, name);
+        if (rawValue == null || !rawValue.contains(PLACEHOLDER_PREFIX)) {
+            return dependencies;
+        }
+        try {
+            placeholderHelper.replacePlaceholders(rawValue, placeholderName -> {
+                dependencies.add(placeholderName);
+                return getRawProperty(environment, placeholderName);
+            });
+        } catch (IllegalArgumentException e) {
+            // The circular placeholders are left to the PropertyResolver, the dependencies found are retained
+        }
+        return dependencies;
+    }
+
+    private static String getRawProperty(ConfigurableEnvironment environment, String name) {
+        for (PropertySource<?> propertySource : environment.getPropertySources()) {
+            if (propertySource instanceof PlaceholderCachingPropertySource) {
+                // The raw value rather than the cached one
+                propertySource = ((PlaceholderCachingPropertySource) propertySource).getSource();
+            }
+            Object value = propertySource.getProperty(name);
+            if (value != null) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the names of the changed properties from the {@link PropertySourcesChangedEvent}
+     *
+     * @param event {@link PropertySourcesChangedEvent}
+     * @return <code>null</code> if the changed properties can't be enumerated
+     */
+    static Set<String> getChangedPropertyNames(PropertySourcesChangedEvent event) {
+        Set<String> propertyNames = new HashSet<>();
+        for (PropertySourceChangedEvent subEvent : event.getSubEvents()) {
+            // The new PropertySource presents the added or modified properties, the old one presents the removed,
+            // the replaced PropertySource presents both, thus the names of them are united
+            if (!addPropertyNames(subEvent.getOldPropertySource(), propertyNames)
+                    || !addPropertyNames(subEvent.getNewPropertySource(), propertyNames)) {
+                return null;
+            }
+        }
+        return propertyNames;
+    }
+
+    /**
+     * @return <code>false</code> if the {@link PropertySource} is not {@link EnumerablePropertySource enumerable}
+     */
+    private static boolean addPropertyNames(PropertySource<?> propertySource, Set<String> propertyNames) {
+        if (propertySource == null) {
+            return true;
+        }
+        if (!(propertySource instanceof EnumerablePropertySource)) {
+            return false;
+        }
+        for (String propertyName : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+            propertyNames.add(propertyName);
+        }
+        return true;
+    }
+
+    private static abstract class Slot {
+
+        final TypedPropertyCache cache;
+
+        final String name;
+
+        int index;
+
+        /**
+         * The name of property and the names of its placeholder dependencies, guarded by the cache
+         */
+        Set<String> propertyNames = emptySet();
+
+        Slot(TypedPropertyCache cache, String name) {
+            this.cache = cache;
+            this.name = name;
+        }
+
+        abstract long resolve(PropertyResolver propertyResolver);
+
+        final long value() {
+            return cache.values[index];
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The cached boolean property
+     */
+    public static final class BooleanProperty extends Slot implements BooleanSupplier {
+
+        private final boolean defaultValue;
+
+        private BooleanProperty(TypedPropertyCache cache, String name, boolean defaultValue) {
+            super(cache, name);
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        long resolve(PropertyResolver propertyResolver) {
+            return propertyResolver.getProperty(name, Boolean.class, defaultValue) ? 1L : 0L;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            return value() != 0L;
+        }
+    }
+
+    /**
+     * The cached int property
+     */
+    public static final class IntProperty extends Slot implements IntSupplier {
+
+        private final int defaultValue;
+
+        private IntProperty(TypedPropertyCache cache, String name, int defaultValue) {
+            super(cache, name);
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        long resolve(PropertyResolver propertyResolver) {
+            return propertyResolver.getProperty(name, Integer.class, defaultValue);
+        }
+
+        @Override
+        public int getAsInt() {
+            return (int) value();
+        }
+    }
+
+    /**
+     * The cached long property
+     */
+    public static final class LongProperty extends Slot implements LongSupplier {
+
+        private final long defaultValue;
+
+        private LongProperty(TypedPropertyCache cache, String name, long defaultValue) {
+            super(cache, name);
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        long resolve(PropertyResolver propertyResolver) {
+            return propertyResolver.getProperty(name, Long.class, defaultValue);
+        }
+
+        @Override
+        public long getAsLong() {
+            return value();
+        }
+    }
+
+    /**
+     * The cached double property
+     */
+    public static final class DoubleProperty extends Slot implements DoubleSupplier {
+
+        private final double defaultValue;
+
+        private DoubleProperty(TypedPropertyCache cache, String name, double defaultValue) {
+            super(cache, name);
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        long resolve(PropertyResolver propertyResolver) {
+            return doubleToRawLongBits(propertyResolver.getProperty(name, Double.class, defaultValue));
+        }
+
+        @Override
+        public double getAsDouble() {
+            return longBitsToDouble(value());
+        }
+    }
+}
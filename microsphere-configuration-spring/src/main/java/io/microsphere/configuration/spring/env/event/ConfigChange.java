@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.event;
+
+import org.springframework.core.env.PropertySource;
+
+import java.util.Objects;
+
+/**
+ * The change of a configuration property
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigChangePublisher
+ * @since 1.0.0
+ */
+public class ConfigChange {
+
+    /**
+     * The type of {@link ConfigChange}
+     */
+    public enum Type {
+
+        ADDED,
+
+        MODIFIED,
+
+        DELETED
+    }
+
+    private final String propertySourceName;
+
+    private final String key;
+
+    private final Object oldValue;
+
+    private final Object newValue;
+
+    private final Type type;
+
+    public ConfigChange(String propertySourceName, String key, Object oldValue, Object newValue, Type type) {
+        this.propertySourceName = propertySourceName;
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.type = type;
+    }
+
+    /**
+     * @return the name of the changed {@link PropertySource}
+     */
+    public String getPropertySourceName() {
+        return propertySourceName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the old value, or <code>null</code> if {@link Type#ADDED added} or unknown
+     */
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * @return the new value, or <code>null</code> if {@link Type#DELETED deleted}
+     */
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConfigChange)) return false;
+        ConfigChange that = (ConfigChange) o;
+        return Objects.equals(propertySourceName, that.propertySourceName)
+                && Objects.equals(key, that.key)
+                && Objects.equals(oldValue, that.oldValue)
+                && Objects.equals(newValue, that.newValue)
+                && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(propertySourceName, key, oldValue, newValue, type);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChange{" +
+                "propertySourceName='" + propertySourceName + '\'' +
+                ", key='" + key + '\'' +
+                ", oldValue=" + oldValue +
+                ", newValue=" + newValue +
+                ", type=" + type +
+                '}';
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.event;
+
+import io.microsphere.configuration.spring.env.event.ConfigChange.Type;
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.FluxSink.OverflowStrategy;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Predicate;
+
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.ADDED;
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.DELETED;
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.MODIFIED;
+import static io.microsphere.configuration.spring.env.event.PropertiesDiff.ADDED_PROPERTY_SOURCE_NAME_SUFFIX;
+import static io.microsphere.configuration.spring.env.event.PropertiesDiff.DELETED_PROPERTY_SOURCE_NAME_SUFFIX;
+import static io.microsphere.configuration.spring.env.event.PropertiesDiff.MODIFIED_PROPERTY_SOURCE_NAME_SUFFIX;
+
+/**
+ * The reactive publisher of the {@link ConfigChange ConfigChanges}, which are converted from the key-level
+ * {@link PropertiesDiff} {@link PropertySourcesChangedEvent PropertySourcesChangedEvents}, each subscriber of the
+ * {@link Flux} has its own {@link OverflowStrategy backpressure strategy}:
+ * <ul>
+ *     <li>{@link OverflowStrategy#LATEST} : only the latest change is retained for the slow subscriber</li>
+ *     <li>{@link OverflowStrategy#BUFFER} : all changes are buffered unboundedly</li>
+ *     <li>{@link OverflowStrategy#DROP} : the changes are dropped if the subscriber is not ready</li>
+ * </ul>
+ * The changes are emitted on the {@link Scheduler} ({@link Schedulers#boundedElastic()} as default) rather than the
+ * notification threads, thus the slow subscribers never block the publishers of events, e.g, the etcd watchers or
+ * the Apollo listeners.
+ * <p>
+ * Example Usage:
+ * <pre>{@code
+ * @Bean
+ * public ConfigChangePublisher configChangePublisher() {
+ *     return new ConfigChangePublisher();
+ * }
+ *
+ * configChangePublisher.changesWithPrefix("feature.", OverflowStrategy.LATEST)
+ *                      .subscribe(change -> ...);
+ * }</pre>
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ConfigChange
+ * @see PropertySourcesChangedEvent
+ * @see Flux
+ * @since 1.0.0
+ */
+public class ConfigChangePublisher implements ApplicationListener<PropertySourcesChangedEvent> {
+
+    private final Set<Subscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    private final Scheduler scheduler;
+
+    public ConfigChangePublisher() {
+        this(Schedulers.boundedElastic());
+    }
+
+    public ConfigChangePublisher(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * The {@link Flux} of all {@link ConfigChange ConfigChanges}
+     *
+     * @param overflowStrategy the backpressure strategy
+     * @return non-null
+     */
+    public Flux<ConfigChange> changes(OverflowStrategy overflowStrategy) {
+        return changes(change -> true, overflowStrategy);
+    }
+
+    /**
+     * The {@link Flux} of the {@link ConfigChange ConfigChanges} of the specified {@link PropertySource}
+     *
+     * @param propertySourceName the name of {@link PropertySource}
+     * @param overflowStrategy   the backpressure strategy
+     * @return non-null
+     */
+    public Flux<ConfigChange> changesOf(String propertySourceName, OverflowStrategy overflowStrategy) {
+        return changes(change -> propertySourceName.equals(change.getPropertySourceName()), overflowStrategy);
+    }
+
+    /**
+     * The {@link Flux} of the {@link ConfigChange ConfigChanges} whose keys start with the specified prefix
+     *
+     * @param keyPrefix        the prefix of keys
+     * @param overflowStrategy the backpressure strategy
+     * @return non-null
+     */
+    public Flux<ConfigChange> changesWithPrefix(String keyPrefix, OverflowStrategy overflowStrategy) {
+        return changes(change -> change.getKey().startsWith(keyPrefix), overflowStrategy);
+    }
+
+    /**
+     * The {@link Flux} of the {@link ConfigChange ConfigChanges} matching the filter
+     *
+     * @param filter           the filter of {@link ConfigChange}
+     * @param overflowStrategy the backpressure strategy
+     * @return non-null
+     */
+    public Flux<ConfigChange> changes(Predicate<ConfigChange> filter, OverflowStrategy overflowStrategy) {
+        Flux<ConfigChange> flux = Flux.create(sink -> {
+            Subscription subscription = new Subscription(filter, sink);
+            subscriptions.add(subscription);
+            sink.onDispose(() -> subscriptions.remove(subscription));
+        }, overflowStrategy);
+        // The prefetch is 1, thus the overflow strategy is applied to the pace of subscriber
+        return flux.publishOn(scheduler, 1);
+    }
+
+    /**
+     * @return the count of the active subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onApplicationEvent(PropertySourcesChangedEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        List<ConfigChange> changes = toConfigChanges(event);
+        for (ConfigChange change : changes) {
+            for (Subscription subscription : subscriptions) {
+                subscription.emit(change);
+            }
+        }
+    }
+
+    /**
+     * Convert the {@link PropertySourcesChangedEvent} to the {@link ConfigChange ConfigChanges}, only the key-level
+     * sub-events of {@link PropertiesDiff} are converted, whose {@link PropertySource PropertySources} are suffixed by
+     * {@link PropertiesDiff#ADDED_PROPERTY_SOURCE_NAME_SUFFIX "#added"},
+     * {@link PropertiesDiff#MODIFIED_PROPERTY_SOURCE_NAME_SUFFIX "#modified"} and
+     * {@link PropertiesDiff#DELETED_PROPERTY_SOURCE_NAME_SUFFIX "#deleted"}. The coarse sub-events, e.g, the whole
+     * {@link PropertySource} replaced by the refresher along with the {@link PropertiesDiff}, are ignored, otherwise
+     * the unchanged keys would be reported as modified and the changed ones twice.
+     *
+     * @param event {@link PropertySourcesChangedEvent}
+     * @return non-null
+     */
+    static List<ConfigChange> toConfigChanges(PropertySourcesChangedEvent event) {
+        List<ConfigChange> changes = new ArrayList<>();
+        for (PropertySourceChangedEvent subEvent : event.getSubEvents()) {
+            PropertySource<?> oldPropertySource = subEvent.getOldPropertySource();
+            PropertySource<?> newPropertySource = subEvent.getNewPropertySource();
+            if (newPropertySource == null) {
+                addConfigChanges(oldPropertySource, null, DELETED_PROPERTY_SOURCE_NAME_SUFFIX, DELETED, changes);
+            } else if (oldPropertySource == null) {
+                addConfigChanges(newPropertySource, null, ADDED_PROPERTY_SOURCE_NAME_SUFFIX, ADDED, changes);
+            } else {
+                addConfigChanges(newPropertySource, oldPropertySource, MODIFIED_PROPERTY_SOURCE_NAME_SUFFIX, MODIFIED, changes);
+            }
+        }
+        return changes;
+    }
+
+    private static void addConfigChanges(PropertySource<?> propertySource, PropertySource<?> oldPropertySource,
+                                         String nameSuffix, Type type, List<ConfigChange> changes) {
+        if (!(propertySource instanceof EnumerablePropertySource)) {
+            return;
+        }
+        String name = propertySource.getName();
+        if (!name.endsWith(nameSuffix)) {
+            // Not the sub-event of PropertiesDiff
+            return;
+        }
+        String propertySourceName = name.substring(0, name.length() - nameSuffix.length());
+        for (String key : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+            Object value = propertySource.getProperty(key);
+            ConfigChange change;
+            switch (type) {
+                case DELETED:
+                    change = new ConfigChange(propertySourceName, key, value, null, type);
+                    break;
+                case MODIFIED:
+                    change = new ConfigChange(propertySourceName, key, oldPropertySource.getProperty(key), value, type);
+                    break;
+                default:
+                    change = new ConfigChange(propertySourceName, key, null, value, type);
+                    break;
+            }
+            changes.add(change);
+        }
+    }
+
+    private static class Subscription {
+
+        private final Predicate<ConfigChange> filter;
+
+        private final FluxSink<ConfigChange> sink;
+
+        private Subscription(Predicate<ConfigChange> filter, FluxSink<ConfigChange> sink) {
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        private void emit(ConfigChange change) {
+            if (filter.test(change)) {
+                sink.next(change);
+            }
+        }
+    }
+}
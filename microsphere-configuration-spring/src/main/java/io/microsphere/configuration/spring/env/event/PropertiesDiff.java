@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.event;
+
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.ObjectUtils;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.added;
+import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.removed;
+import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.replaced;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * The key-level difference between the old and new flattened properties, which are classified into the added,
+ * modified and deleted properties, and then could be published as the {@link PropertySourcesChangedEvent} that only
+ * contains the changed keys.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourcesChangedEvent
+ * @see PropertySourceChangedEvent
+ * @since 1.0.0
+ */
+public class PropertiesDiff {
+
+    public static final String ADDED_PROPERTY_SOURCE_NAME_SUFFIX = "#added";
+
+    public static final String MODIFIED_PROPERTY_SOURCE_NAME_SUFFIX = "#modified";
+
+    public static final String DELETED_PROPERTY_SOURCE_NAME_SUFFIX = "#deleted";
+
+    private final Map<String, Object> addedProperties;
+
+    private final Map<String, Object> modifiedProperties;
+
+    private final Map<String, Object> deletedProperties;
+
+    private PropertiesDiff(Map<String, Object> addedProperties, Map<String, Object> modifiedProperties,
+                           Map<String, Object> deletedProperties) {
+        this.addedProperties = unmodifiableMap(addedProperties);
+        this.modifiedProperties = unmodifiableMap(modifiedProperties);
+        this.deletedProperties = unmodifiableMap(deletedProperties);
+    }
+
+    /**
+     * Compare the old and new properties
+     *
+     * @param oldProperties the old properties
+     * @param newProperties the new properties
+     * @return non-null
+     */
+    public static PropertiesDiff diff(Map<String, Object> oldProperties, Map<String, Object> newProperties) {
+        return diff(new MapPropertySource("old", oldProperties), new MapPropertySource("new", newProperties));
+    }
+
+    /**
+     * Compare the properties of the old and new {@link EnumerablePropertySource EnumerablePropertySources}, which
+     * are iterated directly, thus only the changed properties are copied
+     *
+     * @param oldPropertySource the old {@link EnumerablePropertySource}
+     * @param newPropertySource the new {@link EnumerablePropertySource}
+     * @return non-null
+     */
+    public static PropertiesDiff diff(EnumerablePropertySource<?> oldPropertySource,
+                                      EnumerablePropertySource<?> newPropertySource) {
+        Map<String, Object> addedProperties = new HashMap<>();
+        Map<String, Object> modifiedProperties = new HashMap<>();
+        Map<String, Object> deletedProperties = new HashMap<>();
+
+        for (String key : newPropertySource.getPropertyNames()) {
+            Object newValue = newPropertySource.getProperty(key);
+            if (!oldPropertySource.containsProperty(key)) {
+                addedProperties.put(key, newValue);
+            } else if (!ObjectUtils.nullSafeEquals(oldPropertySource.getProperty(key), newValue)) {
+                modifiedProperties.put(key, newValue);
+            }
+        }
+
+        for (String key : oldPropertySource.getPropertyNames()) {
+            if (!newPropertySource.containsProperty(key)) {
+                deletedProperties.put(key, oldPropertySource.getProperty(key));
+            }
+        }
+
+        return new PropertiesDiff(addedProperties, modifiedProperties, deletedProperties);
+    }
+
+    /**
+     * Create an instance from the classified properties
+     *
+     * @param addedProperties    the added properties
+     * @param modifiedProperties the modified properties with new values
+     * @param deletedProperties  the deleted properties
+     * @return non-null
+     */
+    public static PropertiesDiff of(Map<String, Object> addedProperties, Map<String, Object> modifiedProperties,
+                                    Map<String, Object> deletedProperties) {
+        return new PropertiesDiff(addedProperties, modifiedProperties, deletedProperties);
+    }
+
+    /**
+     * @return the added properties
+     */
+    public Map<String, Object> getAddedProperties() {
+        return addedProperties;
+    }
+
+    /**
+     * @return the modified properties with new values
+     */
+    public Map<String, Object> getModifiedProperties() {
+        return modifiedProperties;
+    }
+
+    /**
+     * @return the deleted properties with old values
+     */
+    public Map<String, Object> getDeletedProperties() {
+        return deletedProperties;
+    }
+
+    /**
+     * @return the keys of all changed properties
+     */
+    public Set<String> getChangedKeys() {
+        Set<String> changedKeys = new LinkedHashSet<>(addedProperties.keySet());
+        changedKeys.addAll(modifiedProperties.keySet());
+        changedKeys.addAll(deletedProperties.keySet());
+        return changedKeys;
+    }
+
+    /**
+     * @return <code>true</code> if nothing is changed
+     */
+    public boolean isEmpty() {
+        return addedProperties.isEmpty() && modifiedProperties.isEmpty() && deletedProperties.isEmpty();
+    }
+
+    /**
+     * Create the {@link PropertySourcesChangedEvent} that only contains the changed keys, the names of
+     * {@link PropertySource PropertySources} for the added, modified and deleted properties are suffixed by
+     * {@link #ADDED_PROPERTY_SOURCE_NAME_SUFFIX "#added"}, {@link #MODIFIED_PROPERTY_SOURCE_NAME_SUFFIX "#modified"}
+     * and {@link #DELETED_PROPERTY_SOURCE_NAME_SUFFIX "#deleted"}. The old {@link PropertySource} of the modified
+     * properties only presents the old values of the modified keys, thus the listeners uniting the names of old and
+     * new {@link PropertySource PropertySources} see the changed keys only.
+     *
+     * @param context            {@link ApplicationContext}
+     * @param propertySourceName the name of changed {@link PropertySource}
+     * @param oldPropertySource  the old {@link PropertySource}
+     * @return non-null
+     */
+    public PropertySourcesChangedEvent toEvent(ApplicationContext context, String propertySourceName,
+                                               PropertySource<?> oldPropertySource) {
+        MapPropertySource addedPropertySource = new MapPropertySource(propertySourceName + ADDED_PROPERTY_SOURCE_NAME_SUFFIX, addedProperties);
+        MapPropertySource modifiedPropertySource = new MapPropertySource(propertySourceName + MODIFIED_PROPERTY_SOURCE_NAME_SUFFIX, modifiedProperties);
+        MapPropertySource deletedPropertySource = new MapPropertySource(propertySourceName + DELETED_PROPERTY_SOURCE_NAME_SUFFIX, deletedProperties);
+
+        PropertySourceChangedEvent addEvent = added(context, addedPropertySource);
+        PropertySourceChangedEvent modifiedEvent = replaced(context, getOldModifiedPropertySource(propertySourceName, oldPropertySource),
+                modifiedPropertySource);
+        PropertySourceChangedEvent deletedEvent = removed(context, deletedPropertySource);
+
+        return new PropertySourcesChangedEvent(context, addEvent, modifiedEvent, deletedEvent);
+    }
+
+    private MapPropertySource getOldModifiedPropertySource(String propertySourceName, PropertySource<?> oldPropertySource) {
+        Map<String, Object> oldModifiedProperties = new HashMap<>(modifiedProperties.size());
+        for (String key : modifiedProperties.keySet()) {
+            oldModifiedProperties.put(key, oldPropertySource == null ? null : oldPropertySource.getProperty(key));
+        }
+        String name = oldPropertySource == null ? propertySourceName : oldPropertySource.getName();
+        return new MapPropertySource(name, oldModifiedProperties);
+    }
+
+    @Override
+    public String toString() {
+        return "PropertiesDiff{" +
+                "addedProperties=" + addedProperties +
+                ", modifiedProperties=" + modifiedProperties +
+                ", deletedProperties=" + deletedProperties +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The abstract {@link PropertySourceFactory} parses the structured resource in streaming, and then emits
+ * the flattened properties into {@link FlattenedPropertiesBuilder} directly as it reads, thus no intermediate
+ * tree is materialized.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see FlattenedPropertiesBuilder
+ * @see StreamingJsonPropertySourceFactory
+ * @see StreamingYamlPropertySourceFactory
+ * @since 1.0.0
+ */
+public abstract class AbstractStreamingPropertySourceFactory implements PropertySourceFactory {
+
+    @Override
+    public final PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+        FlattenedPropertiesBuilder builder = createBuilder();
+        try (Reader reader = resource.getReader()) {
+            parse(reader, builder);
+        }
+        String propertySourceName = name == null ? resource.getResource().getDescription() : name;
+        return new MapPropertySource(propertySourceName, builder.getProperties());
+    }
+
+    /**
+     * Create the {@link FlattenedPropertiesBuilder}
+     *
+     * @return non-null
+     */
+    protected FlattenedPropertiesBuilder createBuilder() {
+        return new FlattenedPropertiesBuilder();
+    }
+
+    /**
+     * Parse the content in streaming
+     *
+     * @param reader  {@link Reader} of content
+     * @param builder {@link FlattenedPropertiesBuilder}
+     * @throws IOException if parsing failed
+     */
+    protected abstract void parse(Reader reader, FlattenedPropertiesBuilder builder) throws IOException;
+}
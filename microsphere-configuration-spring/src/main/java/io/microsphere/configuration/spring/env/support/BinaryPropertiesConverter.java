@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import io.microsphere.configuration.spring.env.BinaryPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.DefaultPropertySourceFactory;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.microsphere.configuration.spring.env.PropertySourceUtils.getProperties;
+
+/**
+ * The converter tool precompiles the JSON, YAML and Properties resources into the binary format of
+ * {@link BinaryPropertySource}, which could be loaded by {@link BinaryPropertySourceFactory} without parsing.
+ * <p>
+ * The format of resource is determined by the file extension : ".json", ".yaml" / ".yml", or the Properties
+ * otherwise. The multiple resources are merged in order, the latter wins.
+ * <p>
+ * Usage :
+ * <pre>
+ * java io.microsphere.configuration.spring.env.support.BinaryPropertiesConverter &lt;output&gt; &lt;input&gt;...
+ * </pre>
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see BinaryPropertySource#encode(Map)
+ * @see BinaryPropertySourceFactory
+ * @since 1.0.0
+ */
+public class BinaryPropertiesConverter {
+
+    /**
+     * Convert the resources to be the binary content
+     *
+     * @param resources the JSON, YAML or Properties resources
+     * @return the binary content
+     * @throws IOException if any resource can't be read or parsed
+     */
+    public static byte[] convert(Resource... resources) throws IOException {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (Resource resource : resources) {
+            PropertySource<?> propertySource = getPropertySourceFactory(resource)
+                    .createPropertySource(null, new EncodedResource(resource, "UTF-8"));
+            Map<String, Object> resourceProperties = getProperties(propertySource);
+            if (resourceProperties == null) {
+                throw new IOException("The properties of resource[" + resource.getDescription() + "] can't be enumerated");
+            }
+            properties.putAll(resourceProperties);
+        }
+        return BinaryPropertySource.encode(properties);
+    }
+
+    static PropertySourceFactory getPropertySourceFactory(Resource resource) {
+        String fileName = resource.getFilename();
+        String extension = fileName == null ? "" : fileName.toLowerCase();
+        if (extension.endsWith(".json")) {
+            return new StreamingJsonPropertySourceFactory();
+        } else if (extension.endsWith(".yaml") || extension.endsWith(".yml")) {
+            return new StreamingYamlPropertySourceFactory();
+        }
+        return new DefaultPropertySourceFactory();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : java " + BinaryPropertiesConverter.class.getName() + " <output> <input>...");
+            System.exit(1);
+        }
+        Path output = Paths.get(args[0]);
+        Resource[] resources = new Resource[args.length - 1];
+        for (int i = 1; i < args.length; i++) {
+            resources[i - 1] = new FileSystemResource(args[i]);
+        }
+        byte[] content = convert(resources);
+        Files.write(output, content);
+        System.out.println("The " + resources.length + " resource(s) have been converted to " + output.toAbsolutePath()
+                + " (" + content.length + " bytes)");
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import io.microsphere.configuration.spring.env.BinaryPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * The {@link PropertySourceFactory} creates the {@link BinaryPropertySource} from the resource in the precompiled
+ * binary format without parsing, the file resource is mapped into memory, the others are read into a byte array.
+ * The encoding of {@link EncodedResource} is ignored.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see BinaryPropertySource
+ * @see BinaryPropertiesConverter
+ * @since 1.0.0
+ */
+public class BinaryPropertySourceFactory implements PropertySourceFactory {
+
+    @Override
+    public PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+        Resource binaryResource = resource.getResource();
+        String propertySourceName = name == null ? binaryResource.getDescription() : name;
+        ByteBuffer buffer = read(binaryResource);
+        try {
+            return BinaryPropertySource.of(propertySourceName, buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The resource[" + binaryResource.getDescription() + "] is not a valid binary property source", e);
+        }
+    }
+
+    private ByteBuffer read(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), READ)) {
+                // The mapping remains valid after the channel is closed
+                return channel.map(READ_ONLY, 0, channel.size());
+            }
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return ByteBuffer.wrap(StreamUtils.copyToByteArray(inputStream));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import io.microsphere.configuration.util.StringInterner;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * The {@link PropertySourceFactory} caches the properties parsed by the delegated {@link PropertySourceFactory}
+ * in the {@link ParsedContentCache} keyed by the hash of the resource content, thus the unchanged or shared
+ * contents will not be re-parsed.
+ * <p>
+ * The {@link PropertySource} created by the delegate must be {@link EnumerablePropertySource enumerable} to be cached,
+ * the cached properties are exposed by the {@link MapPropertySource} that is immutable, whose keys and
+ * {@link String} values are {@link StringInterner interned}. The {@link BinaryPropertySourceFactory} is passed
+ * through, whose content is mapped without parsing, neither hashed nor copied.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ParsedContentCache
+ * @see PropertySourceFactory
+ * @since 1.0.0
+ */
+public class CachingPropertySourceFactory implements PropertySourceFactory {
+
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+
+    private final PropertySourceFactory delegate;
+
+    private final ParsedContentCache cache;
+
+    public CachingPropertySourceFactory(PropertySourceFactory delegate) {
+        this(delegate, ParsedContentCache.getDefault());
+    }
+
+    public CachingPropertySourceFactory(PropertySourceFactory delegate, ParsedContentCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public PropertySource<?> createPropertySource(String name, EncodedResource encodedResource) throws IOException {
+        if (delegate instanceof BinaryPropertySourceFactory) {
+            return delegate.createPropertySource(name, encodedResource);
+        }
+        Resource resource = encodedResource.getResource();
+        // The same name whether the properties are cached or not
+        String propertySourceName = name == null ? resource.getDescription() : name;
+        byte[] content = getContent(resource);
+        ParsedContentCache.Key key = new ParsedContentCache.Key(delegate.getClass().getName(),
+                getEncoding(encodedResource), hash(content));
+
+        Map<String, Object> properties = cache.get(key);
+        if (properties != null) {
+            return new MapPropertySource(propertySourceName, properties);
+        }
+
+        Resource contentResource = resource instanceof ByteArrayResource ? resource :
+                new ByteArrayResource(content, resource.getDescription());
+        EncodedResource encodedContentResource = encodedResource.getCharset() == null ?
+                new EncodedResource(contentResource, encodedResource.getEncoding()) :
+                new EncodedResource(contentResource, encodedResource.getCharset());
+        PropertySource<?> propertySource = delegate.createPropertySource(name, encodedContentResource);
+        if (!(propertySource instanceof EnumerablePropertySource)) {
+            return propertySource;
+        }
+        properties = getProperties((EnumerablePropertySource<?>) propertySource);
+        cache.put(key, properties, content.length);
+        return new MapPropertySource(propertySourceName, properties);
+    }
+
+    public PropertySourceFactory getDelegate() {
+        return delegate;
+    }
+
+    public ParsedContentCache getCache() {
+        return cache;
+    }
+
+    static byte[] getContent(Resource resource) throws IOException {
+        if (resource instanceof ByteArrayResource) {
+            return ((ByteArrayResource) resource).getByteArray();
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+    }
+
+    static byte[] hash(byte[] content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+            return messageDigest.digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String getEncoding(EncodedResource encodedResource) {
+        Charset charset = encodedResource.getCharset();
+        return charset == null ? encodedResource.getEncoding() : charset.name();
+    }
+
+    private static Map<String, Object> getProperties(EnumerablePropertySource<?> propertySource) {
+        StringInterner interner = StringInterner.getDefault();
+        String[] propertyNames = propertySource.getPropertyNames();
+        Map<String, Object> properties = new HashMap<>(propertyNames.length);
+        for (String propertyName : propertyNames) {
+            Object propertyValue = propertySource.getProperty(propertyName);
+            if (propertyValue != null) {
+                properties.put(interner.intern(propertyName), interner.internValue(propertyValue));
+            }
+        }
+        return unmodifiableMap(properties);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import io.microsphere.configuration.util.StringInterner;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The builder of the flattened properties, e.g, "a.b[0].c", which is driven by the events of structured documents,
+ * such as JSON tokens or YAML events, thus no intermediate tree is materialized.
+ * <p>
+ * The empty array will be flattened as the empty string value, the empty object will be ignored, that is consistent
+ * with {@link org.springframework.beans.factory.config.YamlProcessor}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see AbstractStreamingPropertySourceFactory
+ * @since 1.0.0
+ */
+public class FlattenedPropertiesBuilder {
+
+    private final StringInterner interner = StringInterner.getDefault();
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * Start an object, e.g, JSON object or YAML mapping
+     */
+    public void startObject() {
+        push(false);
+    }
+
+    /**
+     * Start an array, e.g, JSON array or YAML sequence
+     */
+    public void startArray() {
+        push(true);
+    }
+
+    /**
+     * End current object or array
+     */
+    public void end() {
+        Frame frame = frames.pop();
+        if (frame.array && frame.index == 0 && !frame.path.isEmpty()) {
+            put(frame.path, "");
+        }
+    }
+
+    /**
+     * Set the name of the next property in current object
+     *
+     * @param name the name of property
+     */
+    public void name(String name) {
+        Frame frame = frames.peek();
+        if (frame == null || frame.array) {
+            throw new IllegalStateException("The property name '" + name + "' is not in an object");
+        }
+        frame.name = name;
+    }
+
+    /**
+     * Add the scalar value at the next position, the root scalar will be ignored
+     *
+     * @param value the scalar value
+     */
+    public void value(Object value) {
+        if (frames.isEmpty()) {
+            return;
+        }
+        put(nextKey(), value);
+    }
+
+    /**
+     * Is expecting the name of property or not
+     *
+     * @return <code>true</code> if current is an object and no name is pending
+     */
+    public boolean isExpectingName() {
+        Frame frame = frames.peek();
+        return frame != null && !frame.array && frame.name == null;
+    }
+
+    /**
+     * Get the pending name of property in current object
+     *
+     * @return <code>null</code> if absent
+     */
+    public String getName() {
+        Frame frame = frames.peek();
+        return frame == null ? null : frame.name;
+    }
+
+    /**
+     * Clear the pending name of property in current object
+     */
+    public void clearName() {
+        Frame frame = frames.peek();
+        if (frame != null) {
+            frame.name = null;
+        }
+    }
+
+    /**
+     * Get the path of current object or array
+     *
+     * @return the empty string if current is the root
+     */
+    public String getPath() {
+        Frame frame = frames.peek();
+        return frame == null ? "" : frame.path;
+    }
+
+    /**
+     * @return the depth of current object or array, the root is <code>1</code>
+     */
+    public int getDepth() {
+        return frames.size();
+    }
+
+    /**
+     * Resolve the key of the next position, and then move to the next
+     *
+     * @return the flattened key, e.g, "a.b[0]"
+     */
+    public String nextKey() {
+        Frame frame = frames.peek();
+        if (frame == null) {
+            throw new IllegalStateException("No object or array is started");
+        }
+        if (frame.array) {
+            return frame.path + "[" + (frame.index++) + "]";
+        }
+        String name = frame.name;
+        if (name == null) {
+            throw new IllegalStateException("No property name is present in the object at the path '" + frame.path + "'");
+        }
+        frame.name = null;
+        return join(frame.path, name);
+    }
+
+    /**
+     * Put the flattened property
+     *
+     * @param key   the flattened key
+     * @param value the value
+     */
+    public void put(String key, Object value) {
+        properties.put(interner.intern(key), interner.internValue(value));
+    }
+
+    /**
+     * Put the flattened property if absent
+     *
+     * @param key   the flattened key
+     * @param value the value
+     */
+    public void putIfAbsent(String key, Object value) {
+        if (!properties.containsKey(key)) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * @return the flattened properties in the order of occurrence
+     */
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Join the path and the relative key
+     *
+     * @param path        the path, e.g, "a.b"
+     * @param relativeKey the relative key, e.g, "c", ".c" or "[0]"
+     * @return the joined key, e.g, "a.b.c" or "a.b[0]"
+     */
+    public static String join(String path, String relativeKey) {
+        if (relativeKey.isEmpty()) {
+            return path;
+        }
+        char first = relativeKey.charAt(0);
+        if (path.isEmpty()) {
+            return first == '.' ? relativeKey.substring(1) : relativeKey;
+        }
+        if (first == '.' || first == '[') {
+            return path + relativeKey;
+        }
+        return path + "." + relativeKey;
+    }
+
+    private void push(boolean array) {
+        String path = frames.isEmpty() ? "" : nextKey();
+        frames.push(new Frame(path, array));
+    }
+
+    private static class Frame {
+
+        private final String path;
+
+        private final boolean array;
+
+        private int index;
+
+        private String name;
+
+        private Frame(String path, boolean array) {
+            this.path = path;
+            this.array = array;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import io.microsphere.configuration.spring.env.OffHeapPropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+
+/**
+ * The {@link PropertySourceFactory} converts the {@link EnumerablePropertySource} created by the delegated
+ * {@link PropertySourceFactory} to be {@link OffHeapPropertySource}, the other {@link PropertySource PropertySources}
+ * are returned as they are.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see OffHeapPropertySource
+ * @see PropertySourceFactory
+ * @since 1.0.0
+ */
+public class OffHeapPropertySourceFactory implements PropertySourceFactory {
+
+    private final PropertySourceFactory delegate;
+
+    public OffHeapPropertySourceFactory(PropertySourceFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+        PropertySource<?> propertySource = delegate.createPropertySource(name, resource);
+        if (propertySource instanceof EnumerablePropertySource) {
+            return OffHeapPropertySource.of((EnumerablePropertySource<?>) propertySource);
+        }
+        return propertySource;
+    }
+
+    public PropertySourceFactory getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Integer.getInteger;
+
+/**
+ * The parser parses the {@link EncodedResource resources} by the {@link PropertySourceFactory} in parallel on a
+ * bounded {@link ForkJoinPool}, the results are returned in the same order of the given resources regardless of
+ * the completion order, thus the order of {@link PropertySource PropertySources} is deterministic. The resources of
+ * {@link BinaryPropertySourceFactory} are mapped in the caller thread, since there is nothing to be parsed.
+ * <p>
+ * The parallelism of the {@link #getDefault() default instance} could be configured by the System Property
+ * {@link #PARALLELISM_PROPERTY_NAME "microsphere.configuration.parallel-parsing.parallelism"}, the default value is
+ * the count of available processors.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see PropertySourceFactory
+ * @see ForkJoinPool
+ * @since 1.0.0
+ */
+public class ParallelResourceParser {
+
+    /**
+     * The System Property name of the parallelism of the {@link #getDefault() default instance}
+     */
+    public static final String PARALLELISM_PROPERTY_NAME = "microsphere.configuration.parallel-parsing.parallelism";
+
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final String THREAD_NAME_PREFIX = "microsphere-configuration-parser-";
+
+    private static final ParallelResourceParser DEFAULT = new ParallelResourceParser(
+            getInteger(PARALLELISM_PROPERTY_NAME, DEFAULT_PARALLELISM));
+
+    private final ForkJoinPool pool;
+
+    public ParallelResourceParser(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be positive : " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism, new ParserThreadFactory(), null, false);
+    }
+
+    /**
+     * Get the default instance shared in the JVM
+     *
+     * @return non-null
+     */
+    public static ParallelResourceParser getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Parse the resources in parallel
+     *
+     * @param factory   {@link PropertySourceFactory}
+     * @param resources the resources to be parsed
+     * @return the {@link PropertySource PropertySources} in the same order of the given resources
+     * @throws IOException if any resource can't be parsed
+     */
+    @SuppressWarnings("unchecked")
+    public PropertySource<?>[] parse(PropertySourceFactory factory, EncodedResource... resources) throws IOException {
+        int size = resources.length;
+        PropertySource<?>[] propertySources = new PropertySource<?>[size];
+        if (size == 0) {
+            return propertySources;
+        }
+
+        if (factory instanceof BinaryPropertySourceFactory) {
+            for (int i = 0; i < size; i++) {
+                propertySources[i] = factory.createPropertySource(null, resources[i]);
+            }
+            return propertySources;
+        }
+
+        ForkJoinTask<PropertySource<?>>[] tasks = new ForkJoinTask[size];
+        for (int i = 0; i < size; i++) {
+            EncodedResource resource = resources[i];
+            tasks[i] = pool.submit(() -> factory.createPropertySource(null, resource));
+        }
+
+        IOException exception = null;
+        for (int i = 0; i < size; i++) {
+            try {
+                propertySources[i] = tasks[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(tasks, i);
+                throw new IOException("The parallel parsing is interrupted", e);
+            } catch (ExecutionException e) {
+                if (exception == null) {
+                    Throwable cause = e.getCause();
+                    exception = cause instanceof IOException ? (IOException) cause :
+                            new IOException("The resource can't be parsed : " + resources[i], cause);
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+
+        return propertySources;
+    }
+
+    /**
+     * @return the parallelism of this parser
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    private static void cancel(ForkJoinTask<?>[] tasks, int fromIndex) {
+        for (int i = fromIndex; i < tasks.length; i++) {
+            tasks[i].cancel(true);
+        }
+    }
+
+    private static class ParserThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The bounded cache of the parsed properties, which is keyed by the hash of the resource content,
+ * the least-recently-used entries will be evicted when the count of entries exceeds {@link #getMaxEntries()}
+ * or the total bytes of raw contents exceeds {@link #getMaxBytes()}.
+ * <p>
+ * The bytes bound the raw contents rather than the heap retained by the parsed properties, which is usually a few
+ * times larger, thus the bounds should be tuned with the memory budget of the application.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see CachingPropertySourceFactory
+ * @since 1.0.0
+ */
+public class ParsedContentCache {
+
+    /**
+     * The System Property name of the max entries of the default {@link ParsedContentCache}
+     */
+    public static final String MAX_ENTRIES_PROPERTY_NAME = "microsphere.configuration.parsed-content-cache.max-entries";
+
+    /**
+     * The System Property name of the max bytes of the default {@link ParsedContentCache}
+     */
+    public static final String MAX_BYTES_PROPERTY_NAME = "microsphere.configuration.parsed-content-cache.max-bytes";
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+    private static final ParsedContentCache DEFAULT = new ParsedContentCache(
+            Integer.getInteger(MAX_ENTRIES_PROPERTY_NAME, DEFAULT_MAX_ENTRIES),
+            Long.getLong(MAX_BYTES_PROPERTY_NAME, DEFAULT_MAX_BYTES));
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private long bytes;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public ParsedContentCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        // access-order for LRU
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get the default {@link ParsedContentCache} shared in the JVM
+     *
+     * @return non-null
+     */
+    public static ParsedContentCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the parsed properties by the key
+     *
+     * @param key {@link Key}
+     * @return <code>null</code> if absent
+     */
+    public Map<String, Object> get(Key key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.properties;
+    }
+
+    /**
+     * Put the parsed properties
+     *
+     * @param key        {@link Key}
+     * @param properties the parsed properties, it should be immutable
+     * @param rawBytes   the size of the raw content in bytes
+     */
+    public void put(Key key, Map<String, Object> properties, long rawBytes) {
+        if (rawBytes > maxBytes) {
+            // Too large to be cached
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(properties, rawBytes));
+            if (previous != null) {
+                bytes -= previous.rawBytes;
+            }
+            bytes += rawBytes;
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.rawBytes;
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * Clear all entries
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the total bytes of raw contents of cached entries
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the hit rate in [0, 1], or <code>0</code> if never requested
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ParsedContentCache{" +
+                "size=" + size() +
+                ", bytes=" + getBytes() +
+                ", maxEntries=" + maxEntries +
+                ", maxBytes=" + maxBytes +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", evictionCount=" + getEvictionCount() +
+                '}';
+    }
+
+    /**
+     * The key of {@link ParsedContentCache}, which is composed by the parser, the encoding and the hash of content.
+     */
+    public static final class Key {
+
+        private final String parser;
+
+        private final String encoding;
+
+        private final byte[] contentHash;
+
+        private final int hashCode;
+
+        public Key(String parser, String encoding, byte[] contentHash) {
+            this.parser = parser;
+            this.encoding = encoding;
+            this.contentHash = contentHash;
+            int result = parser.hashCode();
+            result = 31 * result + (encoding == null ? 0 : encoding.hashCode());
+            result = 31 * result + Arrays.hashCode(contentHash);
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return parser.equals(that.parser)
+                    && (encoding == null ? that.encoding == null : encoding.equals(that.encoding))
+                    && Arrays.equals(contentHash, that.contentHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Map<String, Object> properties;
+
+        private final long rawBytes;
+
+        private Entry(Map<String, Object> properties, long rawBytes) {
+            this.properties = properties;
+            this.rawBytes = rawBytes;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The streaming JSON {@link PropertySourceFactory} based on the Jackson tokens.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see JsonParser
+ * @see AbstractStreamingPropertySourceFactory
+ * @since 1.0.0
+ */
+public class StreamingJsonPropertySourceFactory extends AbstractStreamingPropertySourceFactory {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    protected void parse(Reader reader, FlattenedPropertiesBuilder builder) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(reader)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case START_OBJECT:
+                        builder.startObject();
+                        break;
+                    case START_ARRAY:
+                        builder.startArray();
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        builder.end();
+                        break;
+                    case FIELD_NAME:
+                        builder.name(parser.getCurrentName());
+                        break;
+                    case VALUE_STRING:
+                        builder.value(parser.getText());
+                        break;
+                    case VALUE_NUMBER_INT:
+                    case VALUE_NUMBER_FLOAT:
+                        builder.value(parser.getNumberValue());
+                        break;
+                    case VALUE_TRUE:
+                        builder.value(Boolean.TRUE);
+                        break;
+                    case VALUE_FALSE:
+                        builder.value(Boolean.FALSE);
+                        break;
+                    case VALUE_NULL:
+                        builder.value("");
+                        break;
+                    case VALUE_EMBEDDED_OBJECT:
+                        builder.value(parser.getEmbeddedObject());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+}
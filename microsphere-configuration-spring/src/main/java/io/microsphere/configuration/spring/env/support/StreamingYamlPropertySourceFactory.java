@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import org.springframework.core.io.support.PropertySourceFactory;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.microsphere.configuration.spring.env.support.FlattenedPropertiesBuilder.join;
+
+/**
+ * The streaming YAML {@link PropertySourceFactory} based on the SnakeYAML events.
+ * <p>
+ * The anchors, aliases and merge keys ("<<") are supported, the multiple documents are merged in order,
+ * the latter wins. The complex mapping keys are not supported.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see Yaml#parse(Reader)
+ * @see AbstractStreamingPropertySourceFactory
+ * @since 1.0.0
+ */
+public class StreamingYamlPropertySourceFactory extends AbstractStreamingPropertySourceFactory {
+
+    private static final String MERGE_KEY = "<<";
+
+    @Override
+    protected FlattenedPropertiesBuilder createBuilder() {
+        return new YamlPropertiesBuilder();
+    }
+
+    @Override
+    protected void parse(Reader reader, FlattenedPropertiesBuilder builder) throws IOException {
+        YamlPropertiesBuilder yamlBuilder = (YamlPropertiesBuilder) builder;
+        Yaml yaml = new Yaml();
+        for (Event event : yaml.parse(reader)) {
+            if (event instanceof ScalarEvent) {
+                yamlBuilder.onScalar((ScalarEvent) event);
+            } else if (event instanceof AliasEvent) {
+                yamlBuilder.onAlias((AliasEvent) event);
+            } else if (event instanceof MappingStartEvent) {
+                yamlBuilder.onCollectionStart((CollectionStartEvent) event, false);
+            } else if (event instanceof SequenceStartEvent) {
+                yamlBuilder.onCollectionStart((CollectionStartEvent) event, true);
+            } else if (event instanceof MappingEndEvent || event instanceof SequenceEndEvent) {
+                yamlBuilder.onCollectionEnd();
+            }
+        }
+    }
+
+    private static class YamlPropertiesBuilder extends FlattenedPropertiesBuilder {
+
+        /**
+         * The anchored values, the value is the scalar or the {@link Map} of relative keys for the collection
+         */
+        private final Map<String, Object> anchors = new HashMap<>();
+
+        private final List<Recorder> recorders = new ArrayList<>();
+
+        /**
+         * The depth of the sequence in the merge key, or <code>0</code>
+         */
+        private int mergeSequenceDepth;
+
+        void onScalar(ScalarEvent event) {
+            String value = event.getValue();
+            if (isExpectingName()) {
+                name(value);
+                return;
+            }
+            Object scalar = isNull(event) ? "" : value;
+            String anchor = event.getAnchor();
+            if (anchor != null) {
+                anchors.put(anchor, scalar);
+            }
+            value(scalar);
+        }
+
+        @SuppressWarnings("unchecked")
+        void onAlias(AliasEvent event) {
+            String anchor = event.getAnchor();
+            if (!anchors.containsKey(anchor)) {
+                throw new IllegalStateException("The anchor '" + anchor + "' is not found");
+            }
+            Object anchored = anchors.get(anchor);
+            if (isExpectingName()) {
+                if (anchored instanceof Map) {
+                    throw new IllegalStateException("The complex mapping key is not supported");
+                }
+                name(String.valueOf(anchored));
+            } else if (isInMergeSequence()) {
+                merge(anchored);
+            } else if (MERGE_KEY.equals(getName())) {
+                clearName();
+                merge(anchored);
+            } else {
+                String key = nextKey();
+                if (anchored instanceof Map) {
+                    for (Map.Entry<String, Object> entry : ((Map<String, Object>) anchored).entrySet()) {
+                        put(join(key, entry.getKey()), entry.getValue());
+                    }
+                } else {
+                    put(key, anchored);
+                }
+            }
+        }
+
+        void onCollectionStart(CollectionStartEvent event, boolean sequence) {
+            if (isExpectingName()) {
+                throw new IllegalStateException("The complex mapping key is not supported");
+            }
+            if (sequence && MERGE_KEY.equals(getName())) {
+                // The sequence of aliases in the merge key, e.g, "<<: [*a, *b]"
+                clearName();
+                mergeSequenceDepth = getDepth();
+                return;
+            }
+            if (sequence) {
+                startArray();
+            } else {
+                startObject();
+            }
+            String anchor = event.getAnchor();
+            if (anchor != null) {
+                recorders.add(new Recorder(anchor, getPath(), getDepth()));
+            }
+        }
+
+        void onCollectionEnd() {
+            if (isInMergeSequence()) {
+                mergeSequenceDepth = 0;
+                return;
+            }
+            int depth = getDepth();
+            end();
+            Iterator<Recorder> iterator = recorders.iterator();
+            while (iterator.hasNext()) {
+                Recorder recorder = iterator.next();
+                if (recorder.depth == depth) {
+                    anchors.put(recorder.anchor, recorder.properties);
+                    iterator.remove();
+                }
+            }
+        }
+
+        @Override
+        public void put(String key, Object value) {
+            super.put(key, value);
+            for (int i = 0; i < recorders.size(); i++) {
+                recorders.get(i).record(key, value);
+            }
+        }
+
+        private boolean isInMergeSequence() {
+            return mergeSequenceDepth > 0 && mergeSequenceDepth == getDepth();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void merge(Object anchored) {
+            if (!(anchored instanceof Map)) {
+                throw new IllegalStateException("The merge key only supports the alias of mapping");
+            }
+            String path = getPath();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) anchored).entrySet()) {
+                // The explicit keys win
+                putIfAbsent(join(path, entry.getKey()), entry.getValue());
+            }
+        }
+
+        private static boolean isNull(ScalarEvent event) {
+            return event.getImplicit().canOmitTagInPlainScalar() && Resolver.NULL.matcher(event.getValue()).matches();
+        }
+    }
+
+    private static class Recorder {
+
+        private final String anchor;
+
+        private final String prefix;
+
+        private final int depth;
+
+        private final Map<String, Object> properties = new LinkedHashMap<>();
+
+        private Recorder(String anchor, String prefix, int depth) {
+            this.anchor = anchor;
+            this.prefix = prefix;
+            this.depth = depth;
+        }
+
+        private void record(String key, Object value) {
+            if (!key.startsWith(prefix)) {
+                return;
+            }
+            String relativeKey = key.substring(prefix.length());
+            if (prefix.isEmpty() || relativeKey.isEmpty() || relativeKey.charAt(0) == '.' || relativeKey.charAt(0) == '[') {
+                properties.put(relativeKey, value);
+            }
+        }
+    }
+}
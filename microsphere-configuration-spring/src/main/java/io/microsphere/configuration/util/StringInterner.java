@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.util;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.System.getProperty;
+
+/**
+ * The weak canonicalization table of {@link String Strings}, the equal keys and values of properties shared by the
+ * snapshots and the {@link org.springframework.core.env.PropertySource PropertySources}, e.g, "spring.*" and the
+ * common defaults, are deduplicated to one instance, which is reclaimable once it's not referenced by any property.
+ * <p>
+ * Unlike {@link String#intern()}, the table is in heap and is segmented to reduce the contention. The interning
+ * could be disabled by the System Property {@link #ENABLED_PROPERTY_NAME
+ * "microsphere.configuration.string-interner.enabled"}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see WeakHashMap
+ * @since 1.0.0
+ */
+public class StringInterner {
+
+    /**
+     * The System Property name to enable the interning or not
+     */
+    public static final String ENABLED_PROPERTY_NAME = "microsphere.configuration.string-interner.enabled";
+
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private static final StringInterner DEFAULT = new StringInterner(DEFAULT_SEGMENTS,
+            parseBoolean(getProperty(ENABLED_PROPERTY_NAME, "true")));
+
+    private final Map<String, WeakReference<String>>[] segments;
+
+    private final boolean enabled;
+
+    public StringInterner(int segments) {
+        this(segments, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringInterner(int segments, boolean enabled) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("The segments must be positive : " + segments);
+        }
+        this.segments = new Map[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new WeakHashMap<>();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the default instance shared in the JVM
+     *
+     * @return non-null
+     */
+    public static StringInterner getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Intern the {@link String}
+     *
+     * @param value the {@link String}
+     * @return the canonical instance equal to the value, or <code>null</code> if the value is <code>null</code>
+     */
+    public String intern(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+        Map<String, WeakReference<String>> segment = segmentFor(value);
+        synchronized (segment) {
+            WeakReference<String> reference = segment.get(value);
+            String canonical = reference == null ? null : reference.get();
+            if (canonical == null) {
+                segment.put(value, new WeakReference<>(value));
+                canonical = value;
+            }
+            return canonical;
+        }
+    }
+
+    /**
+     * Intern the value if it's a {@link String}
+     *
+     * @param value the value of property
+     * @return the canonical {@link String} or the value itself
+     */
+    public Object internValue(Object value) {
+        return value instanceof String ? intern((String) value) : value;
+    }
+
+    /**
+     * Create a copy of properties whose keys and {@link String} values are interned
+     *
+     * @param properties the properties
+     * @return the mutable copy
+     */
+    public Map<String, Object> intern(Map<String, Object> properties) {
+        Map<String, Object> internedProperties = new HashMap<>(properties.size());
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            internedProperties.put(intern(entry.getKey()), internValue(entry.getValue()));
+        }
+        return internedProperties;
+    }
+
+    /**
+     * @return the count of canonical instances, including the ones that are reclaimed but not expunged
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, WeakReference<String>> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return <code>true</code> if the interning is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private Map<String, WeakReference<String>> segmentFor(String value) {
+        int hash = value.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.watch;
+
+import io.microsphere.logging.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static io.microsphere.logging.LoggerFactory.getLogger;
+
+/**
+ * The process-wide hub deduplicates the identical subscriptions of configuration backends, e.g, the etcd keys and
+ * Zookeeper paths declared by the multiple {@link org.springframework.context.ApplicationContext ApplicationContexts}
+ * in one JVM (the parent/child contexts, the Spring Cloud bootstrap context and the plugin contexts):
+ * <ul>
+ *     <li>The {@link #subscribe(String, String, Consumer, WatchFactory) watches} of the same backend key are merged
+ *     into one backend watch, whose events are fanned out to all subscribers, the backend watch is closed when the
+ *     last {@link Subscription} is closed.</li>
+ *     <li>The concurrent {@link #fetch(String, String, Supplier) fetches} of the same backend key are coalesced into
+ *     one in-flight fetch.</li>
+ * </ul>
+ * The key should identify the backend cluster and the watched target, e.g, "endpoints@key".
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class WatchSubscriptionHub {
+
+    private static final Logger logger = getLogger(WatchSubscriptionHub.class);
+
+    private static final WatchSubscriptionHub DEFAULT = new WatchSubscriptionHub();
+
+    private final Map<String, SharedWatch<?>> watches = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CompletableFuture<?>> fetches = new ConcurrentHashMap<>();
+
+    /**
+     * Get the default instance shared in the JVM
+     *
+     * @return non-null
+     */
+    public static WatchSubscriptionHub getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Subscribe the events of the backend key, the backend watch will be created by the {@link WatchFactory} if
+     * the key has not been watched.
+     *
+     * @param backend      the name of configuration backend, e.g, "etcd"
+     * @param key          the key of watch within the backend
+     * @param listener     the listener of events
+     * @param watchFactory the factory to create the backend watch
+     * @param <E>          the type of events
+     * @return non-null
+     * @throws Exception if the backend watch can't be created
+     */
+    @SuppressWarnings("unchecked")
+    public <E> Subscription subscribe(String backend, String key, Consumer<E> listener,
+                                      WatchFactory<E> watchFactory) throws Exception {
+        String id = buildId(backend, key);
+        synchronized (watches) {
+            SharedWatch<E> watch = (SharedWatch<E>) watches.get(id);
+            if (watch == null) {
+                watch = new SharedWatch<>(id);
+                watch.handle = watchFactory.watch(watch::fanOut);
+                watches.put(id, watch);
+            }
+            watch.listeners.add(listener);
+            SharedWatch<E> subscribedWatch = watch;
+            return () -> unsubscribe(subscribedWatch, listener);
+        }
+    }
+
+    /**
+     * Fetch the value of backend key, the concurrent fetches of the same key share the in-flight one
+     *
+     * @param backend the name of configuration backend, e.g, "etcd"
+     * @param key     the key of fetch within the backend
+     * @param fetcher the supplier of the future fetching the value
+     * @param <T>     the type of value
+     * @return the in-flight future
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> fetch(String backend, String key, Supplier<CompletableFuture<T>> fetcher) {
+        String id = buildId(backend, key);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> inFlight = (CompletableFuture<T>) fetches.putIfAbsent(id, future);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            fetcher.get().whenComplete((value, error) -> {
+                fetches.remove(id, future);
+                if (error == null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            fetches.remove(id, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return the count of the backend watches
+     */
+    public int getWatchCount() {
+        return watches.size();
+    }
+
+    /**
+     * Get the count of subscribers of the backend key
+     *
+     * @param backend the name of configuration backend, e.g, "etcd"
+     * @param key     the key of watch within the backend
+     * @return the count of subscribers
+     */
+    public int getSubscriberCount(String backend, String key) {
+        SharedWatch<?> watch = watches.get(buildId(backend, key));
+        return watch == null ? 0 : watch.listeners.size();
+    }
+
+    private <E> void unsubscribe(SharedWatch<E> watch, Consumer<E> listener) {
+        synchronized (watches) {
+            if (!watch.listeners.remove(listener) || !watch.listeners.isEmpty()) {
+                return;
+            }
+            watches.remove(watch.id, watch);
+        }
+        try {
+            watch.handle.close();
+        } catch (Exception e) {
+            logger.warn("The backend watch[{}] can't be closed, caused by : {}", watch.id, e.getMessage());
+        }
+    }
+
+    private static String buildId(String backend, String key) {
+        return backend + ":" + key;
+    }
+
+    /**
+     * The factory to create the backend watch
+     *
+     * @param <E> the type of events
+     */
+    @FunctionalInterface
+    public interface WatchFactory<E> {
+
+        /**
+         * Create the backend watch
+         *
+         * @param dispatcher the dispatcher of events to all subscribers
+         * @return the handle to close the backend watch
+         * @throws Exception if any error occurs
+         */
+        AutoCloseable watch(Consumer<E> dispatcher) throws Exception;
+    }
+
+    /**
+     * The subscription of the backend key
+     */
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+
+        /**
+         * Unsubscribe, the backend watch will be closed if no subscriber
+         */
+        @Override
+        void close();
+    }
+
+    private static class SharedWatch<E> {
+
+        private final String id;
+
+        private final List<Consumer<E>> listeners = new CopyOnWriteArrayList<>();
+
+        private AutoCloseable handle;
+
+        private SharedWatch(String id) {
+            this.id = id;
+        }
+
+        private void fanOut(E event) {
+            for (Consumer<E> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    logger.warn("The listener of backend watch[{}] failed to handle the event, caused by : {}", id,
+                            e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.compression;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static io.microsphere.configuration.compression.CompressionFormat.GZIP;
+import static io.microsphere.configuration.compression.CompressionFormat.LZ4;
+import static io.microsphere.configuration.compression.CompressionFormat.ZSTD;
+import static io.microsphere.configuration.compression.CompressionUtils.compress;
+import static io.microsphere.configuration.compression.CompressionUtils.decompress;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link CompressionUtils} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class CompressionUtilsTest {
+
+    private static final String CONTENT = "{ \"my.name\": \"mercyblitz\", \"my.country\": \"China\" }";
+
+    @Test
+    public void testDecompressOnRawContent() throws IOException {
+        byte[] content = CONTENT.getBytes(UTF_8);
+        assertSame(content, decompress(content));
+        assertNull(decompress(null));
+        assertNull(CompressionFormat.detect(content));
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        assertRoundTrip(GZIP);
+    }
+
+    @Test
+    public void testLz4() throws IOException {
+        assertTrue(LZ4.isAvailable());
+        assertRoundTrip(LZ4);
+    }
+
+    @Test
+    public void testZstd() throws IOException {
+        assertTrue(ZSTD.isAvailable());
+        assertRoundTrip(ZSTD);
+    }
+
+    @Test
+    public void testDecompressOnExceedingLimit() throws IOException {
+        // The highly compressible content, e.g, a decompression bomb
+        byte[] content = new byte[1024 * 1024];
+        for (CompressionFormat format : CompressionFormat.values()) {
+            byte[] compressed = compress(content, format);
+            assertArrayEquals(content, decompress(compressed, content.length));
+            try {
+                decompress(compressed, content.length - 1);
+                fail("The decompressed content exceeds the limit : " + format);
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("exceeds"));
+            }
+        }
+    }
+
+    private void assertRoundTrip(CompressionFormat format) throws IOException {
+        byte[] compressed = compress(CONTENT, UTF_8, format);
+        assertEquals(format, CompressionFormat.detect(compressed));
+        assertArrayEquals(CONTENT.getBytes(UTF_8), decompress(compressed));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.concurrent;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static io.microsphere.configuration.concurrent.ConfigurationExecutors.newExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SerialExecutor} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class SerialExecutorTest {
+
+    @Test
+    public void testExecuteInOrder() throws InterruptedException {
+        ExecutorService executorService = newExecutor("test-", 4);
+        try {
+            SerialExecutor executor = new SerialExecutor(executorService);
+            int size = 100;
+            List<Integer> results = new CopyOnWriteArrayList<>();
+            CountDownLatch latch = new CountDownLatch(size);
+            for (int i = 0; i < size; i++) {
+                int value = i;
+                executor.execute(() -> {
+                    results.add(value);
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(5, SECONDS));
+            for (int i = 0; i < size; i++) {
+                assertEquals(Integer.valueOf(i), results.get(i));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
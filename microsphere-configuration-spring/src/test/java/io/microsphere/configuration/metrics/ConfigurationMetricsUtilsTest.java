@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.metrics;
+
+import org.junit.Test;
+
+import static io.microsphere.configuration.metrics.ConfigurationMetricsUtils.getConfigurationMetrics;
+import static io.microsphere.configuration.metrics.ConfigurationMetricsUtils.loadConfigurationMetrics;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link ConfigurationMetricsUtils} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class ConfigurationMetricsUtilsTest {
+
+    @Test
+    public void testGetConfigurationMetrics() {
+        ConfigurationMetrics metrics = getConfigurationMetrics();
+        assertSame(NoOpConfigurationMetrics.INSTANCE, metrics);
+        assertSame(metrics, getConfigurationMetrics());
+    }
+
+    @Test
+    public void testLoadConfigurationMetrics() {
+        assertSame(NoOpConfigurationMetrics.INSTANCE, loadConfigurationMetrics(getClass().getClassLoader()));
+    }
+}
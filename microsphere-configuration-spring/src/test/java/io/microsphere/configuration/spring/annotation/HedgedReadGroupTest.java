@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup.VersionedResources;
+import org.junit.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link HedgedReadGroup} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class HedgedReadGroupTest {
+
+    @Test
+    public void testPrimary() {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        assertTrue(group.isPrimary("etcd"));
+
+        group.register("zookeeper", 1, resourceValue -> completedFuture(null));
+        group.register("etcd", 0, resourceValue -> completedFuture(null));
+        assertEquals(2, group.size());
+        assertTrue(group.isPrimary("etcd"));
+        assertFalse(group.isPrimary("zookeeper"));
+    }
+
+    @Test
+    public void testRegisterOnDuplicatedMember() {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        group.register("etcd", 0, resourceValue -> completedFuture(null));
+        try {
+            group.register("etcd", 1, resourceValue -> completedFuture(null));
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(1, group.size());
+        }
+        try {
+            group.checkMember("etcd");
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterOnUnnamedMember() {
+        new HedgedReadGroup("test").register("", 0, resourceValue -> completedFuture(null));
+    }
+
+    @Test
+    public void testGroupsScopedByEnvironment() {
+        Environment environment = new StandardEnvironment();
+        Environment anotherEnvironment = new StandardEnvironment();
+        HedgedReadGroup group = HedgedReadGroup.getGroup(environment, "test");
+        assertSame(group, HedgedReadGroup.getGroup(environment, "test"));
+        assertSame(group, HedgedReadGroup.findGroup(environment, "test"));
+        assertNull(HedgedReadGroup.findGroup(anotherEnvironment, "test"));
+
+        group.register("etcd", 0, resourceValue -> completedFuture(null));
+        group.resolve();
+        // The context created later has its own group
+        HedgedReadGroup anotherGroup = HedgedReadGroup.getGroup(anotherEnvironment, "test");
+        anotherGroup.register("zookeeper", 0, resourceValue -> completedFuture(null));
+        assertTrue(anotherGroup.isPrimary("zookeeper"));
+
+        HedgedReadGroup.removeGroups(environment);
+        HedgedReadGroup.removeGroups(anotherEnvironment);
+        assertNull(HedgedReadGroup.findGroup(environment, "test"));
+    }
+
+    @Test
+    public void testPrimaryWins() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        VersionedResources primary = versionedResources("primary", 1);
+        AtomicInteger secondaryReads = new AtomicInteger();
+        group.register("primary", 0, resourceValue -> completedFuture(primary));
+        group.register("secondary", 1, resourceValue -> {
+            secondaryReads.incrementAndGet();
+            return completedFuture(versionedResources("secondary", 1));
+        });
+
+        assertSame(primary, group.read("/config", 1000).get());
+        assertEquals(0, secondaryReads.get());
+    }
+
+    @Test
+    public void testHedge() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        VersionedResources secondary = versionedResources("secondary", 1);
+        // The stalled primary
+        group.register("primary", 0, resourceValue -> new CompletableFuture<>());
+        group.register("secondary", 1, resourceValue -> completedFuture(secondary));
+
+        assertSame(secondary, group.read("/config", 10).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        VersionedResources secondary = versionedResources("secondary", 1);
+        group.register("primary", 0, resourceValue -> {
+            throw new IllegalStateException("For testing");
+        });
+        group.register("secondary", 1, resourceValue -> completedFuture(secondary));
+
+        // The secondary is read without waiting for the hedge delay
+        assertSame(secondary, group.read("/config", 60000).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStaleVersion() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        AtomicInteger version = new AtomicInteger(10);
+        group.register("primary", 0, resourceValue -> completedFuture(versionedResources("primary", version.get())));
+
+        assertEquals(10, group.read("/config", 10).get().getVersion());
+        version.set(5);
+        try {
+            group.read("/config", 10).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // The versions are checked per resource
+        assertEquals(5, group.read("/other", 10).get().getVersion());
+    }
+
+    @Test
+    public void testLoserVersionNotAccepted() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        CompletableFuture<VersionedResources> stalledPrimary = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<VersionedResources>> primaryResponse = new AtomicReference<>(stalledPrimary);
+        group.register("primary", 0, resourceValue -> primaryResponse.get());
+        group.register("secondary", 1, resourceValue -> completedFuture(versionedResources("secondary", 10)));
+
+        assertEquals(10, group.read("/config", 10).get(5, TimeUnit.SECONDS).getVersion());
+        // The late response of the loser is not accepted
+        stalledPrimary.complete(versionedResources("primary", 100));
+
+        primaryResponse.set(completedFuture(versionedResources("primary", 50)));
+        assertEquals(50, group.read("/config", 10).get(5, TimeUnit.SECONDS).getVersion());
+    }
+
+    @Test
+    public void testUnknownVersion() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        AtomicInteger version = new AtomicInteger(10);
+        group.register("primary", 0, resourceValue -> completedFuture(versionedResources("primary", version.get())));
+
+        assertEquals(10, group.read("/config", 10).get().getVersion());
+        version.set(-1);
+        assertEquals(-1, group.read("/config", 10).get().getVersion());
+    }
+
+    @Test
+    public void testResolve() {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        group.register("etcd", 0, resourceValue -> completedFuture(null));
+        group.resolve();
+        assertTrue(group.contains("etcd"));
+        assertFalse(group.contains("zookeeper"));
+        group.checkMember("etcd");
+
+        try {
+            group.register("zookeeper", 0, resourceValue -> completedFuture(null));
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(1, group.size());
+            assertTrue(group.isPrimary("etcd"));
+        }
+        try {
+            group.checkMember("zookeeper");
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testAbsent() throws Exception {
+        HedgedReadGroup group = new HedgedReadGroup("test");
+        group.register("primary", 0, resourceValue -> completedFuture(new VersionedResources(null, -1)));
+        group.register("secondary", 1, resourceValue -> {
+            CompletableFuture<VersionedResources> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("For testing"));
+            return future;
+        });
+        assertNull(group.read("/config", 10).get(5, TimeUnit.SECONDS));
+        assertNull(new HedgedReadGroup("empty").read("/config", 10).get());
+    }
+
+    private static VersionedResources versionedResources(String content, long version) {
+        return new VersionedResources(new Resource[]{new ByteArrayResource(content.getBytes())}, version);
+    }
+}
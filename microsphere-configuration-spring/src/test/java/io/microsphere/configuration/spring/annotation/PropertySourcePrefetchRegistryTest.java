@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.annotation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link PropertySourcePrefetchRegistry} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class PropertySourcePrefetchRegistryTest {
+
+    private PropertySourcePrefetchRegistry registry;
+
+    @Before
+    public void init() {
+        registry = new PropertySourcePrefetchRegistry(2);
+    }
+
+    @After
+    public void destroy() {
+        registry.clear();
+    }
+
+    @Test
+    public void testPrefetchAndTake() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        CompletableFuture<String> future = registry.prefetch("test", "key", () -> "value-" + counter.incrementAndGet());
+        assertSame(future, registry.prefetch("test", "key", () -> "value-" + counter.incrementAndGet()));
+        assertEquals(1, registry.size());
+
+        CompletableFuture<String> takenFuture = registry.take("test", "key");
+        assertSame(future, takenFuture);
+        assertEquals("value-1", takenFuture.get());
+        assertEquals(1, counter.get());
+        assertEquals(0, registry.size());
+        assertNull(registry.take("test", "key"));
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        CompletableFuture<String> future = CompletableFuture.completedFuture("value");
+        assertSame(future, registry.register("test", "key", () -> future));
+        assertNull(registry.take("other", "key"));
+        assertEquals("value", registry.<String>take("test", "key").get());
+    }
+
+    @Test
+    public void testScopedByBeanFactory() {
+        BeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanFactory anotherBeanFactory = new DefaultListableBeanFactory();
+        PropertySourcePrefetchRegistry scopedRegistry = PropertySourcePrefetchRegistry.get(beanFactory);
+        assertSame(scopedRegistry, PropertySourcePrefetchRegistry.get(beanFactory));
+
+        scopedRegistry.register("test", "key", () -> CompletableFuture.completedFuture("value"));
+        assertNull(PropertySourcePrefetchRegistry.get(anotherBeanFactory).take("test", "key"));
+
+        // The untaken prefetch is not served to the registry created later
+        PropertySourcePrefetchRegistry.remove(beanFactory);
+        assertEquals(0, scopedRegistry.size());
+        assertNull(PropertySourcePrefetchRegistry.get(beanFactory).take("test", "key"));
+        PropertySourcePrefetchRegistry.remove(beanFactory);
+        PropertySourcePrefetchRegistry.remove(anotherBeanFactory);
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testPrefetchOnFailure() throws Exception {
+        registry.prefetch("test", "key", () -> {
+            throw new IllegalStateException("Failed");
+        });
+        registry.take("test", "key").get();
+    }
+}
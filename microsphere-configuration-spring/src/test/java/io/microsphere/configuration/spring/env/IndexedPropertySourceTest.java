@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import org.junit.Test;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link IndexedPropertySource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class IndexedPropertySourceTest {
+
+    @Test
+    public void testPrecedence() {
+        CompositePropertySource compositePropertySource = new CompositePropertySource("test");
+        compositePropertySource.addPropertySource(mapPropertySource("a", "my.name", "Mercy"));
+        compositePropertySource.addPropertySource(mapPropertySource("b", "my.name", "mercyblitz"));
+        compositePropertySource.addPropertySource(mapPropertySource("c", "my.country", "China"));
+
+        IndexedPropertySource propertySource = new IndexedPropertySource(compositePropertySource);
+
+        assertTrue(propertySource.isIndexed());
+        assertEquals("test", propertySource.getName());
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals("China", propertySource.getProperty("my.country"));
+        assertTrue(propertySource.containsProperty("my.country"));
+        assertFalse(propertySource.containsProperty("my.id"));
+        assertNull(propertySource.getProperty("my.id"));
+        assertEquals(2, propertySource.getPropertyNames().length);
+    }
+
+    @Test
+    public void testRefresh() {
+        CompositePropertySource compositePropertySource = new CompositePropertySource("test");
+        Map<String, Object> source = new HashMap<>();
+        source.put("my.name", "Mercy");
+        compositePropertySource.addPropertySource(new MapPropertySource("a", source));
+
+        IndexedPropertySource propertySource = new IndexedPropertySource(compositePropertySource);
+        source.put("my.name", "mercyblitz");
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+
+        propertySource.refresh();
+        assertEquals("mercyblitz", propertySource.getProperty("my.name"));
+    }
+
+    @Test
+    public void testReindex() {
+        MutablePropertySources propertySources = new MutablePropertySources();
+        assertNull(IndexedPropertySource.reindex(propertySources, "test"));
+
+        CompositePropertySource compositePropertySource = new CompositePropertySource("test");
+        compositePropertySource.addPropertySource(mapPropertySource("a", "my.name", "Mercy"));
+        propertySources.addLast(compositePropertySource);
+
+        IndexedPropertySource propertySource = IndexedPropertySource.reindex(propertySources, "test");
+        assertSame(propertySource, propertySources.get("test"));
+        assertSame(propertySource, IndexedPropertySource.reindex(propertySources, "test"));
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+    }
+
+    @Test
+    public void testFallback() {
+        CompositePropertySource compositePropertySource = new CompositePropertySource("test");
+        compositePropertySource.addPropertySource(new PropertySource<Object>("non-enumerable") {
+            @Override
+            public Object getProperty(String name) {
+                return "my.name".equals(name) ? "Mercy" : null;
+            }
+        });
+
+        IndexedPropertySource propertySource = new IndexedPropertySource(compositePropertySource);
+        assertFalse(propertySource.isIndexed());
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+    }
+
+    private static MapPropertySource mapPropertySource(String name, String key, Object value) {
+        Map<String, Object> source = new HashMap<>();
+        source.put(key, value);
+        return new MapPropertySource(name, source);
+    }
+}
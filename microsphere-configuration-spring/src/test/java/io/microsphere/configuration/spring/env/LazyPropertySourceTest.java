@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link LazyPropertySource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class LazyPropertySourceTest {
+
+    @Test
+    public void testLoadOnFirstAccess() {
+        AtomicInteger loads = new AtomicInteger();
+        LazyPropertySource propertySource = new LazyPropertySource("test", () -> {
+            loads.incrementAndGet();
+            return mapPropertySource();
+        });
+
+        assertFalse(propertySource.isLoaded());
+        assertNull(propertySource.getDelegate());
+        assertEquals(0, loads.get());
+
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertTrue(propertySource.isLoaded());
+        assertTrue(propertySource.containsProperty("my.name"));
+        assertFalse(propertySource.containsProperty("my.id"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testKeyPrefixes() {
+        LazyPropertySource propertySource = new LazyPropertySource("test", this::mapPropertySource, "my.");
+
+        assertNull(propertySource.getProperty("server.port"));
+        assertFalse(propertySource.containsProperty("server.port"));
+        assertFalse(propertySource.isLoaded());
+
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertTrue(propertySource.isLoaded());
+    }
+
+    @Test
+    public void testAbsent() {
+        LazyPropertySource propertySource = new LazyPropertySource("test", () -> null);
+        assertNull(propertySource.getProperty("my.name"));
+        assertTrue(propertySource.isLoaded());
+    }
+
+    @Test
+    public void testRetryOnFailure() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        LazyPropertySource propertySource = new LazyPropertySource("test", () -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalArgumentException("For testing");
+            }
+            return mapPropertySource();
+        }, 200);
+
+        // The failure is missed rather than thrown
+        assertNull(propertySource.getProperty("my.name"));
+        assertFalse(propertySource.isLoaded());
+
+        // The failure is cached within the backoff
+        assertNull(propertySource.getProperty("my.name"));
+        assertFalse(propertySource.containsProperty("my.name"));
+        assertEquals(1, loads.get());
+
+        Thread.sleep(300);
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLoadOnFailure() {
+        LazyPropertySource propertySource = new LazyPropertySource("test", () -> {
+            throw new IllegalArgumentException("For testing");
+        });
+        try {
+            propertySource.load();
+            fail();
+        } catch (IllegalStateException e) {
+            assertFalse(propertySource.isLoaded());
+        }
+    }
+
+    @Test
+    public void testGetPropertyNames() {
+        LazyPropertySource propertySource = new LazyPropertySource("test", this::mapPropertySource);
+
+        // Not loaded by the enumeration
+        assertArrayEquals(new String[0], propertySource.getPropertyNames());
+        assertFalse(propertySource.isLoaded());
+
+        propertySource.load();
+        assertArrayEquals(new String[]{"my.name"}, propertySource.getPropertyNames());
+    }
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        LazyPropertySource propertySource = new LazyPropertySource("test", () -> {
+            loads.incrementAndGet();
+            return mapPropertySource();
+        });
+        ExecutorService executorService = newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executorService.submit(() -> {
+                    latch.await();
+                    return propertySource.getProperty("my.name");
+                });
+            }
+            latch.countDown();
+            for (Future<?> future : futures) {
+                assertEquals("Mercy", future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testMergeProperties() {
+        LazyPropertySource propertySource = new LazyPropertySource("test", this::mapPropertySource);
+        assertNull(PropertySourceUtils.getProperties(propertySource));
+
+        propertySource.load();
+        assertEquals("Mercy", PropertySourceUtils.getProperties(propertySource).get("my.name"));
+    }
+
+    private PropertySource<?> mapPropertySource() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("my.name", "Mercy");
+        return new MapPropertySource("test", source);
+    }
+}
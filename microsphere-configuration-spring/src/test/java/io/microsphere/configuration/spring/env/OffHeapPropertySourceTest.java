@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link OffHeapPropertySource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class OffHeapPropertySourceTest {
+
+    @Test
+    public void testLookup() {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            properties.put("feature.flag." + i, i % 2 == 0);
+        }
+        properties.put("my.name", "\u5c0f\u9a6c\u54e5");
+
+        OffHeapPropertySource propertySource = OffHeapPropertySource.of("test", properties);
+
+        assertEquals("test", propertySource.getName());
+        assertEquals(1001, propertySource.size());
+        assertEquals("true", propertySource.getProperty("feature.flag.0"));
+        assertEquals("false", propertySource.getProperty("feature.flag.999"));
+        assertEquals("\u5c0f\u9a6c\u54e5", propertySource.getProperty("my.name"));
+        assertTrue(propertySource.containsProperty("my.name"));
+        assertFalse(propertySource.containsProperty("my.id"));
+        assertNull(propertySource.getProperty("my.id"));
+        assertNull(propertySource.getProperty(""));
+        assertTrue(propertySource.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    public void testCachedLookup() {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            properties.put("feature.flag." + i, String.valueOf(i));
+        }
+
+        OffHeapPropertySource propertySource = OffHeapPropertySource.of("test", properties);
+
+        // The hot property is decoded once
+        Object value = propertySource.getProperty("feature.flag.1");
+        assertSame(value, propertySource.getProperty("feature.flag.1"));
+        assertSame(value, propertySource.withName("copy").getProperty("feature.flag.1"));
+
+        // The evicted entries are looked up from the arena again
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(String.valueOf(i), propertySource.getProperty("feature.flag." + i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(propertySource.containsProperty("feature.flag." + i));
+        }
+        assertFalse(propertySource.containsProperty("feature.flag.5000"));
+        assertFalse(propertySource.containsProperty("feature.flag.5000"));
+        assertEquals("1", propertySource.getProperty("feature.flag.1"));
+    }
+
+    @Test
+    public void testGetPropertyNames() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("b", "2");
+        properties.put("a", "1");
+        properties.put("c", "3");
+
+        OffHeapPropertySource propertySource = OffHeapPropertySource.of(new MapPropertySource("test", properties));
+
+        String[] propertyNames = propertySource.getPropertyNames();
+        assertArrayEquals(new String[]{"a", "b", "c"}, propertyNames);
+        propertyNames[0] = "z";
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(propertySource.getPropertyNames()));
+    }
+
+    @Test
+    public void testEmpty() {
+        OffHeapPropertySource propertySource = OffHeapPropertySource.of("test", new HashMap<>());
+        assertEquals(0, propertySource.size());
+        assertEquals(0, propertySource.getPropertyNames().length);
+        assertNull(propertySource.getProperty("my.name"));
+    }
+
+    @Test
+    public void testWithName() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("my.name", "Mercy");
+
+        OffHeapPropertySource propertySource = OffHeapPropertySource.of("test", properties);
+        OffHeapPropertySource copy = propertySource.withName("copy");
+
+        assertEquals("copy", copy.getName());
+        assertEquals("Mercy", copy.getProperty("my.name"));
+        assertEquals(propertySource.getOffHeapBytes(), copy.getOffHeapBytes());
+        assertSame(propertySource, OffHeapPropertySource.of(propertySource));
+    }
+}
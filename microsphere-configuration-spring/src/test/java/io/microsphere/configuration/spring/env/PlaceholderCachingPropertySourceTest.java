@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.configuration.spring.env.event.PropertiesDiff;
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link PlaceholderCachingPropertySource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class PlaceholderCachingPropertySourceTest {
+
+    private StandardEnvironment environment;
+
+    private Map<String, Object> backendProperties;
+
+    private Map<String, Object> localProperties;
+
+    private PlaceholderCachingPropertySource propertySource;
+
+    @Before
+    public void init() {
+        environment = new StandardEnvironment();
+        backendProperties = new HashMap<>();
+        backendProperties.put("server.address", "${server.host}:${server.port}");
+        backendProperties.put("server.port", "8080");
+        backendProperties.put("server.url", "http://${server.address}");
+        backendProperties.put("server.name", "plain");
+        backendProperties.put("server.timeout", "${server.timeout.millis:1000}");
+        localProperties = new HashMap<>();
+        localProperties.put("server.host", "127.0.0.1");
+
+        propertySource = new PlaceholderCachingPropertySource(new MapPropertySource("backend", backendProperties), environment);
+        environment.getPropertySources().addFirst(propertySource);
+        environment.getPropertySources().addLast(new MapPropertySource("local", localProperties));
+    }
+
+    @Test
+    public void testGetProperty() {
+        assertEquals("plain", propertySource.getProperty("server.name"));
+        assertEquals("127.0.0.1:8080", propertySource.getProperty("server.address"));
+        assertEquals("http://127.0.0.1:8080", environment.getProperty("server.url"));
+        assertEquals("1000", environment.getProperty("server.timeout"));
+        assertEquals(3, propertySource.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        assertEquals("http://127.0.0.1:8080", propertySource.getProperty("server.url"));
+        assertEquals("127.0.0.1:8080", propertySource.getProperty("server.address"));
+
+        // The change without the event is invisible
+        localProperties.put("server.host", "localhost");
+        assertEquals("http://127.0.0.1:8080", propertySource.getProperty("server.url"));
+
+        // The nested dependency is invalidated
+        propertySource.invalidate(singleton("server.host"));
+        assertEquals("http://localhost:8080", propertySource.getProperty("server.url"));
+        assertEquals("localhost:8080", propertySource.getProperty("server.address"));
+    }
+
+    @Test
+    public void testInvalidateByEvent() {
+        assertEquals("127.0.0.1:8080", propertySource.getProperty("server.address"));
+        assertEquals("1000", propertySource.getProperty("server.timeout"));
+
+        Map<String, Object> oldProperties = new HashMap<>(backendProperties);
+        backendProperties.put("server.port", "9090");
+        GenericApplicationContext context = new GenericApplicationContext();
+        propertySource.onApplicationEvent(PropertiesDiff.diff(oldProperties, backendProperties)
+                .toEvent(context, "backend", new MapPropertySource("backend", oldProperties)));
+
+        assertEquals("127.0.0.1:9090", propertySource.getProperty("server.address"));
+        // Not invalidated
+        assertEquals(2, propertySource.size());
+    }
+
+    @Test
+    public void testInvalidateByReplacedEvent() {
+        assertEquals("127.0.0.1:8080", propertySource.getProperty("server.address"));
+
+        // The key removed by the replaced PropertySource is only presented by the old one
+        Map<String, Object> oldProperties = new HashMap<>(localProperties);
+        localProperties.remove("server.host");
+        GenericApplicationContext context = new GenericApplicationContext();
+        propertySource.onApplicationEvent(new PropertySourcesChangedEvent(context, PropertySourceChangedEvent.replaced(context,
+                new MapPropertySource("local", oldProperties), new MapPropertySource("local", localProperties))));
+
+        assertEquals("${server.host}:${server.port}", propertySource.getProperty("server.address"));
+    }
+
+    @Test
+    public void testRawValueChanged() {
+        assertEquals("127.0.0.1:8080", propertySource.getProperty("server.address"));
+        backendProperties.put("server.address", "${server.host}");
+        assertEquals("127.0.0.1", propertySource.getProperty("server.address"));
+    }
+
+    @Test
+    public void testUnresolvable() {
+        backendProperties.put("server.unknown", "${server.missing}");
+        assertEquals("${server.missing}", propertySource.getProperty("server.unknown"));
+        assertEquals(0, propertySource.size());
+    }
+
+    @Test
+    public void testMergeProperties() {
+        assertEquals("${server.host}:${server.port}",
+                PropertySourceUtils.getProperties(propertySource).get("server.address"));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.configuration.metrics.PropertySourceFootprint;
+import org.junit.Test;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PropertySourceFootprintReporter} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class PropertySourceFootprintReporterTest {
+
+    @Test
+    public void testEstimate() {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            properties.put("feature.flag." + i, "true");
+        }
+        MapPropertySource mapPropertySource = new MapPropertySource("test", properties);
+        PropertySourceFootprint footprint = PropertySourceFootprintReporter.estimate("test", mapPropertySource);
+        assertEquals(100, footprint.getKeyCount());
+        assertTrue(footprint.getHeapBytes() > 100 * "feature.flag.0".length());
+        assertEquals(0, footprint.getOffHeapBytes());
+
+        CompositePropertySource compositePropertySource = new CompositePropertySource("composite");
+        compositePropertySource.addPropertySource(mapPropertySource);
+        compositePropertySource.addPropertySource(OffHeapPropertySource.of("off-heap", properties));
+        footprint = PropertySourceFootprintReporter.estimate("composite", new IndexedPropertySource(compositePropertySource));
+        assertEquals(200, footprint.getKeyCount());
+        assertTrue(footprint.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    public void testReport() {
+        StandardEnvironment environment = new StandardEnvironment();
+        MutablePropertySources propertySources = environment.getPropertySources();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("my.name", "Mercy");
+        propertySources.addFirst(new MapPropertySource("footprint-test", properties));
+        PropertySourceFootprintReporter.recordPayload(environment, "footprint-test", "/test", 128);
+
+        Map<String, Object> snapshots = new ConcurrentHashMap<>();
+        snapshots.put("application", new MapPropertySource("application", properties));
+        PropertySourceFootprintReporter.registerSnapshots(environment, "test-snapshots", snapshots);
+
+        PropertySourceFootprintReporter reporter = new PropertySourceFootprintReporter(environment);
+        List<PropertySourceFootprint> footprints = reporter.report();
+
+        PropertySourceFootprint footprint = find(footprints, "footprint-test");
+        assertNotNull(footprint);
+        assertEquals(1, footprint.getKeyCount());
+        assertEquals(128, footprint.getPayloadBytes());
+
+        footprint = find(footprints, "test-snapshots[application]");
+        assertNotNull(footprint);
+        assertEquals(1, footprint.getKeyCount());
+
+        PropertySourceFootprintReporter.unregister(environment);
+        footprints = reporter.report();
+        assertEquals(0, find(footprints, "footprint-test").getPayloadBytes());
+        assertNull(find(footprints, "test-snapshots[application]"));
+    }
+
+    @Test
+    public void testReportIsolated() {
+        StandardEnvironment environment = new StandardEnvironment();
+        StandardEnvironment anotherEnvironment = new StandardEnvironment();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("my.name", "Mercy");
+        environment.getPropertySources().addFirst(new MapPropertySource("isolated-test", properties));
+        anotherEnvironment.getPropertySources().addFirst(new MapPropertySource("isolated-test", properties));
+
+        Map<String, Object> snapshots = new ConcurrentHashMap<>();
+        snapshots.put("application", new MapPropertySource("application", properties));
+        PropertySourceFootprintReporter.registerSnapshots(anotherEnvironment, "another-snapshots", snapshots);
+        PropertySourceFootprintReporter.recordPayload(anotherEnvironment, "isolated-test", "/test", 256);
+
+        // The snapshots and payloads of another context are not reported
+        List<PropertySourceFootprint> footprints = new PropertySourceFootprintReporter(environment).report();
+        assertNull(find(footprints, "another-snapshots[application]"));
+        assertEquals(0, find(footprints, "isolated-test").getPayloadBytes());
+
+        footprints = new PropertySourceFootprintReporter(anotherEnvironment).report();
+        assertNotNull(find(footprints, "another-snapshots[application]"));
+        assertEquals(256, find(footprints, "isolated-test").getPayloadBytes());
+
+        PropertySourceFootprintReporter.unregister(anotherEnvironment);
+    }
+
+    private static PropertySourceFootprint find(List<PropertySourceFootprint> footprints, String name) {
+        for (PropertySourceFootprint footprint : footprints) {
+            if (name.equals(footprint.getPropertySourceName())) {
+                return footprint;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env;
+
+import io.microsphere.configuration.spring.env.TypedPropertyCache.BooleanProperty;
+import io.microsphere.configuration.spring.env.TypedPropertyCache.DoubleProperty;
+import io.microsphere.configuration.spring.env.TypedPropertyCache.IntProperty;
+import io.microsphere.configuration.spring.env.TypedPropertyCache.LongProperty;
+import io.microsphere.configuration.spring.env.event.PropertiesDiff;
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TypedPropertyCache} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class TypedPropertyCacheTest {
+
+    private Map<String, Object> properties;
+
+    private Map<String, Object> oldProperties;
+
+    private TypedPropertyCache cache;
+
+    @Before
+    public void init() {
+        StandardEnvironment environment = new StandardEnvironment();
+        properties = new HashMap<>();
+        properties.put("feature.enabled", "true");
+        properties.put("feature.limit", "10");
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        oldProperties = new HashMap<>(properties);
+        cache = new TypedPropertyCache(environment);
+    }
+
+    @Test
+    public void testGet() {
+        BooleanProperty enabled = cache.getBoolean("feature.enabled", false);
+        IntProperty limit = cache.getInt("feature.limit", 0);
+        LongProperty timeout = cache.getLong("feature.timeout", 3000L);
+        DoubleProperty ratio = cache.getDouble("feature.ratio", 0.5d);
+
+        assertTrue(enabled.getAsBoolean());
+        assertEquals(10, limit.getAsInt());
+        assertEquals(3000L, timeout.getAsLong());
+        assertEquals(0.5d, ratio.getAsDouble(), 0d);
+        assertEquals("feature.enabled", enabled.getName());
+
+        assertSame(enabled, cache.getBoolean("feature.enabled", false));
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testGrow() {
+        for (int i = 0; i < 100; i++) {
+            properties.put("flag." + i, String.valueOf(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, cache.getInt("flag." + i, -1).getAsInt());
+        }
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testInvalidateByEvent() {
+        BooleanProperty enabled = cache.getBoolean("feature.enabled", false);
+        IntProperty limit = cache.getInt("feature.limit", 0);
+
+        properties.put("feature.enabled", "false");
+        properties.put("feature.limit", "20");
+        // The cached values are retained until the change event
+        assertTrue(enabled.getAsBoolean());
+        assertEquals(10, limit.getAsInt());
+
+        Map<String, Object> newProperties = new HashMap<>(oldProperties);
+        newProperties.put("feature.enabled", "false");
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        cache.onApplicationEvent(PropertiesDiff.diff(oldProperties, newProperties)
+                .toEvent(context, "test", new MapPropertySource("test", oldProperties)));
+
+        // Only the changed key is re-resolved
+        assertFalse(enabled.getAsBoolean());
+        assertEquals(10, limit.getAsInt());
+
+        cache.invalidateAll();
+        assertEquals(20, limit.getAsInt());
+    }
+
+    @Test
+    public void testInvalidateByReplacedEvent() {
+        BooleanProperty enabled = cache.getBoolean("feature.enabled", false);
+        IntProperty limit = cache.getInt("feature.limit", 0);
+
+        properties.remove("feature.limit");
+        properties.put("feature.ratio", "0.8");
+
+        // The replaced PropertySource presents both the removed and the added properties
+        Map<String, Object> newProperties = new HashMap<>(properties);
+        GenericApplicationContext context = new GenericApplicationContext();
+        cache.onApplicationEvent(new PropertySourcesChangedEvent(context, PropertySourceChangedEvent.replaced(context,
+                new MapPropertySource("test", oldProperties), new MapPropertySource("test", newProperties))));
+
+        assertTrue(enabled.getAsBoolean());
+        assertEquals(0, limit.getAsInt());
+    }
+
+    @Test
+    public void testInvalidateByPlaceholderDependency() {
+        properties.put("base.limit", "${root.limit}");
+        properties.put("root.limit", "20");
+        properties.put("feature.limit", "${base.limit}");
+        IntProperty limit = cache.getInt("feature.limit", 0);
+        assertEquals(20, limit.getAsInt());
+
+        // The nested dependency is changed
+        Map<String, Object> oldProperties = new HashMap<>(properties);
+        properties.put("root.limit", "30");
+        GenericApplicationContext context = new GenericApplicationContext();
+        cache.onApplicationEvent(PropertiesDiff.diff(oldProperties, new HashMap<>(properties))
+                .toEvent(context, "test", new MapPropertySource("test", oldProperties)));
+        assertEquals(30, limit.getAsInt());
+
+        // The dependency is re-bound after the raw value is changed
+        oldProperties = new HashMap<>(properties);
+        properties.put("feature.limit", "${other.limit:40}");
+        cache.onApplicationEvent(PropertiesDiff.diff(oldProperties, new HashMap<>(properties))
+                .toEvent(context, "test", new MapPropertySource("test", oldProperties)));
+        assertEquals(40, limit.getAsInt());
+
+        oldProperties = new HashMap<>(properties);
+        properties.put("other.limit", "50");
+        cache.onApplicationEvent(PropertiesDiff.diff(oldProperties, new HashMap<>(properties))
+                .toEvent(context, "test", new MapPropertySource("test", oldProperties)));
+        assertEquals(50, limit.getAsInt());
+    }
+
+    @Test
+    public void testRetainOnConversionFailure() {
+        IntProperty limit = cache.getInt("feature.limit", 0);
+        properties.put("feature.limit", "unknown");
+        cache.invalidateAll();
+        assertEquals(10, limit.getAsInt());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.event;
+
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.ADDED;
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.DELETED;
+import static io.microsphere.configuration.spring.env.event.ConfigChange.Type.MODIFIED;
+import static io.microsphere.spring.config.env.event.PropertySourceChangedEvent.replaced;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static reactor.core.publisher.FluxSink.OverflowStrategy.BUFFER;
+import static reactor.core.publisher.FluxSink.OverflowStrategy.LATEST;
+
+/**
+ * {@link ConfigChangePublisher} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class ConfigChangePublisherTest {
+
+    private final GenericApplicationContext context = new GenericApplicationContext();
+
+    private final ConfigChangePublisher publisher = new ConfigChangePublisher(Schedulers.immediate());
+
+    @Test
+    public void testChanges() {
+        List<ConfigChange> changes = new ArrayList<>();
+        Disposable disposable = publisher.changesOf("test", BUFFER).subscribe(changes::add);
+        assertEquals(1, publisher.getSubscriptionCount());
+
+        Map<String, Object> oldProperties = new HashMap<>();
+        oldProperties.put("my.name", "Mercy");
+        oldProperties.put("my.id", 1);
+        Map<String, Object> newProperties = new HashMap<>();
+        newProperties.put("my.name", "mercyblitz");
+        newProperties.put("my.age", 18);
+        publish("test", oldProperties, newProperties);
+        publish("other", oldProperties, newProperties);
+
+        assertEquals(3, changes.size());
+        assertTrue(changes.contains(new ConfigChange("test", "my.age", null, 18, ADDED)));
+        assertTrue(changes.contains(new ConfigChange("test", "my.name", "Mercy", "mercyblitz", MODIFIED)));
+        assertTrue(changes.contains(new ConfigChange("test", "my.id", 1, null, DELETED)));
+
+        disposable.dispose();
+        assertEquals(0, publisher.getSubscriptionCount());
+    }
+
+    @Test
+    public void testCoarseEventIgnored() {
+        List<ConfigChange> changes = new ArrayList<>();
+        Disposable disposable = publisher.changes(BUFFER).subscribe(changes::add);
+
+        Map<String, Object> oldProperties = new HashMap<>();
+        oldProperties.put("my.name", "Mercy");
+        oldProperties.put("my.id", 1);
+        Map<String, Object> newProperties = new HashMap<>(oldProperties);
+        newProperties.put("my.name", "mercyblitz");
+        // The whole PropertySource replaced by the refresher
+        publisher.onApplicationEvent(new PropertySourcesChangedEvent(context, replaced(context,
+                new MapPropertySource("test", oldProperties), new MapPropertySource("test", newProperties))));
+        publish("test", oldProperties, newProperties);
+
+        assertEquals(1, changes.size());
+        assertEquals(new ConfigChange("test", "my.name", "Mercy", "mercyblitz", MODIFIED), changes.get(0));
+        disposable.dispose();
+    }
+
+    @Test
+    public void testLatest() {
+        List<Object> values = new ArrayList<>();
+        BaseSubscriber<ConfigChange> subscriber = new BaseSubscriber<ConfigChange>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // The slow subscriber requests nothing
+            }
+
+            @Override
+            protected void hookOnNext(ConfigChange change) {
+                values.add(change.getNewValue());
+            }
+        };
+        publisher.changesWithPrefix("feature.", LATEST).subscribe(subscriber);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("feature.limit", 0);
+        for (int i = 1; i <= 10; i++) {
+            Map<String, Object> newProperties = new HashMap<>();
+            newProperties.put("feature.limit", i);
+            publish("test", properties, newProperties);
+            properties = newProperties;
+        }
+
+        subscriber.request(Long.MAX_VALUE);
+        // The first change is prefetched, and then the latest one is retained
+        assertEquals(10, values.get(values.size() - 1));
+        assertTrue(values.size() <= 2);
+        subscriber.dispose();
+    }
+
+    private void publish(String propertySourceName, Map<String, Object> oldProperties, Map<String, Object> newProperties) {
+        publisher.onApplicationEvent(PropertiesDiff.diff(oldProperties, newProperties)
+                .toEvent(context, propertySourceName, new MapPropertySource(propertySourceName, oldProperties)));
+    }
+}
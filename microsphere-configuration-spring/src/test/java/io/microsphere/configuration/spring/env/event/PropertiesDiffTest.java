@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.event;
+
+import org.junit.Test;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PropertiesDiff} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class PropertiesDiffTest {
+
+    @Test
+    public void testDiff() {
+        Map<String, Object> oldProperties = new HashMap<>();
+        oldProperties.put("my.name", "Mercy");
+        oldProperties.put("my.country", "China");
+        oldProperties.put("my.id", 1);
+
+        Map<String, Object> newProperties = new HashMap<>();
+        newProperties.put("my.name", "mercyblitz");
+        newProperties.put("my.country", "China");
+        newProperties.put("my.age", 18);
+
+        PropertiesDiff diff = PropertiesDiff.diff(oldProperties, newProperties);
+
+        assertFalse(diff.isEmpty());
+        assertEquals(1, diff.getAddedProperties().size());
+        assertEquals(18, diff.getAddedProperties().get("my.age"));
+        assertEquals(1, diff.getModifiedProperties().size());
+        assertEquals("mercyblitz", diff.getModifiedProperties().get("my.name"));
+        assertEquals(1, diff.getDeletedProperties().size());
+        assertEquals(1, diff.getDeletedProperties().get("my.id"));
+        assertEquals(3, diff.getChangedKeys().size());
+    }
+
+    @Test
+    public void testDiffOnNoChange() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("my.name", "Mercy");
+        properties.put("my.nothing", null);
+
+        PropertiesDiff diff = PropertiesDiff.diff(properties, new HashMap<>(properties));
+        assertTrue(diff.isEmpty());
+        assertTrue(diff.getChangedKeys().isEmpty());
+    }
+
+    @Test
+    public void testDiffPropertySources() {
+        Map<String, Object> oldProperties = new HashMap<>();
+        oldProperties.put("my.name", "Mercy");
+        oldProperties.put("my.id", 1);
+        MapPropertySource oldPropertySource = new MapPropertySource("test", oldProperties);
+
+        // The nested PropertySources are iterated in their precedence
+        CompositePropertySource newPropertySource = new CompositePropertySource("test");
+        newPropertySource.addPropertySource(new MapPropertySource("first", singletonMap("my.name", "mercyblitz")));
+        newPropertySource.addPropertySource(new MapPropertySource("second", oldProperties));
+
+        PropertiesDiff diff = PropertiesDiff.diff(oldPropertySource, newPropertySource);
+
+        assertTrue(diff.getAddedProperties().isEmpty());
+        assertEquals(1, diff.getModifiedProperties().size());
+        assertEquals("mercyblitz", diff.getModifiedProperties().get("my.name"));
+        assertTrue(diff.getDeletedProperties().isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import io.microsphere.configuration.spring.env.BinaryPropertySource;
+import org.junit.Test;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BinaryPropertySourceFactory}, {@link BinaryPropertySource} and {@link BinaryPropertiesConverter} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class BinaryPropertySourceFactoryTest {
+
+    @Test
+    public void testEncode() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("my.name", "Mercy");
+        properties.put("my.city", "\u676d\u5dde");
+        properties.put("my.enabled", true);
+        properties.put("my.age", 18);
+        properties.put("my.id", 1L << 40);
+        properties.put("my.ratio", 0.5d);
+        properties.put("my.null", null);
+
+        BinaryPropertySource propertySource = BinaryPropertySource.of("test", ByteBuffer.wrap(BinaryPropertySource.encode(properties)));
+        assertEquals("test", propertySource.getName());
+        assertEquals(6, propertySource.size());
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals("\u676d\u5dde", propertySource.getProperty("my.city"));
+        assertEquals(Boolean.TRUE, propertySource.getProperty("my.enabled"));
+        assertEquals(18, propertySource.getProperty("my.age"));
+        assertEquals(1L << 40, propertySource.getProperty("my.id"));
+        assertEquals(0.5d, propertySource.getProperty("my.ratio"));
+        assertFalse(propertySource.containsProperty("my.null"));
+        assertNull(propertySource.getProperty("my"));
+        assertNull(propertySource.getProperty(null));
+        assertArrayEquals(new String[]{"my.age", "my.city", "my.enabled", "my.id", "my.name", "my.ratio"},
+                propertySource.getPropertyNames());
+    }
+
+    @Test
+    public void testEmpty() {
+        BinaryPropertySource propertySource = BinaryPropertySource.of("test", ByteBuffer.wrap(BinaryPropertySource.encode(new LinkedHashMap<>())));
+        assertEquals(0, propertySource.size());
+        assertEquals(0, propertySource.getPropertyNames().length);
+        assertFalse(propertySource.containsProperty("my.name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorrupted() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("my.name", "Mercy");
+        byte[] content = BinaryPropertySource.encode(properties);
+        content[content.length - 6] ^= 1;
+        BinaryPropertySource.of("test", ByteBuffer.wrap(content));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCreatePropertySourceOnInvalidContent() throws IOException {
+        new BinaryPropertySourceFactory().createPropertySource("test", new EncodedResource(new ByteArrayResource("my.name=Mercy".getBytes(UTF_8))));
+    }
+
+    @Test
+    public void testConvertAndCreatePropertySource() throws IOException {
+        Resource json = resource("test.json", "{ \"my\": { \"name\": \"Mercy\", \"age\": 18 } }");
+        Resource yaml = resource("test.yaml", "my:\n  name: mercyblitz\n  enabled: true\n");
+        Resource properties = resource("test.properties", "my.country=China\n");
+
+        byte[] content = BinaryPropertiesConverter.convert(json, yaml, properties);
+        BinaryPropertySourceFactory factory = new BinaryPropertySourceFactory();
+
+        PropertySource<?> propertySource = factory.createPropertySource("test", new EncodedResource(new ByteArrayResource(content)));
+        assertProperties(propertySource);
+
+        File file = File.createTempFile("test", ".mspb");
+        try {
+            Files.write(file.toPath(), content);
+            propertySource = factory.createPropertySource(null, new EncodedResource(new FileSystemResource(file)));
+            assertTrue(propertySource.getName().contains(file.getName()));
+            assertProperties(propertySource);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertProperties(PropertySource<?> propertySource) {
+        assertEquals("mercyblitz", propertySource.getProperty("my.name"));
+        assertEquals(18, propertySource.getProperty("my.age"));
+        assertEquals(Boolean.TRUE, propertySource.getProperty("my.enabled"));
+        assertEquals("China", propertySource.getProperty("my.country"));
+        assertEquals(4, ((BinaryPropertySource) propertySource).getPropertyNames().length);
+        assertTrue(Arrays.asList(((BinaryPropertySource) propertySource).getPropertyNames()).contains("my.country"));
+    }
+
+    private static Resource resource(String fileName, String content) {
+        return new ByteArrayResource(content.getBytes(UTF_8)) {
+            @Override
+            public String getFilename() {
+                return fileName;
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import org.junit.Test;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.support.DefaultPropertySourceFactory;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link CachingPropertySourceFactory} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class CachingPropertySourceFactoryTest {
+
+    @Test
+    public void testCreatePropertySource() throws IOException {
+        AtomicInteger parsedCount = new AtomicInteger();
+        PropertySourceFactory delegate = new DefaultPropertySourceFactory() {
+            @Override
+            public PropertySource<?> createPropertySource(String name, EncodedResource resource) throws IOException {
+                parsedCount.incrementAndGet();
+                return super.createPropertySource(name, resource);
+            }
+        };
+        ParsedContentCache cache = new ParsedContentCache(2, 1024);
+        CachingPropertySourceFactory factory = new CachingPropertySourceFactory(delegate, cache);
+
+        PropertySource<?> propertySource = factory.createPropertySource("a", resource("my.name = Mercy"));
+        assertEquals("a", propertySource.getName());
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals(1, parsedCount.get());
+
+        // The same content shared by another property source
+        propertySource = factory.createPropertySource("b", resource("my.name = Mercy"));
+        assertEquals("b", propertySource.getName());
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals(1, parsedCount.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // The changed content
+        propertySource = factory.createPropertySource("a", resource("my.name = mercyblitz"));
+        assertEquals("mercyblitz", propertySource.getProperty("my.name"));
+        assertEquals(2, parsedCount.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCreatePropertySourceWithoutName() throws IOException {
+        CachingPropertySourceFactory factory = new CachingPropertySourceFactory(new DefaultPropertySourceFactory(),
+                new ParsedContentCache(2, 1024));
+        EncodedResource resource = resource("my.name = Mercy");
+        String description = resource.getResource().getDescription();
+        // miss
+        assertEquals(description, factory.createPropertySource(null, resource).getName());
+        // hit
+        assertEquals(description, factory.createPropertySource(null, resource).getName());
+    }
+
+    @Test
+    public void testEviction() {
+        ParsedContentCache cache = new ParsedContentCache(2, 10);
+        cache.put(key("a"), null, 4);
+        cache.put(key("b"), null, 4);
+        // access "a", thus "b" is the eldest
+        cache.get(key("a"));
+        cache.put(key("c"), null, 4);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(key("b")));
+        assertEquals(8, cache.getBytes());
+
+        // exceeds the max bytes
+        cache.put(key("d"), null, 11);
+        assertEquals(2, cache.size());
+    }
+
+    private static ParsedContentCache.Key key(String content) {
+        return new ParsedContentCache.Key("test", "UTF-8",
+                CachingPropertySourceFactory.hash(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static EncodedResource resource(String content) {
+        return new EncodedResource(new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    }
+}
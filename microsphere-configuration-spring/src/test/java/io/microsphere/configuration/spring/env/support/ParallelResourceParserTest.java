@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import org.junit.Test;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.support.DefaultPropertySourceFactory;
+import org.springframework.core.io.support.EncodedResource;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link ParallelResourceParser} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class ParallelResourceParserTest {
+
+    @Test
+    public void testParse() throws IOException {
+        int size = 32;
+        EncodedResource[] resources = new EncodedResource[size];
+        for (int i = 0; i < size; i++) {
+            String content = "index = " + i;
+            resources[i] = new EncodedResource(new ByteArrayResource(content.getBytes(UTF_8), "resource-" + i), UTF_8);
+        }
+
+        ParallelResourceParser parser = new ParallelResourceParser(4);
+        assertEquals(4, parser.getParallelism());
+
+        PropertySource<?>[] propertySources = parser.parse(new DefaultPropertySourceFactory(), resources);
+        assertEquals(size, propertySources.length);
+        for (int i = 0; i < size; i++) {
+            assertEquals(String.valueOf(i), propertySources[i].getProperty("index"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseOnFailure() throws IOException {
+        ParallelResourceParser parser = new ParallelResourceParser(2);
+        parser.parse((name, resource) -> {
+            throw new IOException("Failed");
+        }, new EncodedResource(new ByteArrayResource(new byte[0])), new EncodedResource(new ByteArrayResource(new byte[0])));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorOnIllegalParallelism() {
+        new ParallelResourceParser(0);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.spring.env.support;
+
+import org.junit.Test;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertySourceFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * {@link StreamingJsonPropertySourceFactory} and {@link StreamingYamlPropertySourceFactory} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class StreamingPropertySourceFactoryTest {
+
+    @Test
+    public void testJson() throws IOException {
+        String json = "{ \"my.name\": \"Mercy\", \"a\": { \"b\": [ { \"c\": 1 }, { \"c\": true } ], \"d\": [], \"e\": null, \"f\": {} } }";
+        PropertySource<?> propertySource = createPropertySource(new StreamingJsonPropertySourceFactory(), json);
+        assertEquals("test", propertySource.getName());
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals(1, propertySource.getProperty("a.b[0].c"));
+        assertEquals(Boolean.TRUE, propertySource.getProperty("a.b[1].c"));
+        assertEquals("", propertySource.getProperty("a.d"));
+        assertEquals("", propertySource.getProperty("a.e"));
+        assertFalse(propertySource.containsProperty("a.f"));
+    }
+
+    @Test
+    public void testYaml() throws IOException {
+        String yaml = "my:\n" +
+                "  name: Mercy\n" +
+                "  empty:\n" +
+                "a:\n" +
+                "  b:\n" +
+                "    - c: 1\n" +
+                "    - c: 2\n" +
+                "  d: []\n" +
+                "defaults: &defaults\n" +
+                "  timeout: 10\n" +
+                "  retries: 3\n" +
+                "service:\n" +
+                "  <<: *defaults\n" +
+                "  retries: 5\n" +
+                "copy: *defaults\n";
+        PropertySource<?> propertySource = createPropertySource(new StreamingYamlPropertySourceFactory(), yaml);
+        assertEquals("Mercy", propertySource.getProperty("my.name"));
+        assertEquals("", propertySource.getProperty("my.empty"));
+        assertEquals("1", propertySource.getProperty("a.b[0].c"));
+        assertEquals("2", propertySource.getProperty("a.b[1].c"));
+        assertEquals("", propertySource.getProperty("a.d"));
+        assertEquals("10", propertySource.getProperty("service.timeout"));
+        assertEquals("5", propertySource.getProperty("service.retries"));
+        assertEquals("3", propertySource.getProperty("copy.retries"));
+    }
+
+    private static PropertySource<?> createPropertySource(PropertySourceFactory factory, String content) throws IOException {
+        ByteArrayResource resource = new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+        return factory.createPropertySource("test", new EncodedResource(resource, StandardCharsets.UTF_8));
+    }
+}
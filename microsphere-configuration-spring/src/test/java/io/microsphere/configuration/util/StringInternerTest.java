@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link StringInterner} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class StringInternerTest {
+
+    private final StringInterner interner = new StringInterner(4);
+
+    @Test
+    public void testIntern() {
+        String value = new String("spring.application.name");
+        String anotherValue = new String("spring.application.name");
+        assertSame(value, interner.intern(value));
+        assertSame(value, interner.intern(anotherValue));
+        assertNull(interner.intern(null));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void testInternValue() {
+        Integer value = 1;
+        assertSame(value, interner.internValue(value));
+        String stringValue = new String("true");
+        assertSame(stringValue, interner.internValue(stringValue));
+        assertSame(stringValue, interner.internValue(new String("true")));
+    }
+
+    @Test
+    public void testInternProperties() {
+        String key = new String("my.name");
+        String value = new String("mercyblitz");
+        interner.intern(key);
+        interner.intern(value);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(new String("my.name"), new String("mercyblitz"));
+        Map<String, Object> internedProperties = interner.intern(properties);
+
+        String internedKey = internedProperties.keySet().iterator().next();
+        assertSame(key, internedKey);
+        assertSame(value, internedProperties.get(internedKey));
+    }
+}
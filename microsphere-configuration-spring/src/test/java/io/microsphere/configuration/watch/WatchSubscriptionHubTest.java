@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.watch;
+
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link WatchSubscriptionHub} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class WatchSubscriptionHubTest {
+
+    private final WatchSubscriptionHub hub = new WatchSubscriptionHub();
+
+    @Test
+    public void testSubscribe() throws Exception {
+        AtomicInteger watches = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicReference<Consumer<String>> dispatcher = new AtomicReference<>();
+        WatchSubscriptionHub.WatchFactory<String> watchFactory = listener -> {
+            watches.incrementAndGet();
+            dispatcher.set(listener);
+            return () -> closed.set(true);
+        };
+
+        List<String> events1 = new ArrayList<>();
+        List<String> events2 = new ArrayList<>();
+        Subscription subscription1 = hub.subscribe("test", "key", events1::add, watchFactory);
+        Subscription subscription2 = hub.subscribe("test", "key", events2::add, watchFactory);
+
+        assertEquals(1, watches.get());
+        assertEquals(1, hub.getWatchCount());
+        assertEquals(2, hub.getSubscriberCount("test", "key"));
+
+        dispatcher.get().accept("changed");
+        assertEquals("changed", events1.get(0));
+        assertEquals("changed", events2.get(0));
+
+        subscription1.close();
+        assertFalse(closed.get());
+        assertEquals(1, hub.getSubscriberCount("test", "key"));
+
+        subscription2.close();
+        assertTrue(closed.get());
+        assertEquals(0, hub.getWatchCount());
+
+        // Subscribe again after closed
+        hub.subscribe("test", "key", events1::add, watchFactory).close();
+        assertEquals(2, watches.get());
+    }
+
+    @Test
+    public void testFetch() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> future1 = hub.fetch("test", "key", () -> {
+            fetches.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> future2 = hub.fetch("test", "key", () -> {
+            fetches.incrementAndGet();
+            return pending;
+        });
+        assertSame(future1, future2);
+        assertEquals(1, fetches.get());
+
+        pending.complete("value");
+        assertEquals("value", future2.get());
+
+        CompletableFuture<String> future3 = hub.fetch("test", "key", () -> CompletableFuture.completedFuture("new"));
+        assertNotSame(future1, future3);
+        assertEquals("new", future3.get());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.zookeeper.spring.annotation;
+
+import org.apache.zookeeper.client.ConnectStringParser;
+import org.apache.zookeeper.client.HostProvider;
+import org.apache.zookeeper.client.StaticHostProvider;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@link HostProvider} connects the ZooKeeper observers prior to the voting members, thus the config reads and
+ * watches of the massive clients are scaled out by the observers without slowing down the writes of the ensemble:
+ * <ul>
+ *     <li>The observers and the voting members are shuffled respectively to spread the connections</li>
+ *     <li>The voting members are connected only if none of the observers is available</li>
+ *     <li>The observers are preferred again when the connection is lost</li>
+ * </ul>
+ * Unlike {@link StaticHostProvider}, the addresses are not shuffled across the groups.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ZookeeperPropertySource#observerConnectString()
+ * @see StaticHostProvider
+ * @since 1.0.0
+ */
+public class ObserverFirstHostProvider implements HostProvider {
+
+    private final Set<String> observers;
+
+    private volatile List<InetSocketAddress> addresses;
+
+    /**
+     * The count of connection attempts since the last connection
+     */
+    private int attempts;
+
+    /**
+     * @param serverAddresses   all addresses of servers, including the observers
+     * @param observerAddresses the addresses of observers
+     */
+    public ObserverFirstHostProvider(Collection<InetSocketAddress> serverAddresses,
+                                     Collection<InetSocketAddress> observerAddresses) {
+        Set<String> observers = new HashSet<>(observerAddresses.size());
+        for (InetSocketAddress observerAddress : observerAddresses) {
+            observers.add(toKey(observerAddress));
+        }
+        this.observers = observers;
+        this.addresses = order(serverAddresses);
+    }
+
+    /**
+     * Create an instance from the connect strings
+     *
+     * @param connectString         the connect string of all servers, including the observers
+     * @param observerConnectString the connect string of observers
+     * @return non-null
+     */
+    public static ObserverFirstHostProvider of(String connectString, String observerConnectString) {
+        return new ObserverFirstHostProvider(new ConnectStringParser(connectString).getServerAddresses(),
+                new ConnectStringParser(observerConnectString).getServerAddresses());
+    }
+
+    @Override
+    public int size() {
+        return addresses.size();
+    }
+
+    @Override
+    public InetSocketAddress next(long spinDelay) {
+        List<InetSocketAddress> addresses = this.addresses;
+        int size = addresses.size();
+        int attempts;
+        synchronized (this) {
+            attempts = this.attempts++;
+        }
+        if (attempts > 0 && attempts % size == 0 && spinDelay > 0) {
+            // All addresses have been tried since the last connection
+            try {
+                Thread.sleep(spinDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return resolve(addresses.get(attempts % size));
+    }
+
+    @Override
+    public synchronized void onConnected() {
+        // The next reconnection starts from the observers
+        attempts = 0;
+    }
+
+    @Override
+    public synchronized boolean updateServerList(Collection<InetSocketAddress> serverAddresses,
+                                                 InetSocketAddress currentHost) {
+        this.addresses = order(serverAddresses);
+        attempts = 0;
+        // The current connection is kept, the observers are preferred on the next reconnection
+        return false;
+    }
+
+    /**
+     * Is the specified address of an observer or not
+     *
+     * @param address {@link InetSocketAddress}
+     * @return <code>true</code> if it's an observer
+     */
+    public boolean isObserver(InetSocketAddress address) {
+        return observers.contains(toKey(address));
+    }
+
+    /**
+     * Get the addresses in the order of connection
+     *
+     * @return non-null
+     */
+    public List<InetSocketAddress> getAddresses() {
+        return Collections.unmodifiableList(addresses);
+    }
+
+    private List<InetSocketAddress> order(Collection<InetSocketAddress> serverAddresses) {
+        if (serverAddresses.isEmpty()) {
+            throw new IllegalArgumentException("The server addresses must not be empty");
+        }
+        List<InetSocketAddress> observerAddresses = new ArrayList<>();
+        List<InetSocketAddress> votingAddresses = new ArrayList<>();
+        for (InetSocketAddress serverAddress : serverAddresses) {
+            if (isObserver(serverAddress)) {
+                observerAddresses.add(serverAddress);
+            } else {
+                votingAddresses.add(serverAddress);
+            }
+        }
+        Collections.shuffle(observerAddresses);
+        Collections.shuffle(votingAddresses);
+        List<InetSocketAddress> addresses = new ArrayList<>(serverAddresses.size());
+        addresses.addAll(observerAddresses);
+        addresses.addAll(votingAddresses);
+        return addresses;
+    }
+
+    private static InetSocketAddress resolve(InetSocketAddress address) {
+        if (address.isUnresolved()) {
+            // The DNS is looked up on every attempt, thus the replaced hosts are followed
+            return new InetSocketAddress(address.getHostString(), address.getPort());
+        }
+        return address;
+    }
+
+    private static String toKey(InetSocketAddress address) {
+        return address.getHostString() + ":" + address.getPort();
+    }
+}
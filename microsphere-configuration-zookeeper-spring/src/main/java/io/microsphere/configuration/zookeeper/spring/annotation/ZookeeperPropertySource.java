@@ -16,6 +16,13 @@
  */
 package io.microsphere.configuration.zookeeper.spring.annotation;
 
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetchSelector;
+import io.microsphere.configuration.spring.env.IndexedPropertySource;
+import io.microsphere.configuration.spring.env.support.CachingPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.ParallelResourceParser;
+import io.microsphere.configuration.spring.env.support.ParsedContentCache;
+import io.microsphere.configuration.spring.env.support.StreamingJsonPropertySourceFactory;
+import io.microsphere.configuration.spring.env.support.StreamingYamlPropertySourceFactory;
 import io.microsphere.spring.config.context.annotation.PropertySourceExtension;
 import io.microsphere.spring.config.env.support.DefaultResourceComparator;
 import org.springframework.context.annotation.Import;
@@ -46,7 +53,7 @@ import java.util.Comparator;
 @Inherited
 @Documented
 @PropertySourceExtension
-@Import(ZookeeperPropertySourceLoader.class)
+@Import({PropertySourcePrefetchSelector.class, ZookeeperPropertySourceLoader.class})
 public @interface ZookeeperPropertySource {
 
     /**
@@ -162,14 +169,147 @@ public @interface ZookeeperPropertySource {
     /**
      * Specify a custom {@link PropertySourceFactory}, if any.
      * <p>By default, a default factory for standard resource files will be used.
+     * <p>For the large JSON or YAML resources, {@link StreamingJsonPropertySourceFactory} or
+     * {@link StreamingYamlPropertySourceFactory} is recommended to avoid materializing the intermediate tree.
      * <p>Default is {@link DefaultPropertySourceFactory}
      *
      * @see DefaultPropertySourceFactory
+     * @see StreamingJsonPropertySourceFactory
+     * @see StreamingYamlPropertySourceFactory
      * @see org.springframework.core.io.support.ResourcePropertySource
      */
     @AliasFor(annotation = PropertySourceExtension.class)
     Class<? extends PropertySourceFactory> factory() default DefaultPropertySourceFactory.class;
 
+    /**
+     * Indicates the loaded Zookeeper {@link PropertySource} is exposed as a single pre-merged and immutable hash index,
+     * thus the property lookup is constant-time regardless of the count of resources, the index will be rebuilt
+     * when the configuration is refreshed.
+     *
+     * @return default value is <code>false</code>
+     * @see IndexedPropertySource
+     */
+    boolean indexed() default false;
+
+    /**
+     * Indicates the properties parsed by the {@link #factory()} are cached by the hash of the resource content,
+     * thus the unchanged or shared contents will not be re-parsed when the configuration is refreshed.
+     *
+     * <p>The cached properties are retained until evicted by the bounds of {@link ParsedContentCache}, which count the
+     * entries and the raw content bytes rather than the heap retained by the parsed properties.
+     *
+     * @return default value is <code>false</code>
+     * @see CachingPropertySourceFactory
+     * @see ParsedContentCache
+     */
+    boolean parsedContentCached() default false;
+
+    /**
+     * Indicates the resources of all paths are resolved first, and then parsed in parallel on a bounded fork-join
+     * pool when there are more than one, the {@link PropertySource PropertySources} are built from the parsed
+     * results in the order of {@link #resourceComparator()}.
+     *
+     * @return default value is <code>false</code>
+     * @see ParallelResourceParser
+     */
+    boolean parallelParsed() default false;
+
+    /**
+     * Indicates the changes of resources arriving together, in the same watch response or within the
+     * {@link #transactionWindowMillis() window}, are staged and then applied in one atomic step, thus the readers
+     * never see the half-applied configuration, and a single consolidated
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent} of the changed keys is published.
+     * <p>The {@link PropertySource} is {@link #indexed() indexed} implicitly.
+     *
+     * @return default value is <code>false</code>
+     */
+    boolean transactional() default false;
+
+    /**
+     * The window in milliseconds to stage the changes since the first one when {@link #transactional()}
+     *
+     * @return default value is 50 milliseconds
+     */
+    long transactionWindowMillis() default 50;
+
+    /**
+     * Indicates the properties of the resources are stored in the off-heap compact arena
+     * ({@link io.microsphere.configuration.spring.env.OffHeapPropertySource}) rather than the
+     * {@link java.util.HashMap}, as well as the snapshot for the change detection, thus the heap footprint is
+     * independent of the count of keys. The values are stored as {@link String strings}.
+     * <p>It's recommended for the very large flat property sets, e.g, hundreds of thousands of feature flags.
+     * The {@link #parsedContentCached() parsed content cache} and {@link #parallelParsed() parallel parsing} are
+     * not applied, the {@link #indexed() index} is not built since the arena is looked up by the binary search,
+     * and it can't be {@link #transactional() transactional}.
+     *
+     * @return default value is <code>false</code>
+     */
+    boolean offHeap() default false;
+
+    /**
+     * Indicates the resolved values of the properties containing the placeholders, e.g, <code>"${server.port}"</code>,
+     * are cached with the keys they depend on, which are invalidated precisely by the
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent} of the changed keys, thus the
+     * placeholders are not resolved through the property-source chain on every lookup.
+     * <p>The changes of the depended keys should be published as the
+     * {@link io.microsphere.spring.config.env.event.PropertySourcesChangedEvent}.
+     *
+     * @return default value is <code>false</code>
+     * @see io.microsphere.configuration.spring.env.PlaceholderCachingPropertySource
+     */
+    boolean placeholdersCached() default false;
+
+    /**
+     * Indicates a placeholder {@link PropertySource} is registered on startup, the resources are fetched, parsed
+     * and then watched on the first property access, exactly once even if accessed concurrently, thus the rarely
+     * used configuration doesn't slow down the startup.
+     * <p>The {@link #lazyKeyPrefixes() key prefixes} are required, otherwise any lookup falling through the former
+     * {@link PropertySource PropertySources} would load it. The placeholder {@link PropertySource} presents no property
+     * name before being loaded, and the failed loading is retried after the backoff rather than on every lookup.
+     *
+     * @return default value is <code>false</code>
+     * @see io.microsphere.configuration.spring.env.LazyPropertySource
+     * @see #lazyKeyPrefixes()
+     */
+    boolean lazy() default false;
+
+    /**
+     * The prefixes of the property names triggering the loading when {@link #lazy()}, the access of the other
+     * property names is missed without loading, at least one prefix is required if {@link #lazy()}.
+     *
+     * @return default value is the empty array
+     */
+    String[] lazyKeyPrefixes() default {};
+
+    /**
+     * The name of group of the redundant backends mirroring the same configuration, e.g, the etcd and Zookeeper
+     * annotations declaring the same keys and paths. The member of the lowest {@link #hedgeOrder() order} loads the
+     * {@link PropertySource}, whose reads are issued to the next member if not answered within the
+     * {@link #hedgeDelayMillis() hedge delay}, the first valid and version-checked response wins, the other members
+     * are the read replicas without their own {@link PropertySource PropertySources}. The members must be declared
+     * on the same class with the unique {@link #name() names}, otherwise the member declared after the group is
+     * resolved, the unnamed or the duplicated one is rejected.
+     *
+     * @return default value is the empty string, which means no hedging
+     * @see io.microsphere.configuration.spring.annotation.HedgedReadGroup
+     */
+    String hedgeGroup() default "";
+
+    /**
+     * The order of member in the {@link #hedgeGroup() hedge group}, the lower is prior
+     *
+     * @return default value is 0
+     */
+    int hedgeOrder() default 0;
+
+    /**
+     * The delay in milliseconds to issue the read to the next member of {@link #hedgeGroup() hedge group}, which
+     * should be around the p95 latency of the primary
+     *
+     * @return default value is 50 milliseconds
+     */
+    long hedgeDelayMillis() default 50;
+
     /**
      * The string presenting connection to Zookeeper
      *
@@ -177,4 +317,24 @@ public @interface ZookeeperPropertySource {
      */
     String connectString() default "127.0.0.1:2181";
 
+    /**
+     * The string presenting connection to the Zookeeper observers, e.g, "observer1:2181,observer2:2181", which are
+     * connected prior to the voting members in {@link #connectString()}, thus the config reads and watches are
+     * scaled out by the observers without slowing down the writes of the ensemble. The voting members are connected
+     * only if none of the observers is available. The chroot suffix should be specified in {@link #connectString()}.
+     *
+     * @return default value is the empty string, the observers are not preferred
+     * @see ObserverFirstHostProvider
+     */
+    String observerConnectString() default "";
+
+    /**
+     * Indicates the client can connect the server in the read-only mode, thus the config reads and watches stay
+     * available from the partitioned server during the quorum loss. The server should be started with
+     * "readonlymode.enabled=true".
+     *
+     * @return default value is <code>false</code>
+     * @see org.apache.curator.framework.CuratorFrameworkFactory.Builder#canBeReadOnly(boolean)
+     */
+    boolean canBeReadOnly() default false;
 }
@@ -16,6 +16,7 @@
  */
 package io.microsphere.configuration.zookeeper.spring.annotation;
 
+import io.microsphere.configuration.spring.annotation.ConfigurationPropertySourceAttributes;
 import io.microsphere.spring.config.context.annotation.PropertySourceExtensionAttributes;
 import org.springframework.core.env.PropertyResolver;
 
@@ -27,9 +28,10 @@ import java.util.Map;
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
  * @see ZookeeperPropertySource
  * @see ZookeeperPropertySourceLoader
+ * @see ConfigurationPropertySourceAttributes
  * @since 1.0.0
  */
-public final class ZookeeperPropertySourceAttributes extends PropertySourceExtensionAttributes<ZookeeperPropertySource> {
+public final class ZookeeperPropertySourceAttributes extends ConfigurationPropertySourceAttributes<ZookeeperPropertySource> {
 
     public ZookeeperPropertySourceAttributes(Map<String, Object> another, Class<ZookeeperPropertySource> annotationType, PropertyResolver propertyResolver) {
         super(another, annotationType, propertyResolver);
@@ -39,6 +41,14 @@ public final class ZookeeperPropertySourceAttributes extends PropertySourceExten
         return getString("connectString");
     }
 
+    public String getObserverConnectString() {
+        return getString("observerConnectString");
+    }
+
+    public boolean isCanBeReadOnly() {
+        return getBoolean("canBeReadOnly");
+    }
+
     public String[] getPaths() {
         return getValue();
     }
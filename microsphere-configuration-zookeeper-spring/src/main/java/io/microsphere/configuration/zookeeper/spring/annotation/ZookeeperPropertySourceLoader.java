@@ -16,21 +16,49 @@
  */
 package io.microsphere.configuration.zookeeper.spring.annotation;
 
-import io.microsphere.spring.config.context.annotation.PropertySourceExtensionLoader;
+import io.microsphere.configuration.metrics.ChangeTrace;
+import io.microsphere.configuration.spring.annotation.ConfigurationPropertySourceLoader;
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup;
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup.VersionedResources;
+import io.microsphere.configuration.watch.WatchSubscriptionHub.Subscription;
 import io.microsphere.util.ArrayUtils;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
 import org.apache.curator.retry.RetryForever;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.KeeperException.Code;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
+import static io.microsphere.configuration.compression.CompressionUtils.decompress;
+import static io.microsphere.configuration.concurrent.ConfigurationExecutors.newSerialDispatchExecutor;
+import static io.microsphere.configuration.metrics.ChangeTrace.UNKNOWN;
 import static io.microsphere.util.ShutdownHookUtils.addShutdownHookCallback;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static org.apache.curator.framework.recipes.cache.CuratorCache.Options.SINGLE_NODE_CACHE;
 
 /**
  * {@link ZookeeperPropertySource} {@link PropertySource} Loader to load the Zookeeper Configuration:
@@ -44,15 +72,26 @@ import static io.microsphere.util.ShutdownHookUtils.addShutdownHookCallback;
  * @see ZookeeperPropertySourceAttributes
  * @since 1.0.0
  */
-public class ZookeeperPropertySourceLoader extends PropertySourceExtensionLoader<ZookeeperPropertySource, ZookeeperPropertySourceAttributes> {
+public class ZookeeperPropertySourceLoader extends ConfigurationPropertySourceLoader<ZookeeperPropertySource, ZookeeperPropertySourceAttributes> {
+
+    /**
+     * The name of configuration backend
+     */
+    public static final String BACKEND = "zookeeper";
 
     private static final Map<String, CuratorFramework> clientsCache;
 
+    private static final List<CuratorCache> curatorCaches;
+
     static {
-        clientsCache = new HashMap<>();
+        clientsCache = new ConcurrentHashMap<>();
+        curatorCaches = new CopyOnWriteArrayList<>();
         addShutdownHookCallback(new Runnable() {
             @Override
             public void run() {
+                // Close caches
+                closeCaches(curatorCaches);
+                curatorCaches.clear();
                 // Close clients
                 close(clientsCache.values());
                 // Clear clients cache when JVM is shutdown
@@ -62,41 +101,267 @@ public class ZookeeperPropertySourceLoader extends PropertySourceExtensionLoader
     }
 
     @Override
-    protected Resource[] resolveResources(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes, String propertySourceName, String resourceValue) throws Throwable {
-        CuratorFramework client = getClient(zookeeperPropertySourceAttributes);
+    protected String getBackend() {
+        return BACKEND;
+    }
 
-        boolean resourcePathNotExisted = client.checkExists().forPath(resourceValue) == null;
+    @Override
+    protected Resource[] doResolveResources(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes, String propertySourceName, String resourceValue) throws Throwable {
+        long startTime = nanoTime();
+
+        byte[] bytes = takePrefetched(zookeeperPropertySourceAttributes, resourceValue);
+        if (bytes != null) {
+            metrics.recordResolve(BACKEND, propertySourceName, resourceValue, nanoTime() - startTime, bytes.length);
+            return ArrayUtils.of(new ByteArrayResource(decompress(bytes), "The zookeeper configuration from the path : " + resourceValue));
+        }
+
+        CuratorFramework client = getClient(zookeeperPropertySourceAttributes);
 
         boolean autoRefreshed = zookeeperPropertySourceAttributes.isAutoRefreshed();
 
-        if (resourcePathNotExisted) { // Not Existed
+        // The concurrent fetches of the same path, e.g, from the multiple ApplicationContexts, share one request
+        CompletableFuture<byte[]> future = getWatchSubscriptionHub().fetch(BACKEND,
+                buildPrefetchKey(zookeeperPropertySourceAttributes, resourceValue), () -> {
+                    CompletableFuture<byte[]> result = new CompletableFuture<>();
+                    try {
+                        result.complete(getData(client, resourceValue, autoRefreshed));
+                    } catch (Exception e) {
+                        result.completeExceptionally(e);
+                    }
+                    return result;
+                });
+
+        try {
+            bytes = future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+
+        if (bytes == null) { // Not Existed
+            metrics.recordResolve(BACKEND, propertySourceName, resourceValue, nanoTime() - startTime, 0);
+            return null;
+        }
+
+        metrics.recordResolve(BACKEND, propertySourceName, resourceValue, nanoTime() - startTime, bytes.length);
+
+        return ArrayUtils.of(new ByteArrayResource(decompress(bytes), "The zookeeper configuration from the path : " + resourceValue));
+
+    }
+
+    @Override
+    protected void configureResourcePropertySourcesRefresher(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes,
+                                                             List<PropertySourceResource> propertySourceResources,
+                                                             CompositePropertySource propertySource,
+                                                             ResourcePropertySourcesRefresher refresher) throws Throwable {
+        CuratorFramework client = getClient(zookeeperPropertySourceAttributes);
+        String propertySourceName = propertySource.getName();
+
+        int size = propertySourceResources.size();
+        for (int i = 0; i < size; i++) {
+            PropertySourceResource propertySourceResource = propertySourceResources.get(i);
+            String resourceValue = propertySourceResource.getResourceValue();
+            // Dispatch the changes of path in order
+            Executor dispatcher = newSerialDispatchExecutor();
+            // The identical watches of the ApplicationContexts in the JVM share one CuratorCache
+            Subscription subscription = getWatchSubscriptionHub().subscribe(BACKEND,
+                    buildPrefetchKey(zookeeperPropertySourceAttributes, resourceValue), (ChildData node) -> {
+                        long receivedTime = nanoTime();
+                        long receivedTimeMillis = currentTimeMillis();
+                        dispatcher.execute(() -> {
+                            long parseStartTime = nanoTime();
+                            onConfigChanged(resourceValue, node, propertySourceName, refresher);
+                            long applyStartTime = nanoTime();
+                            afterRefresh(zookeeperPropertySourceAttributes, propertySourceName);
+                            long appliedTime = nanoTime();
+                            metrics.recordPropagation(BACKEND, propertySourceName, resourceValue, appliedTime - receivedTime);
+                            // The mzxid is the version, the mtime is the write time
+                            Stat stat = node.getStat();
+                            metrics.recordChange(BACKEND, propertySourceName, resourceValue, new ChangeTrace(
+                                    stat == null ? UNKNOWN : stat.getMzxid(), stat == null ? UNKNOWN : stat.getMtime(),
+                                    receivedTimeMillis, applyStartTime - parseStartTime, appliedTime - applyStartTime,
+                                    currentTimeMillis()));
+                        });
+                    }, listener -> watch(client, resourceValue, listener));
+            registerSubscription(subscription);
+        }
+    }
+
+    private void onConfigChanged(String resourceValue, ChildData node, String propertySourceName,
+                                 ResourcePropertySourcesRefresher refresher) {
+        metrics.recordWatchEvent(BACKEND, propertySourceName, resourceValue);
+        byte[] bytes;
+        try {
+            bytes = decompress(node.getData());
+        } catch (IOException e) {
+            // e.g, the decompressed content exceeds the limit, the refresh fails and the current data is retained
+            logger.warn("The data of Zookeeper path[{}] can't be decompressed, caused by : {}", resourceValue, e.getMessage());
+            metrics.recordRefresh(BACKEND, propertySourceName, resourceValue, 0L, false);
+            return;
+        }
+        ByteArrayResource resource = new ByteArrayResource(bytes, "The zookeeper configuration from the path : " + resourceValue);
+        refreshResource(propertySourceName, resourceValue, resource, refresher);
+    }
+
+    private static AutoCloseable watch(CuratorFramework client, String path, Consumer<ChildData> listener) {
+        CuratorCache curatorCache = CuratorCache.build(client, path, SINGLE_NODE_CACHE);
+        curatorCache.listenable().addListener(CuratorCacheListener.builder()
+                .forChanges((oldNode, node) -> listener.accept(node))
+                .build());
+        curatorCache.start();
+        curatorCaches.add(curatorCache);
+        return () -> {
+            curatorCaches.remove(curatorCache);
+            curatorCache.close();
+        };
+    }
+
+    /**
+     * Get the data of path
+     *
+     * @return the data if the path is existed or created, or <code>null</code>
+     */
+    private static byte[] getData(CuratorFramework client, String path, boolean autoRefreshed) throws Exception {
+        if (client.checkExists().forPath(path) == null) { // Not Existed
             if (!autoRefreshed) {
                 return null;
             }
             // Create Root Path
-            client.create().forPath(resourceValue);
+            client.create().forPath(path);
         }
+        return client.getData().forPath(path);
+    }
 
-        byte[] bytes = client.getData().forPath(resourceValue);
+    /**
+     * Take the data of path prefetched by {@link ZookeeperPropertySourcePrefetcher}
+     *
+     * @return the data if the path was existed and fetched, or <code>null</code>
+     */
+    private byte[] takePrefetched(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes, String resourceValue) {
+        CompletableFuture<byte[]> future = getPrefetchRegistry().take(BACKEND, buildPrefetchKey(zookeeperPropertySourceAttributes, resourceValue));
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // Fetch again
+            return null;
+        }
+    }
+
+    /**
+     * Read the resource of path asynchronously with the mzxid as the version for the {@link HedgedReadGroup}
+     *
+     * @param zookeeperPropertySourceAttributes {@link ZookeeperPropertySourceAttributes}
+     * @param resourceValue                     the Zookeeper path
+     * @return non-null
+     */
+    static CompletableFuture<VersionedResources> read(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes,
+                                                      String resourceValue) throws Exception {
+        CuratorFramework client = getClient(zookeeperPropertySourceAttributes);
+        CompletableFuture<VersionedResources> future = new CompletableFuture<>();
+        client.getData().inBackground((c, event) -> {
+            Code code = Code.get(event.getResultCode());
+            if (Code.OK.equals(code)) {
+                byte[] bytes = event.getData();
+                try {
+                    Resource resource = new ByteArrayResource(decompress(bytes == null ? new byte[0] : bytes),
+                            "The zookeeper configuration from the path : " + resourceValue);
+                    future.complete(new VersionedResources(ArrayUtils.of(resource), event.getStat().getMzxid()));
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            } else if (Code.NONODE.equals(code)) {
+                future.complete(new VersionedResources(null, UNKNOWN));
+            } else {
+                future.completeExceptionally(KeeperException.create(code, resourceValue));
+            }
+        }).forPath(resourceValue);
+        return future;
+    }
 
-        return ArrayUtils.of(new ByteArrayResource(bytes, "The zookeeper configuration from the path : " + resourceValue));
+    /**
+     * Build the key of the prefetches and the shared watches, which is distinguished by the client settings as well
+     * as {@link #buildClientKey(ZookeeperPropertySourceAttributes) the client}
+     */
+    static String buildPrefetchKey(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes, String resourceValue) {
+        return buildClientKey(zookeeperPropertySourceAttributes) + "@" + resourceValue;
+    }
 
+    static String buildClientKey(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes) {
+        return zookeeperPropertySourceAttributes.getConnectString() + "|"
+                + zookeeperPropertySourceAttributes.getObserverConnectString() + "|"
+                + zookeeperPropertySourceAttributes.isCanBeReadOnly();
     }
 
-    private CuratorFramework getClient(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes) {
+    /**
+     * Build the connect string of the observers followed by the voting members, the duplicated servers are removed
+     * and the chroot suffix of the connect string is retained
+     *
+     * @param connectString         the connect string of the voting members with the optional chroot suffix
+     * @param observerConnectString the connect string of observers
+     * @return non-null
+     */
+    static String buildConnectString(String connectString, String observerConnectString) {
+        String chroot = "";
+        int chrootIndex = connectString.indexOf('/');
+        if (chrootIndex > -1) {
+            chroot = connectString.substring(chrootIndex);
+            connectString = connectString.substring(0, chrootIndex);
+        }
+        int observerChrootIndex = observerConnectString.indexOf('/');
+        if (observerChrootIndex > -1) {
+            observerConnectString = observerConnectString.substring(0, observerChrootIndex);
+        }
+        Set<String> servers = new LinkedHashSet<>();
+        addServers(observerConnectString, servers);
+        addServers(connectString, servers);
+        return StringUtils.collectionToCommaDelimitedString(servers) + chroot;
+    }
+
+    private static void addServers(String connectString, Set<String> servers) {
+        for (String server : StringUtils.commaDelimitedListToStringArray(connectString)) {
+            String trimmedServer = server.trim();
+            if (!trimmedServer.isEmpty()) {
+                servers.add(trimmedServer);
+            }
+        }
+    }
+
+    static CuratorFramework getClient(ZookeeperPropertySourceAttributes zookeeperPropertySourceAttributes) {
         String connectString = zookeeperPropertySourceAttributes.getConnectString();
-        String key = connectString;
+        String observerConnectString = zookeeperPropertySourceAttributes.getObserverConnectString();
+        boolean canBeReadOnly = zookeeperPropertySourceAttributes.isCanBeReadOnly();
+        String key = buildClientKey(zookeeperPropertySourceAttributes);
         return clientsCache.computeIfAbsent(key, k -> {
-            CuratorFramework client = CuratorFrameworkFactory.builder()
-                    .connectString(connectString)
+            CuratorFrameworkFactory.Builder builder = CuratorFrameworkFactory.builder()
                     .retryPolicy(new RetryForever(300))
-                    .build();
+                    .canBeReadOnly(canBeReadOnly);
+            if (StringUtils.hasText(observerConnectString)) {
+                // The observers are connected prior to the voting members
+                builder.connectString(buildConnectString(connectString, observerConnectString))
+                        .zookeeperFactory((zkConnectString, sessionTimeout, watcher, readOnly) ->
+                                new ZooKeeper(zkConnectString, sessionTimeout, watcher, readOnly,
+                                        ObserverFirstHostProvider.of(zkConnectString, observerConnectString)));
+            } else {
+                builder.connectString(connectString);
+            }
+            CuratorFramework client = builder.build();
             // Start
             client.start();
             return client;
         });
     }
 
+    private static void closeCaches(Collection<CuratorCache> curatorCaches) {
+        for (CuratorCache curatorCache : curatorCaches) {
+            curatorCache.close();
+        }
+    }
+
     private static void close(Collection<CuratorFramework> clients) {
         for (CuratorFramework client : clients) {
             close(client);
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.zookeeper.spring.annotation;
+
+import io.microsphere.configuration.spring.annotation.HedgedReadGroup;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetchRegistry;
+import io.microsphere.configuration.spring.annotation.PropertySourcePrefetcher;
+import org.apache.curator.framework.CuratorFramework;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.lang.annotation.Annotation;
+
+import static io.microsphere.configuration.zookeeper.spring.annotation.ZookeeperPropertySourceLoader.BACKEND;
+import static io.microsphere.configuration.zookeeper.spring.annotation.ZookeeperPropertySourceLoader.buildPrefetchKey;
+import static io.microsphere.configuration.zookeeper.spring.annotation.ZookeeperPropertySourceLoader.getClient;
+import static io.microsphere.configuration.zookeeper.spring.annotation.ZookeeperPropertySourceLoader.read;
+
+/**
+ * {@link ZookeeperPropertySource} {@link PropertySourcePrefetcher} reads the data of the existed paths
+ * asynchronously, which are taken by {@link ZookeeperPropertySourceLoader} later. The absent paths are left to the
+ * loader to be created if required.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @see ZookeeperPropertySource
+ * @see ZookeeperPropertySourceLoader
+ * @since 1.0.0
+ */
+public class ZookeeperPropertySourcePrefetcher implements PropertySourcePrefetcher {
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+        return ZookeeperPropertySource.class;
+    }
+
+    @Override
+    public void prefetch(AnnotationAttributes annotationAttributes, ConfigurableEnvironment environment,
+                         PropertySourcePrefetchRegistry registry) throws Throwable {
+        ZookeeperPropertySourceAttributes attributes = new ZookeeperPropertySourceAttributes(annotationAttributes,
+                ZookeeperPropertySource.class, environment);
+        if (attributes.isHedged()) {
+            // The hedged reads are issued by the primary of group on loading
+            HedgedReadGroup.getGroup(environment, attributes.getHedgeGroup()).register(attributes.getName(),
+                    attributes.getHedgeOrder(), resourceValue -> read(attributes, resourceValue));
+            return;
+        }
+        if (attributes.isLazy()) {
+            // The paths are read on the first access
+            return;
+        }
+        CuratorFramework client = getClient(attributes);
+        for (String path : attributes.getPaths()) {
+            registry.prefetch(BACKEND, buildPrefetchKey(attributes, path), () -> {
+                if (client.checkExists().forPath(path) == null) {
+                    return null;
+                }
+                return client.getData().forPath(path);
+            });
+        }
+    }
+}
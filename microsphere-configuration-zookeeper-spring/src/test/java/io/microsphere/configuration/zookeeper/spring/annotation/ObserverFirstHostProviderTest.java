@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.zookeeper.spring.annotation;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ObserverFirstHostProvider} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class ObserverFirstHostProviderTest {
+
+    private static final String OBSERVERS = "127.0.0.1:2191,127.0.0.1:2192";
+
+    private static final String VOTERS = "127.0.0.1:2181,127.0.0.1:2182,127.0.0.1:2183";
+
+    @Test
+    public void testOrder() {
+        ObserverFirstHostProvider hostProvider = ObserverFirstHostProvider.of(VOTERS + "," + OBSERVERS + "/config", OBSERVERS);
+        assertEquals(5, hostProvider.size());
+
+        List<InetSocketAddress> addresses = hostProvider.getAddresses();
+        assertTrue(hostProvider.isObserver(addresses.get(0)));
+        assertTrue(hostProvider.isObserver(addresses.get(1)));
+        for (int i = 2; i < addresses.size(); i++) {
+            assertFalse(hostProvider.isObserver(addresses.get(i)));
+        }
+    }
+
+    @Test
+    public void testNext() {
+        ObserverFirstHostProvider hostProvider = ObserverFirstHostProvider.of(OBSERVERS + "," + VOTERS, OBSERVERS);
+
+        // The observers are tried first
+        assertTrue(hostProvider.isObserver(hostProvider.next(0)));
+        assertTrue(hostProvider.isObserver(hostProvider.next(0)));
+        InetSocketAddress address = hostProvider.next(0);
+        assertFalse(hostProvider.isObserver(address));
+        assertFalse(address.isUnresolved());
+
+        // The observers are preferred again after reconnecting
+        hostProvider.onConnected();
+        assertTrue(hostProvider.isObserver(hostProvider.next(0)));
+    }
+
+    @Test
+    public void testUpdateServerList() {
+        ObserverFirstHostProvider hostProvider = ObserverFirstHostProvider.of(OBSERVERS + "," + VOTERS, OBSERVERS);
+        InetSocketAddress observer = new InetSocketAddress("127.0.0.1", 2191);
+        InetSocketAddress voter = new InetSocketAddress("127.0.0.1", 2181);
+
+        assertFalse(hostProvider.updateServerList(asList(voter, observer), voter));
+        assertEquals(2, hostProvider.size());
+        assertEquals(observer, hostProvider.next(0));
+        assertEquals(voter, hostProvider.next(0));
+    }
+}
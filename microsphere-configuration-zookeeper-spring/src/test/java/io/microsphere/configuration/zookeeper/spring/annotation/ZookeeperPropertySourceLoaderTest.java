@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.microsphere.configuration.zookeeper.spring.annotation;
+
+import org.junit.Test;
+
+import static io.microsphere.configuration.zookeeper.spring.annotation.ZookeeperPropertySourceLoader.buildConnectString;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link ZookeeperPropertySourceLoader} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy</a>
+ * @since 1.0.0
+ */
+public class ZookeeperPropertySourceLoaderTest {
+
+    private static final String OBSERVERS = "127.0.0.1:2191,127.0.0.1:2192";
+
+    private static final String VOTERS = "127.0.0.1:2181,127.0.0.1:2182";
+
+    @Test
+    public void testBuildConnectString() {
+        assertEquals(OBSERVERS + "," + VOTERS, buildConnectString(VOTERS, OBSERVERS));
+        assertEquals(OBSERVERS + "," + VOTERS + "/config", buildConnectString(VOTERS + "/config", OBSERVERS));
+    }
+
+    @Test
+    public void testBuildConnectStringOnDuplicatedServers() {
+        // The observers listed in the connect string are not duplicated
+        assertEquals(OBSERVERS + "," + VOTERS + "/config", buildConnectString(VOTERS + "," + OBSERVERS + "/config", OBSERVERS));
+        assertEquals(OBSERVERS + "," + VOTERS + "/config",
+                buildConnectString(VOTERS + ", 127.0.0.1:2191/config", " 127.0.0.1:2191, 127.0.0.1:2192"));
+    }
+}